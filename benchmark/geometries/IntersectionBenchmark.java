@@ -0,0 +1,181 @@
+package geometries;
+
+import org.openjdk.jmh.annotations.*;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import geometries.Intersectable.GeoPoint;
+
+/**
+ * Micro benchmarks of the ray intersection kernels of the geometries. The rays go from the origin
+ * through a fixed pseudo random set of points of a 200x200 view plane, so some of them miss each shape,
+ * and they are cycled to keep the branch predictor honest.
+ *
+ * @author Ayelet and Gili
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntersectionBenchmark {
+    /** Number of the cycled rays, a power of 2 */
+    private static final int RAYS = 1024;
+    /** Number of the squares along an edge of the grid mesh */
+    private static final int MESH_SIZE = 100;
+
+    /** The sphere */
+    private final Sphere sphere = new Sphere(50, new Point(0, 0, -200));
+    /** The triangle */
+    private final Triangle triangle = new Triangle(new Point(-80, -60, -200), new Point(80, -60, -200),
+            new Point(0, 80, -220));
+    /** The plane */
+    private final Plane plane = new Plane(new Point(0, -60, 0), new Vector(0, 1, 0));
+    /** The polygon, a pentagon */
+    private final Polygon polygon = new Polygon(new Point(-60, -60, -200), new Point(60, -60, -200),
+            new Point(90, 20, -200), new Point(0, 80, -200), new Point(-90, 20, -200));
+    /** A bumpy grid mesh of {@value #MESH_SIZE} x {@value #MESH_SIZE} squares, 2 faces each */
+    private final Mesh mesh = grid(MESH_SIZE);
+    /** A collection of spheres and triangles */
+    private final Geometries geometries = new Geometries();
+    /** The cycled rays */
+    private final Ray[] rays = new Ray[RAYS];
+    /** The index of the next ray */
+    private int next = 0;
+
+    /**
+     * Builds the rays and the collection of geometries
+     */
+    @Setup
+    public void setup() {
+        long state = 17;
+        for (int k = 0; k < RAYS; ++k) {
+            state = state * 6364136223846793005L + 1442695040888963407L;
+            double x = ((state >>> 40) & 0xFFFF) / 65536.0 * 200 - 100;
+            double y = ((state >>> 20) & 0xFFFF) / 65536.0 * 200 - 100;
+            rays[k] = new Ray(Point.ZERO, new Vector(x, y, -100));
+        }
+        for (int i = 0; i < 8; ++i)
+            for (int j = 0; j < 8; ++j) {
+                double x = -140 + 40 * i, y = -140 + 40 * j;
+                geometries.add(new Sphere(12, new Point(x, y, -300 - 10 * i)),
+                        new Triangle(new Point(x - 15, y - 15, -320), new Point(x + 15, y - 15, -320),
+                                new Point(x, y + 15, -330)));
+            }
+    }
+
+    /**
+     * Builds a grid of size x size squares over the view, each made of 2 faces, with bumps so the
+     * hierarchy of the mesh is not flat
+     *
+     * @param size the number of squares along an edge of the grid
+     * @return the grid mesh
+     */
+    private static Mesh grid(int size) {
+        float[] vertices = new float[3 * (size + 1) * (size + 1)];
+        for (int i = 0; i <= size; ++i)
+            for (int j = 0; j <= size; ++j) {
+                int v = 3 * (i * (size + 1) + j);
+                vertices[v] = -100 + 200f * j / size;
+                vertices[v + 1] = -100 + 200f * i / size;
+                vertices[v + 2] = -200 - 5 * ((i + j) % 2);
+            }
+        int[] faces = new int[6 * size * size];
+        int f = 0;
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j) {
+                int a = i * (size + 1) + j, b = a + 1, c = a + size + 2, d = a + size + 1;
+                faces[f++] = a;
+                faces[f++] = b;
+                faces[f++] = c;
+                faces[f++] = a;
+                faces[f++] = c;
+                faces[f++] = d;
+            }
+        return new Mesh(vertices, faces);
+    }
+
+    /**
+     * @return the next ray of the cycle
+     */
+    private Ray nextRay() {
+        return rays[next++ & (RAYS - 1)];
+    }
+
+    /**
+     * @return the intersections of a ray with the sphere
+     */
+    @Benchmark
+    public List<GeoPoint> sphere() {
+        return sphere.findGeoIntersectionsHelper(nextRay());
+    }
+
+    /**
+     * @return the closest intersection of a ray with the sphere
+     */
+    @Benchmark
+    public GeoPoint sphereClosest() {
+        return sphere.findClosestGeoIntersectionHelper(nextRay(), Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @return the intersections of a ray with the triangle
+     */
+    @Benchmark
+    public List<GeoPoint> triangle() {
+        return triangle.findGeoIntersectionsHelper(nextRay());
+    }
+
+    /**
+     * @return the intersections of a ray with the plane
+     */
+    @Benchmark
+    public List<GeoPoint> plane() {
+        return plane.findGeoIntersectionsHelper(nextRay());
+    }
+
+    /**
+     * @return the intersections of a ray with the polygon
+     */
+    @Benchmark
+    public List<GeoPoint> polygon() {
+        return polygon.findGeoIntersectionsHelper(nextRay());
+    }
+
+    /**
+     * @return all the intersections of a ray with the mesh
+     */
+    @Benchmark
+    public List<GeoPoint> mesh() {
+        return mesh.findGeoIntersectionsHelper(nextRay());
+    }
+
+    /**
+     * @return the closest intersection of a ray with the mesh
+     */
+    @Benchmark
+    public GeoPoint meshClosest() {
+        return mesh.findClosestGeoIntersectionHelper(nextRay(), Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @return all the intersections of a ray with the collection
+     */
+    @Benchmark
+    public List<GeoPoint> geometries() {
+        return geometries.findGeoIntersectionsHelper(nextRay());
+    }
+
+    /**
+     * @return the closest intersection of a ray with the collection
+     */
+    @Benchmark
+    public GeoPoint geometriesClosest() {
+        return geometries.findClosestGeoIntersection(nextRay());
+    }
+}
@@ -0,0 +1,94 @@
+package primitives;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of the color and triad operations that the shading does for every light and
+ * every secondary ray. The operands are fields, so the results can't be folded into constants.
+ *
+ * @author Ayelet and Gili
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorBenchmark {
+    /** First color operand */
+    private Color color1 = new Color(120, 40, 200);
+    /** Second color operand */
+    private Color color2 = new Color(30, 90, 15);
+    /** First triad operand */
+    private Double3 k1 = new Double3(0.5, 0.3, 0.8);
+    /** Second triad operand */
+    private Double3 k2 = new Double3(0.9, 0.7, 0.2);
+    /** Scalar operand */
+    private double scalar = 0.75;
+
+    /**
+     * @return the sum of 2 colors
+     */
+    @Benchmark
+    public Color colorAdd() {
+        return color1.add(color2);
+    }
+
+    /**
+     * @return a color scaled by a triad
+     */
+    @Benchmark
+    public Color colorScaleTriad() {
+        return color1.scale(k1);
+    }
+
+    /**
+     * @return a color scaled by a scalar
+     */
+    @Benchmark
+    public Color colorScale() {
+        return color1.scale(scalar);
+    }
+
+    /**
+     * @return a color reduced by a factor
+     */
+    @Benchmark
+    public Color colorReduce() {
+        return color1.reduce(4);
+    }
+
+    /**
+     * @return the sum of 2 triads
+     */
+    @Benchmark
+    public Double3 tripleAdd() {
+        return k1.add(k2);
+    }
+
+    /**
+     * @return the product of 2 triads
+     */
+    @Benchmark
+    public Double3 tripleProduct() {
+        return k1.product(k2);
+    }
+
+    /**
+     * @return a triad scaled by a scalar
+     */
+    @Benchmark
+    public Double3 tripleScale() {
+        return k1.scale(scalar);
+    }
+
+    /**
+     * @return whether a triad is below a threshold
+     */
+    @Benchmark
+    public boolean tripleLowerThan() {
+        return k1.product(k2).lowerThan(0.001);
+    }
+}
@@ -0,0 +1,32 @@
+package renderer;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler, so every result comes with the bytes allocated per
+ * operation and the garbage collections. The arguments are the usual JMH command line options, e.g. a
+ * regular expression of the benchmarks to run - "IntersectionBenchmark" for the intersection kernels
+ * only, or "SceneBenchmark" for the full renders. Without arguments all the benchmarks run.
+ *
+ * @author Ayelet and Gili
+ */
+public class BenchmarkRunner {
+    /**
+     * @param args JMH command line options
+     * @throws RunnerException            if a benchmark fails
+     * @throws CommandLineOptionException if the options are wrong
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(options).addProfiler(GCProfiler.class);
+        if (options.getIncludes().isEmpty())
+            builder.include("(geometries|primitives|renderer)\\.\\w+Benchmark");
+        new Runner(builder.build()).run();
+    }
+}
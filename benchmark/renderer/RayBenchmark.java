@@ -0,0 +1,105 @@
+package renderer;
+
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.openjdk.jmh.annotations.*;
+import primitives.*;
+import scene.Scene;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of the per pixel work of the renderer - constructing a primary ray, and tracing it
+ * through a small scene with reflection, transparency and shadows. The pixels are visited in scan order,
+ * as the rendering does.
+ *
+ * @author Ayelet and Gili
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RayBenchmark {
+    /** Resolution of the view plane in each axis */
+    private static final int RESOLUTION = 256;
+
+    /** The camera */
+    private Camera camera;
+    /** The ray tracer */
+    private SimpleRayTracer rayTracer;
+    /** The primary rays, in scan order */
+    private Ray[] rays;
+    /** The generator of the primary rays */
+    private PrimaryRayGenerator generator;
+    /** The reused batch of the rays of a row */
+    private final Ray[] batch = new Ray[RESOLUTION];
+    /** The index of the next pixel */
+    private int next = 0;
+
+    /**
+     * Builds the scene, the camera and the primary rays
+     */
+    @Setup
+    public void setup() {
+        Scene scene = new Scene("Benchmark scene");
+        scene.geometries.add(
+                new Sphere(50d, new Point(0, 0, -200)).setEmission(new Color(0, 50, 100))
+                        .setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(100).setKt(0.3)),
+                new Sphere(25d, new Point(0, 0, -200)).setEmission(new Color(100, 50, 20))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(100)),
+                new Triangle(new Point(-150, -150, -300), new Point(150, -150, -300), new Point(0, 150, -320))
+                        .setEmission(new Color(20, 20, 20)).setMaterial(new Material().setKr(0.6)),
+                new Triangle(new Point(-150, -80, -100), new Point(150, -80, -100), new Point(0, -80, -400))
+                        .setEmission(new Color(30, 30, 30)).setMaterial(new Material().setKd(0.5).setKs(0.2)));
+        scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+        scene.lights.add(new SpotLight(new Color(700, 400, 400), new Point(60, 50, 0), new Vector(-1, -1, -4))
+                .setKl(0.0004).setKq(0.0000006));
+        scene.lights.add(new PointLight(new Color(300, 300, 500), new Point(-80, 100, -50)).setKl(0.0005));
+
+        rayTracer = new SimpleRayTracer(scene);
+        camera = Camera.getBuilder().setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpDistance(100).setVpSize(200, 200)
+                .setRayTracer(rayTracer)
+                .setImageWriter(new ImageWriter("rayBenchmark", RESOLUTION, RESOLUTION))
+                .build();
+        generator = new PrimaryRayGenerator(camera.getP0(), camera.getvTo(), camera.getvUp(), camera.getvRight(),
+                camera.getViewPlaneDistance(), camera.getViewPlaneWidth(), camera.getViewPlaneHeight(),
+                RESOLUTION, RESOLUTION);
+        rays = new Ray[RESOLUTION * RESOLUTION];
+        for (int i = 0; i < RESOLUTION; ++i)
+            for (int j = 0; j < RESOLUTION; ++j)
+                rays[i * RESOLUTION + j] = camera.constructRay(RESOLUTION, RESOLUTION, j, i);
+    }
+
+    /**
+     * @return the primary ray through the next pixel
+     */
+    @Benchmark
+    public Ray constructRay() {
+        int pixel = next++ % (RESOLUTION * RESOLUTION);
+        return camera.constructRay(RESOLUTION, RESOLUTION, pixel % RESOLUTION, pixel / RESOLUTION);
+    }
+
+    /**
+     * @return the batch of the primary rays through the next row
+     */
+    @Benchmark
+    public Ray[] rowRays() {
+        generator.rowRays(0, next++ % RESOLUTION, RESOLUTION, batch);
+        return batch;
+    }
+
+    /**
+     * @return the color of the next primary ray
+     */
+    @Benchmark
+    public Color traceRay() {
+        return rayTracer.traceRay(rays[next++ % rays.length]);
+    }
+}
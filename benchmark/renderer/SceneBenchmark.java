@@ -0,0 +1,204 @@
+package renderer;
+
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.openjdk.jmh.annotations.*;
+import primitives.*;
+import scene.Scene;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static java.awt.Color.*;
+import static renderer.RenderStatistics.Counter.*;
+
+/**
+ * Macro benchmarks of full renders of the scenes of the rendering tests. The scenes are rebuilt here as
+ * in their tests, and the camera is built once, so an invocation is only {@link Camera#renderImage()} -
+ * no scene building and no image file. Besides the renders per second, the traced rays per second are
+ * reported as secondary results, counted by the statistics of the camera: in total and by their kind.
+ * The statistics count the intersection tests as well, which costs the same in every scene.
+ *
+ * @author Ayelet and Gili
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class SceneBenchmark {
+    /** The scene, as the class and the method of its test */
+    @Param({"ShadowTests.sphereTriangleInitial", "ShadowTests.trianglesSphere",
+            "LightsTests.spherePoint", "LightsTests.trianglesSpot",
+            "ReflectionRefractionTests.twoSpheres", "ReflectionRefractionTests.twoSpheresOnMirrors",
+            "ReflectionRefractionTests.trianglesTransparentSphere"})
+    public String scene;
+
+    /** The statistics of the renders */
+    private final RenderStatistics statistics = new RenderStatistics();
+    /** The camera of the scene */
+    private Camera camera;
+
+    /**
+     * Counters of the traced rays, reported per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rays {
+        /** All the rays traced in the iteration */
+        public long rays;
+        /** The primary rays traced in the iteration */
+        public long primary;
+        /** The reflected rays traced in the iteration */
+        public long reflection;
+        /** The refracted rays traced in the iteration */
+        public long refraction;
+        /** The shadow rays traced in the iteration */
+        public long shadow;
+
+        /**
+         * Resets the counters before every iteration
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            rays = primary = reflection = refraction = shadow = 0;
+        }
+    }
+
+    /**
+     * Builds the scene and its camera, and silences the summary the camera logs after every render
+     */
+    @Setup
+    public void setup() {
+        Logger.getLogger("Camera").setLevel(java.util.logging.Level.WARNING);
+        camera = camera(scene).setStatistics(statistics).build();
+    }
+
+    /**
+     * Renders the scene
+     *
+     * @param counter the counters of the rays
+     */
+    @Benchmark
+    public void render(Rays counter) {
+        statistics.reset();
+        camera.renderImage();
+        long primary = statistics.get(PRIMARY_RAYS), reflection = statistics.get(REFLECTION_RAYS),
+                refraction = statistics.get(REFRACTION_RAYS), shadow = statistics.get(SHADOW_RAYS);
+        counter.primary += primary;
+        counter.reflection += reflection;
+        counter.refraction += refraction;
+        counter.shadow += shadow;
+        counter.rays += primary + reflection + refraction + shadow;
+    }
+
+    /**
+     * Builds the camera of a scene of the rendering tests
+     *
+     * @param name the scene, as the class and the method of its test
+     * @return the camera builder, ready to be built
+     * @throws IllegalArgumentException if there is no such scene
+     */
+    private static Camera.Builder camera(String name) {
+        Scene scene = new Scene(name);
+        Camera.Builder camera = Camera.getBuilder().setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setRayTracer(new SimpleRayTracer(scene));
+        Material shiny = new Material().setKd(0.5).setKs(0.5).setShininess(30);
+        switch (name) {
+            case "ShadowTests.sphereTriangleInitial" -> {
+                scene.geometries.add(new Sphere(60d, new Point(0, 0, -200)).setEmission(new Color(BLUE)).setMaterial(shiny),
+                        new Triangle(new Point(-70, -40, 0), new Point(-40, -70, 0), new Point(-68, -68, -4))
+                                .setEmission(new Color(BLUE)).setMaterial(shiny));
+                scene.lights.add(new SpotLight(new Color(400, 240, 0), new Point(-100, -100, 200), new Vector(1, 1, -3))
+                        .setKl(1E-5).setKq(1.5E-7));
+                return camera.setLocation(new Point(0, 0, 1000)).setVpDistance(1000).setVpSize(200, 200)
+                        .setImageWriter(new ImageWriter("shadowSphereTriangleInitial", 400, 400));
+            }
+            case "ShadowTests.trianglesSphere" -> {
+                Material triangles = new Material().setKs(0.8).setShininess(60);
+                scene.geometries.add(
+                        new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135), new Point(75, 75, -150))
+                                .setMaterial(triangles),
+                        new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150))
+                                .setMaterial(triangles),
+                        new Sphere(30d, new Point(0, 0, -11)).setEmission(new Color(BLUE)).setMaterial(shiny));
+                scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.15));
+                scene.lights.add(new SpotLight(new Color(700, 400, 400), new Point(40, 40, 115), new Vector(-1, -1, -4))
+                        .setKl(4E-4).setKq(2E-5));
+                return camera.setLocation(new Point(0, 0, 1000)).setVpDistance(1000).setVpSize(200, 200)
+                        .setImageWriter(new ImageWriter("shadowTrianglesSphere", 600, 600));
+            }
+            case "LightsTests.spherePoint" -> {
+                scene.geometries.add(new Sphere(50d, new Point(0, 0, -50)).setEmission(new Color(BLUE).reduce(2))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(301)));
+                scene.lights.add(new PointLight(new Color(800, 500, 0), new Point(-50, -50, 25))
+                        .setKl(0.001).setKq(0.0002));
+                return camera.setLocation(new Point(0, 0, 1000)).setVpDistance(1000).setVpSize(150, 150)
+                        .setImageWriter(new ImageWriter("lightSpherePoint", 500, 500));
+            }
+            case "LightsTests.trianglesSpot" -> {
+                Material material = new Material().setKd(new Double3(0.2, 0.6, 0.4))
+                        .setKs(new Double3(0.2, 0.4, 0.3)).setShininess(301);
+                Point leftBottom = new Point(-110, -110, -150), rightTop = new Point(95, 100, -150);
+                scene.geometries.add(new Triangle(leftBottom, rightTop, new Point(110, -110, -150)).setMaterial(material),
+                        new Triangle(leftBottom, rightTop, new Point(-75, 78, 100)).setMaterial(material));
+                scene.setAmbientLight(new AmbientLight(new Color(WHITE), new Double3(0.15)));
+                scene.lights.add(new SpotLight(new Color(800, 500, 250), new Point(30, 10, -100), new Vector(-2, -2, -2))
+                        .setKl(0.001).setKq(0.0001));
+                return camera.setLocation(new Point(0, 0, 1000)).setVpDistance(1000).setVpSize(200, 200)
+                        .setImageWriter(new ImageWriter("lightTrianglesSpot", 500, 500));
+            }
+            case "ReflectionRefractionTests.twoSpheres" -> {
+                scene.geometries.add(
+                        new Sphere(50d, new Point(0, 0, -50)).setEmission(new Color(BLUE))
+                                .setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(100).setKt(0.3)),
+                        new Sphere(25d, new Point(0, 0, -50)).setEmission(new Color(RED))
+                                .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(100)));
+                scene.lights.add(new SpotLight(new Color(1000, 600, 0), new Point(-100, -100, 500), new Vector(-1, -1, -2))
+                        .setKl(0.0004).setKq(0.0000006).setRadius(2));
+                return camera.setLocation(new Point(0, 0, 1000)).setVpDistance(1000).setVpSize(150, 150)
+                        .setImageWriter(new ImageWriter("refractionTwoSpheres", 500, 500));
+            }
+            case "ReflectionRefractionTests.twoSpheresOnMirrors" -> {
+                scene.geometries.add(
+                        new Sphere(400d, new Point(-950, -900, -1000)).setEmission(new Color(0, 50, 100))
+                                .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)
+                                        .setKt(new Double3(0.5, 0, 0))),
+                        new Sphere(200d, new Point(-950, -900, -1000)).setEmission(new Color(100, 50, 20))
+                                .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)),
+                        new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                                new Point(670, 670, 3000))
+                                .setEmission(new Color(20, 20, 20)).setMaterial(new Material().setKr(1.0)),
+                        new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                                new Point(-1500, -1500, -2000))
+                                .setEmission(new Color(20, 20, 20))
+                                .setMaterial(new Material().setKr(new Double3(0.5, 0, 0.4))));
+                scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+                scene.lights.add(new SpotLight(new Color(1020, 400, 400), new Point(-750, -750, -150), new Vector(-1, -1, -4))
+                        .setKl(0.00001).setKq(0.000005).setRadius(2));
+                return camera.setLocation(new Point(0, 0, 10000)).setVpDistance(10000).setVpSize(2500, 2500)
+                        .setImageWriter(new ImageWriter("reflectionTwoSpheresMirrored", 500, 500));
+            }
+            case "ReflectionRefractionTests.trianglesTransparentSphere" -> {
+                Material triangles = new Material().setKd(0.5).setKs(0.5).setShininess(60);
+                scene.geometries.add(
+                        new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135), new Point(75, 75, -150))
+                                .setMaterial(triangles),
+                        new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150))
+                                .setMaterial(triangles),
+                        new Sphere(30d, new Point(60, 50, -50)).setEmission(new Color(BLUE))
+                                .setMaterial(new Material().setKd(0.2).setKs(0.2).setShininess(30).setKt(0.6)));
+                scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.15));
+                scene.lights.add(new SpotLight(new Color(700, 400, 400), new Point(60, 50, 0), new Vector(0, 0, -1))
+                        .setKl(4E-5).setKq(2E-7).setRadius(2));
+                return camera.setLocation(new Point(0, 0, 1000)).setVpDistance(1000).setVpSize(200, 200)
+                        .setImageWriter(new ImageWriter("refractionShadow", 600, 600));
+            }
+            default -> throw new IllegalArgumentException("Unknown scene " + name);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * A class that represents an axis aligned bounding box (AABB) in space
+ * by its minimum and maximum corners
+ *
+ * @author Ayelet and Gili
+ */
+public class BoundingBox {
+    /**
+     * the minimum corner of the box
+     */
+    final double minX, minY, minZ;
+    /**
+     * the maximum corner of the box
+     */
+    final double maxX, maxY, maxZ;
+
+    /**
+     * BoundingBox constructor with 2 corners
+     *
+     * @param min - the corner with the lowest coordinates
+     * @param max - the corner with the highest coordinates
+     */
+    public BoundingBox(Point min, Point max) {
+        this(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ());
+    }
+
+    /**
+     * BoundingBox constructor by the coordinates of the corners
+     *
+     * @param minX - lowest x
+     * @param minY - lowest y
+     * @param minZ - lowest z
+     * @param maxX - highest x
+     * @param maxY - highest y
+     * @param maxZ - highest z
+     */
+    BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        if (minX > maxX || minY > maxY || minZ > maxZ)
+            throw new IllegalArgumentException("The minimum corner of a box must be below the maximum corner");
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Creates the smallest box that contains all the given points
+     *
+     * @param points one or more points
+     * @return the bounding box of the points
+     */
+    public static BoundingBox of(Point... points) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            minZ = Math.min(minZ, p.getZ());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+            maxZ = Math.max(maxZ, p.getZ());
+        }
+        return new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * getter of the minimum corner
+     *
+     * @return the corner with the lowest coordinates
+     */
+    public Point getMin() {
+        return new Point(minX, minY, minZ);
+    }
+
+    /**
+     * getter of the maximum corner
+     *
+     * @return the corner with the highest coordinates
+     */
+    public Point getMax() {
+        return new Point(maxX, maxY, maxZ);
+    }
+
+    /**
+     * Creates the smallest box that contains both this box and another one
+     *
+     * @param other the other box
+     * @return the union box
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Calculates the surface area of the box, used by the surface area heuristic
+     *
+     * @return the surface area
+     */
+    public double surfaceArea() {
+        double dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Calculates the center of the box along one of the axes
+     *
+     * @param axis 0 for x, 1 for y and 2 for z
+     * @return the center coordinate on the axis
+     */
+    double getCenter(int axis) {
+        return switch (axis) {
+            case 0 -> (minX + maxX) / 2;
+            case 1 -> (minY + maxY) / 2;
+            default -> (minZ + maxZ) / 2;
+        };
+    }
+
+    /**
+     * Checks whether a ray hits the box
+     *
+     * @param ray the ray
+     * @return true if the ray hits the box in front of its head
+     */
+    public boolean intersects(Ray ray) {
+        return intersect(ray, Double.POSITIVE_INFINITY) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds the distance at which a ray enters the box, by the slab test.
+     * If the head of the ray is inside the box the distance is 0
+     *
+     * @param ray         the ray
+     * @param maxDistance hits farther than this distance are ignored
+     * @return the entry distance, or {@link Double#POSITIVE_INFINITY} if the ray misses the box
+     */
+    public double intersect(Ray ray, double maxDistance) {
+        Point p = ray.getP0();
+        Vector v = ray.getDir();
+        double near = 0, far = maxDistance;
+
+        // x slab
+        double o = p.getX(), d = v.getX();
+        if (d == 0) {
+            if (o < minX || o > maxX) return Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (minX - o) / d, t2 = (maxX - o) / d;
+            if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+            if (t1 > near) near = t1;
+            if (t2 < far) far = t2;
+            if (near > far) return Double.POSITIVE_INFINITY;
+        }
+        // y slab
+        o = p.getY();
+        d = v.getY();
+        if (d == 0) {
+            if (o < minY || o > maxY) return Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (minY - o) / d, t2 = (maxY - o) / d;
+            if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+            if (t1 > near) near = t1;
+            if (t2 < far) far = t2;
+            if (near > far) return Double.POSITIVE_INFINITY;
+        }
+        // z slab
+        o = p.getZ();
+        d = v.getZ();
+        if (d == 0) {
+            if (o < minZ || o > maxZ) return Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (minZ - o) / d, t2 = (maxZ - o) / d;
+            if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+            if (t1 > near) near = t1;
+            if (t2 < far) far = t2;
+            if (near > far) return Double.POSITIVE_INFINITY;
+        }
+        return near;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox [min=(" + minX + "," + minY + "," + minZ + "), max=(" + maxX + "," + maxY + "," + maxZ + ")]";
+    }
+}
@@ -0,0 +1,300 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Double3;
+import primitives.Ray;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Bounding volume hierarchy (BVH) over the bounded members of a {@link Geometries} composite.
+ * The tree is built top-down by the surface area heuristic (SAH) with binning of the centers
+ * of the members' boxes, so a ray is tested only against the members whose boxes it hits.
+ *
+ * @author Ayelet and Gili
+ */
+final class BoundingVolumeHierarchy {
+    /** Number of bins along an axis when searching for the best split */
+    private static final int BINS = 16;
+    /** Maximal number of members in a leaf that is not worth splitting anyway */
+    private static final int MAX_LEAF_SIZE = 4;
+    /** Estimated cost of traversing a node relative to intersecting a member */
+    private static final double TRAVERSAL_COST = 0.125;
+
+    /**
+     * A node of the tree - an inner node has two children, a leaf has members
+     */
+    private static final class Node {
+        /** bounding box of all the members under the node */
+        final BoundingBox box;
+        /** children of an inner node, null in a leaf */
+        Node left, right;
+        /** members of a leaf, null in an inner node */
+        Intersectable[] members;
+
+        Node(BoundingBox box) {
+            this.box = box;
+        }
+    }
+
+    /** The root of the tree, null if there are no bounded members */
+    private final Node root;
+
+    /**
+     * Builds the hierarchy over bounded geometries
+     *
+     * @param geometries geometries that all have a bounding box
+     */
+    BoundingVolumeHierarchy(List<Intersectable> geometries) {
+        Intersectable[] members = geometries.toArray(new Intersectable[0]);
+        BoundingBox[] boxes = new BoundingBox[members.length];
+        for (int i = 0; i < members.length; ++i)
+            boxes[i] = members[i].getBoundingBox();
+        root = members.length == 0 ? null : build(members, boxes, 0, members.length);
+    }
+
+    /**
+     * Builds a sub tree over a range of the members, reordering the range in place
+     *
+     * @param members the members
+     * @param boxes   the bounding boxes of the members (reordered together with them)
+     * @param from    start of the range (inclusive)
+     * @param to      end of the range (exclusive)
+     * @return the root of the sub tree
+     */
+    private static Node build(Intersectable[] members, BoundingBox[] boxes, int from, int to) {
+        int count = to - from;
+        BoundingBox box = boxes[from];
+        double[] cMin = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] cMax = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = from; i < to; ++i) {
+            box = box.union(boxes[i]);
+            for (int axis = 0; axis < 3; ++axis) {
+                double c = boxes[i].getCenter(axis);
+                cMin[axis] = Math.min(cMin[axis], c);
+                cMax[axis] = Math.max(cMax[axis], c);
+            }
+        }
+        Node node = new Node(box);
+        if (count == 1) {
+            node.members = new Intersectable[]{members[from]};
+            return node;
+        }
+
+        // search the best binned split over all the axes by the surface area heuristic
+        double parentArea = box.surfaceArea();
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestAxis = -1, bestBin = -1;
+        for (int axis = 0; axis < 3; ++axis) {
+            double extent = cMax[axis] - cMin[axis];
+            if (extent <= 0) continue;
+            int[] binCount = new int[BINS];
+            BoundingBox[] binBox = new BoundingBox[BINS];
+            for (int i = from; i < to; ++i) {
+                int b = bin(boxes[i].getCenter(axis), cMin[axis], extent);
+                binCount[b]++;
+                binBox[b] = binBox[b] == null ? boxes[i] : binBox[b].union(boxes[i]);
+            }
+            // sweep from the right to gather the areas of all the right sides
+            double[] rightArea = new double[BINS];
+            int[] rightCount = new int[BINS];
+            BoundingBox acc = null;
+            int n = 0;
+            for (int b = BINS - 1; b > 0; --b) {
+                if (binBox[b] != null) acc = acc == null ? binBox[b] : acc.union(binBox[b]);
+                n += binCount[b];
+                rightArea[b] = acc == null ? 0 : acc.surfaceArea();
+                rightCount[b] = n;
+            }
+            // sweep from the left and evaluate the split after every bin
+            acc = null;
+            n = 0;
+            for (int b = 0; b < BINS - 1; ++b) {
+                if (binBox[b] != null) acc = acc == null ? binBox[b] : acc.union(binBox[b]);
+                n += binCount[b];
+                if (n == 0 || rightCount[b + 1] == 0) continue;
+                double cost = TRAVERSAL_COST
+                        + (acc.surfaceArea() * n + rightArea[b + 1] * rightCount[b + 1]) / parentArea;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestBin = b;
+                }
+            }
+        }
+
+        // all the centers coincide, or splitting costs more than intersecting all the members
+        if (bestAxis == -1 || (bestCost >= count && count <= MAX_LEAF_SIZE)) {
+            node.members = new Intersectable[count];
+            System.arraycopy(members, from, node.members, 0, count);
+            return node;
+        }
+
+        // partition the range by the chosen bin
+        double extent = cMax[bestAxis] - cMin[bestAxis];
+        int mid = from;
+        for (int i = from; i < to; ++i) {
+            if (bin(boxes[i].getCenter(bestAxis), cMin[bestAxis], extent) <= bestBin) {
+                Intersectable m = members[i];
+                members[i] = members[mid];
+                members[mid] = m;
+                BoundingBox b = boxes[i];
+                boxes[i] = boxes[mid];
+                boxes[mid] = b;
+                ++mid;
+            }
+        }
+        node.left = build(members, boxes, from, mid);
+        node.right = build(members, boxes, mid, to);
+        return node;
+    }
+
+    /**
+     * Finds the bin of a center coordinate
+     *
+     * @param center the center coordinate
+     * @param min    the lowest center coordinate on the axis
+     * @param extent the extent of the centers on the axis
+     * @return the bin index
+     */
+    private static int bin(double center, double min, double extent) {
+        return Math.min(BINS - 1, (int) (BINS * (center - min) / extent));
+    }
+
+    /**
+     * Finds the intersections of a ray with all the members whose boxes are hit by the ray
+     *
+     * @param ray    the ray
+     * @param points the list to add the intersections to, may be null
+     * @return the list of the intersections, or null if there are none
+     */
+    List<GeoPoint> findGeoIntersections(Ray ray, List<GeoPoint> points) {
+        if (root == null || root.box.intersect(ray, Double.POSITIVE_INFINITY) == Double.POSITIVE_INFINITY)
+            return points;
+        Node[] stack = new Node[64];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            if (node.members != null) {
+                for (Intersectable member : node.members) {
+                    List<GeoPoint> memberPoints = member.findGeoIntersections(ray);
+                    if (memberPoints != null) {
+                        if (points == null)
+                            points = new LinkedList<>();
+                        points.addAll(memberPoints);
+                    }
+                }
+                continue;
+            }
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if (node.left.box.intersect(ray, Double.POSITIVE_INFINITY) != Double.POSITIVE_INFINITY)
+                stack[top++] = node.left;
+            if (node.right.box.intersect(ray, Double.POSITIVE_INFINITY) != Double.POSITIVE_INFINITY)
+                stack[top++] = node.right;
+        }
+        return points;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the members within a maximal distance.
+     * The nodes are visited front to back and a node whose box is entered beyond the closest
+     * intersection found so far is skipped
+     *
+     * @param ray         the ray
+     * @param maxDistance the distance from the head of the ray that the intersection must be closer than
+     * @return the closest intersection, or null if there is none
+     */
+    GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        if (root == null)
+            return null;
+        double rootDistance = root.box.intersect(ray, maxDistance);
+        if (rootDistance == Double.POSITIVE_INFINITY)
+            return null;
+        GeoPoint closest = null;
+        Node[] stack = new Node[64];
+        double[] distances = new double[64];
+        int top = 0;
+        stack[top] = root;
+        distances[top++] = rootDistance;
+        while (top > 0) {
+            Node node = stack[--top];
+            if (distances[top] >= maxDistance)
+                continue;
+            if (node.members != null) {
+                for (Intersectable member : node.members) {
+                    GeoPoint gp = member.findClosestGeoIntersection(ray, maxDistance);
+                    if (gp != null) {
+                        closest = gp;
+                        maxDistance = gp.getDistance(ray);
+                    }
+                }
+                continue;
+            }
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                distances = Arrays.copyOf(distances, distances.length * 2);
+            }
+            double left = node.left.box.intersect(ray, maxDistance);
+            double right = node.right.box.intersect(ray, maxDistance);
+            // push the farther child first, so the nearer one is visited first
+            Node near = node.left, far = node.right;
+            if (right < left) {
+                near = node.right;
+                far = node.left;
+                double tmp = left;
+                left = right;
+                right = tmp;
+            }
+            if (right != Double.POSITIVE_INFINITY) {
+                stack[top] = far;
+                distances[top++] = right;
+            }
+            if (left != Double.POSITIVE_INFINITY) {
+                stack[top] = near;
+                distances[top++] = left;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Finds the transparency of the segment of a ray through the members, stopping as soon as
+     * the light is blocked
+     *
+     * @param ray         the ray
+     * @param maxDistance the length of the segment
+     * @param minK        the minimal transparency factor that is still considered as passing light
+     * @return the transparency factor of the segment, {@link Double3#ZERO} if the light is blocked
+     */
+    Double3 findTransparency(Ray ray, double maxDistance, double minK) {
+        Double3 ktr = Double3.ONE;
+        if (root == null || root.box.intersect(ray, maxDistance) == Double.POSITIVE_INFINITY)
+            return ktr;
+        Node[] stack = new Node[64];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            if (node.members != null) {
+                for (Intersectable member : node.members) {
+                    ktr = ktr.product(member.findTransparency(ray, maxDistance, minK));
+                    if (ktr.lowerThan(minK))
+                        return Double3.ZERO;
+                }
+                continue;
+            }
+            if (top + 2 > stack.length)
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            if (node.left.box.intersect(ray, maxDistance) != Double.POSITIVE_INFINITY)
+                stack[top++] = node.left;
+            if (node.right.box.intersect(ray, maxDistance) != Double.POSITIVE_INFINITY)
+                stack[top++] = node.right;
+        }
+        return ktr;
+    }
+}
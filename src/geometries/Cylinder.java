@@ -32,4 +32,21 @@ public class Cylinder extends Tube
     public Vector getNormal(Point p) {
         return super.getNormal(p);
     }
+
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        Point bottom = axisRay.getP0();
+        Point top = axisRay.getPoint(height);
+        Vector dir = axisRay.getDir();
+        // the extent of a base disk along each axis
+        double dx = radius * Math.sqrt(Math.max(0, 1 - dir.getX() * dir.getX()));
+        double dy = radius * Math.sqrt(Math.max(0, 1 - dir.getY() * dir.getY()));
+        double dz = radius * Math.sqrt(Math.max(0, 1 - dir.getZ() * dir.getZ()));
+        return new BoundingBox(Math.min(bottom.getX(), top.getX()) - dx,
+                Math.min(bottom.getY(), top.getY()) - dy,
+                Math.min(bottom.getZ(), top.getZ()) - dz,
+                Math.max(bottom.getX(), top.getX()) + dx,
+                Math.max(bottom.getY(), top.getY()) + dy,
+                Math.max(bottom.getZ(), top.getZ()) + dz);
+    }
 }
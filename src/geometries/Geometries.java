@@ -1,14 +1,28 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * A class that represents a composite of geometries. The bounded geometries are kept in a
+ * bounding volume hierarchy, so a ray is tested only against the geometries it may hit
+ *
+ * @author Ayelet and Gili
+ */
 public class Geometries extends Intersectable {
     private final List<Intersectable> intersections = new LinkedList<Intersectable>();
+    /** acceleration structure over the bounded geometries, built on the first query after a change */
+    private volatile BoundingVolumeHierarchy hierarchy = null;
+    /** the geometries without a bounding box, tested against every ray */
+    private List<Intersectable> unbounded = null;
+    /** the composites this composite was added to, whose boxes and hierarchies hold its box */
+    private final List<Geometries> parents = new ArrayList<>();
 
     /**
      * empty constructor
@@ -23,17 +37,91 @@ public class Geometries extends Intersectable {
     public Geometries(Intersectable... geometries) {
 
         Collections.addAll(intersections, geometries);
+        adopt(geometries);
     }
 
     /**
      Adds one or more Intersectable geometries to this Geometries object.
+     The composites that hold this one are updated as well.
      @param geometries One or more intersectable geometries to add to this Geometries object.
      */
 
     public void add(Intersectable... geometries)
     {
         if(geometries != null)
+        {
             Collections.addAll(intersections, geometries);
+            adopt(geometries);
+            invalidate();
+        }
+    }
+
+    /**
+     * Registers this composite as the parent of the added composites, so their changes reach it
+     * @param geometries the added geometries
+     */
+    private void adopt(Intersectable... geometries)
+    {
+        for (Intersectable shape : geometries)
+            if (shape instanceof Geometries child)
+                child.parents.add(this);
+    }
+
+    /**
+     * Drops the bounding box and the hierarchy of this composite and of all the composites that hold it,
+     * they are calculated again on the next query
+     */
+    private void invalidate()
+    {
+        hierarchy = null;
+        resetBoundingBox();
+        for (Geometries parent : parents)
+            parent.invalidate();
+    }
+
+    /**
+     * Returns the bounding volume hierarchy over the geometries, building it if needed.
+     * The unbounded geometries are gathered aside since they can't be placed in the hierarchy
+     * @return the hierarchy
+     */
+    private BoundingVolumeHierarchy getHierarchy()
+    {
+        BoundingVolumeHierarchy bvh = hierarchy;
+        if (bvh == null)
+        {
+            synchronized (this)
+            {
+                bvh = hierarchy;
+                if (bvh == null)
+                {
+                    List<Intersectable> bounded = new ArrayList<>();
+                    List<Intersectable> infinite = new ArrayList<>();
+                    for (Intersectable shape : intersections)
+                        (shape.isBounded() ? bounded : infinite).add(shape);
+                    unbounded = infinite;
+                    bvh = hierarchy = new BoundingVolumeHierarchy(bounded);
+                }
+            }
+        }
+        return bvh;
+    }
+
+    /**
+     * The bounding box of the composite is the union of the boxes of its geometries
+     * @return the union box, or null if the composite is empty or any of its geometries is infinite
+     */
+    @Override
+    protected BoundingBox calcBoundingBox()
+    {
+        BoundingBox box = null;
+        for (Intersectable shape : intersections)
+        {
+            BoundingBox shapeBox = shape.getBoundingBox();
+            if (shapeBox == null)
+                return null;
+            box = box == null ? shapeBox : box.union(shapeBox);
+        }
+        return box;
     }
 
     /**
@@ -44,10 +132,10 @@ public class Geometries extends Intersectable {
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray)
     {
-        // create list of points
-        List<GeoPoint> points = null;
-        //find intersections for each shape in geometries
-        for(Intersectable shape: intersections)
+        // create list of points, first of the shapes in the hierarchy whose boxes are hit by the ray
+        List<GeoPoint> points = getHierarchy().findGeoIntersections(ray, null);
+        //find intersections for each shape that can't be bounded
+        for(Intersectable shape: unbounded)
         {
             List<GeoPoint> temPoints = shape.findGeoIntersections(ray);
             if(temPoints != null)
@@ -59,4 +147,51 @@ public class Geometries extends Intersectable {
         }
         return points;
     }
+
+    /**
+     * find the closest intersection between ray and the geometries in the geometry composite.
+     * The maximal distance shrinks whenever a closer intersection is found, so the geometries
+     * beyond the closest intersection found so far are skipped
+     * @param ray ray towards the composite of geometries
+     * @param maxDistance the distance from the head of the ray that the intersection must be closer than
+     * @return the closest intersection point, or null if there is none
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance)
+    {
+        GeoPoint closest = getHierarchy().findClosestGeoIntersection(ray, maxDistance);
+        if (closest != null)
+            maxDistance = closest.getDistance(ray);
+        for (Intersectable shape : unbounded)
+        {
+            GeoPoint gp = shape.findClosestGeoIntersection(ray, maxDistance);
+            if (gp != null)
+            {
+                closest = gp;
+                maxDistance = gp.getDistance(ray);
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * find the transparency of the segment of the ray through all the geometries in the composite.
+     * The search stops as soon as an opaque geometry, or enough transparent ones, block the light
+     * @param ray ray from a point towards a light source
+     * @param maxDistance the length of the segment - the distance to the light source
+     * @param minK the minimal transparency factor that is still considered as passing light
+     * @return the transparency factor of the segment, {@link Double3#ZERO} if the light is blocked
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, double minK)
+    {
+        Double3 ktr = getHierarchy().findTransparency(ray, maxDistance, minK);
+        for (Intersectable shape : unbounded)
+        {
+            if (ktr.lowerThan(minK))
+                return Double3.ZERO;
+            ktr = ktr.product(shape.findTransparency(ray, maxDistance, minK));
+        }
+        return ktr.lowerThan(minK) ? Double3.ZERO : ktr;
+    }
 }
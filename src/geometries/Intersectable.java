@@ -1,12 +1,45 @@
 package geometries;
+import primitives.Double3;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
+import primitives.Vector;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public abstract class Intersectable {
 
+    /** the cached bounding box of the object, null for an infinite object */
+    private BoundingBox boundingBox = null;
+    /** whether the bounding box was already calculated */
+    private volatile boolean boundingBoxCalculated = false;
+
+    /** the counters the intersection tests of each thread are counted into, unset when they are not counted */
+    private static final ThreadLocal<IntersectionCounters> INTERSECTION_COUNTERS = new ThreadLocal<>();
+    /** the number of threads that count their intersection tests, so the others skip the thread local lookup */
+    private static final AtomicInteger COUNTING_THREADS = new AtomicInteger();
+
+    /**
+     * Starts or stops counting the intersection tests of the geometries on the current thread, so
+     * renderings that overlap count into their own counters. A rendering sets the counters on each of its
+     * rendering threads
+     * @param counters the counters to count into, null to stop counting
+     */
+    public static void setIntersectionCounters(IntersectionCounters counters) {
+        boolean counting = INTERSECTION_COUNTERS.get() != null;
+        if (counters == null) {
+            INTERSECTION_COUNTERS.remove();
+            if (counting)
+                COUNTING_THREADS.decrementAndGet();
+        } else {
+            INTERSECTION_COUNTERS.set(counters);
+            if (!counting)
+                COUNTING_THREADS.incrementAndGet();
+        }
+    }
+
     /***
      *
      * @param ray {@link Ray} pointing toward the object
@@ -18,18 +51,174 @@ public abstract class Intersectable {
     }
     public List<GeoPoint> findGeoIntersections(Ray ray)
     {
-        return findGeoIntersectionsHelper(ray);
+        // a ray that misses the bounding box can't hit the object itself
+        BoundingBox box = getBoundingBox();
+        List<GeoPoint> points = box != null && !box.intersects(ray) ? null : findGeoIntersectionsHelper(ray);
+        count(points != null);
+        return points;
     }
 
     protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray);
 
     /**
-     * class that save the point and the geometry
+     * Finds the intersection of the ray with the object that is closest to the head of the ray
+     * @param ray {@link Ray} pointing toward the object
+     * @return the closest intersection, or null if there is no intersection
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray)
+    {
+        return findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the intersection of the ray with the object that is closest to the head of the ray,
+     * ignoring the intersections that are not closer than a maximal distance
+     * @param ray {@link Ray} pointing toward the object
+     * @param maxDistance the distance from the head of the ray that the intersection must be closer than
+     * @return the closest intersection, or null if there is no intersection closer than the maximal distance
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance)
+    {
+        // an object whose box is missed or farther than the maximal distance can't be hit
+        BoundingBox box = getBoundingBox();
+        GeoPoint closest = box != null && box.intersect(ray, maxDistance) == Double.POSITIVE_INFINITY ? null
+                : findClosestGeoIntersectionHelper(ray, maxDistance);
+        count(closest != null);
+        return closest;
+    }
+
+    /**
+     * Finds the closest intersection of the ray with the object within a maximal distance.
+     * The default implementation picks it out of all the intersections, shapes that can
+     * calculate it directly override it
+     * @param ray {@link Ray} pointing toward the object
+     * @param maxDistance the distance from the head of the ray that the intersection must be closer than
+     * @return the closest intersection, or null if there is no intersection closer than the maximal distance
+     */
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance)
+    {
+        List<GeoPoint> points = findGeoIntersectionsHelper(ray);
+        if (points == null)
+            return null;
+        GeoPoint closest = null;
+        for (GeoPoint gp : points)
+        {
+            double distance = gp.getDistance(ray);
+            if (distance < maxDistance)
+            {
+                closest = gp;
+                maxDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Finds how much light passes along a segment of the ray through the object, as the product of the
+     * transparency (Kt) of the material at all the intersections that are closer than a maximal distance.
+     * The search stops as soon as the light is blocked, i.e. the product falls below a minimal factor
+     * @param ray {@link Ray} from a point towards a light source
+     * @param maxDistance the length of the segment - the distance to the light source
+     * @param minK the minimal transparency factor that is still considered as passing light
+     * @return the transparency factor of the segment, {@link Double3#ZERO} if the light is blocked
+     */
+    public Double3 findTransparency(Ray ray, double maxDistance, double minK)
+    {
+        BoundingBox box = getBoundingBox();
+        Double3 ktr = box != null && box.intersect(ray, maxDistance) == Double.POSITIVE_INFINITY ? Double3.ONE
+                : findTransparencyHelper(ray, maxDistance, minK);
+        count(ktr != Double3.ONE);
+        return ktr;
+    }
+
+    /**
+     * Counts an intersection test of a geometry, when the tests are counted. The collections of
+     * geometries aren't counted, only their members
+     * @param hit whether the ray hit the geometry
+     */
+    private void count(boolean hit) {
+        if (COUNTING_THREADS.get() == 0)
+            return;
+        IntersectionCounters counters = INTERSECTION_COUNTERS.get();
+        if (counters != null && this instanceof Geometry)
+            counters.count(getClass(), hit);
+    }
+
+    /**
+     * Finds how much light passes along a segment of the ray through the object.
+     * The default implementation scans all the intersections, shapes that can
+     * calculate it directly override it
+     * @param ray {@link Ray} from a point towards a light source
+     * @param maxDistance the length of the segment - the distance to the light source
+     * @param minK the minimal transparency factor that is still considered as passing light
+     * @return the transparency factor of the segment, {@link Double3#ZERO} if the light is blocked
+     */
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, double minK)
+    {
+        List<GeoPoint> points = findGeoIntersectionsHelper(ray);
+        if (points == null)
+            return Double3.ONE;
+        Double3 ktr = Double3.ONE;
+        for (GeoPoint gp : points)
+        {
+            if (gp.getDistance(ray) < maxDistance)
+            {
+                ktr = ktr.product(gp.getMaterial().Kt);
+                if (ktr.lowerThan(minK))
+                    return Double3.ZERO;
+            }
+        }
+        return ktr;
+    }
+
+    /**
+     * Returns the axis aligned box that bounds the object. The box is calculated once and cached
+     * @return the bounding box, or null if the object is infinite
+     */
+    public final BoundingBox getBoundingBox() {
+        if (!boundingBoxCalculated) {
+            boundingBox = calcBoundingBox();
+            boundingBoxCalculated = true;
+        }
+        return boundingBox;
+    }
+
+    /**
+     * Checks whether the object is finite and has a bounding box
+     * @return true if the object is bounded
+     */
+    public boolean isBounded() {
+        return getBoundingBox() != null;
+    }
+
+    /**
+     * Drops the cached bounding box, so it will be calculated again on the next request
+     */
+    protected void resetBoundingBox() {
+        boundingBoxCalculated = false;
+    }
+
+    /**
+     * Calculates the axis aligned box that bounds the object
+     * @return the bounding box, or null if the object is infinite
+     */
+    protected abstract BoundingBox calcBoundingBox();
+
+    /**
+     * class that save the point and the geometry, with the distance of the point along the intersecting
+     * ray. The normal and the material at the point are calculated on the first request and then kept,
+     * since shading asks for them several times
      */
     public static class GeoPoint {
 
         public Geometry geometry;
         public Point point;
+        /** the ray parameter of the point - its distance from the head of the ray, NaN if unknown */
+        public final double t;
+        /** the normal at the point, null until it is calculated */
+        private Vector normal = null;
+        /** the material of the geometry, null until it is requested */
+        private Material material = null;
 
         /**
          * constractor with param
@@ -37,9 +226,64 @@ public abstract class Intersectable {
          * @param point
          */
         public GeoPoint(Geometry geometry, Point point)
+        {
+            this(geometry, point, Double.NaN);
+        }
+
+        /**
+         * constructor of an intersection of a ray
+         * @param geometry the intersected geometry
+         * @param point the intersection point
+         * @param t the ray parameter of the point
+         */
+        public GeoPoint(Geometry geometry, Point point, double t)
         {
             this.geometry = geometry;
             this.point = point;
+            this.t = t;
+        }
+
+        /**
+         * finds the distance of the point from the head of the ray that intersected the geometry,
+         * without a square root when the ray parameter is known
+         * @param ray the intersecting ray
+         * @return the distance
+         */
+        public double getDistance(Ray ray)
+        {
+            return Double.isNaN(t) ? ray.getP0().distance(point) : t;
+        }
+
+        /**
+         * returns the normal to the geometry at the point, calculated on the first request
+         * @return the normal vector
+         */
+        public Vector getNormal()
+        {
+            if (normal == null)
+                normal = calcNormal();
+            return normal;
+        }
+
+        /**
+         * calculates the normal to the geometry at the point. Geometries that know more about
+         * the intersection than its point (e.g. the face of a mesh) return a subclass that overrides it
+         * @return the normal vector
+         */
+        protected Vector calcNormal()
+        {
+            return geometry.getNormal(point);
+        }
+
+        /**
+         * returns the material of the geometry, looked up on the first request
+         * @return the material
+         */
+        public Material getMaterial()
+        {
+            if (material == null)
+                material = geometry.getMaterial();
+            return material;
         }
 
         /**
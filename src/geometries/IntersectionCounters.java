@@ -0,0 +1,69 @@
+package geometries;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the intersection tests of the geometries and of their hits, by the type of the geometry.
+ * A test is a query of a ray against a geometry - all its intersections, the closest one or its
+ * transparency - including the queries that its bounding box rejects. The counters are striped, so
+ * threads that count at the same time hardly contend.
+ *
+ * @author Ayelet and Gili
+ * @see Intersectable#setIntersectionCounters(IntersectionCounters)
+ */
+public final class IntersectionCounters {
+    /** The test and hit counters of every geometry type */
+    private final Map<Class<?>, LongAdder[]> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Counts a test of a geometry
+     *
+     * @param type the type of the geometry
+     * @param hit  whether the ray hit the geometry
+     */
+    void count(Class<?> type, boolean hit) {
+        LongAdder[] adders = counters.get(type);
+        if (adders == null)
+            adders = counters.computeIfAbsent(type, t -> new LongAdder[]{new LongAdder(), new LongAdder()});
+        adders[0].increment();
+        if (hit)
+            adders[1].increment();
+    }
+
+    /**
+     * @param type the type of the geometries
+     * @return the number of the tests of the geometries of the type
+     */
+    public long getTests(Class<? extends Geometry> type) {
+        LongAdder[] adders = counters.get(type);
+        return adders == null ? 0 : adders[0].sum();
+    }
+
+    /**
+     * @param type the type of the geometries
+     * @return the number of the tests of the geometries of the type that hit
+     */
+    public long getHits(Class<? extends Geometry> type) {
+        LongAdder[] adders = counters.get(type);
+        return adders == null ? 0 : adders[1].sum();
+    }
+
+    /**
+     * @return the number of the tests and of the hits of every tested type, by the simple name of the type
+     */
+    public Map<String, long[]> getCounts() {
+        Map<String, long[]> counts = new TreeMap<>();
+        counters.forEach((type, adders) -> counts.put(type.getSimpleName(), new long[]{adders[0].sum(), adders[1].sum()}));
+        return counts;
+    }
+
+    /**
+     * Sets all the counters to 0
+     */
+    public void reset() {
+        counters.clear();
+    }
+}
@@ -0,0 +1,706 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static primitives.Util.isZero;
+
+/**
+ * A class that represents an indexed triangle mesh - a set of triangular faces that share their vertices.
+ * Instead of a {@link Triangle} object per face, the vertices are kept in one flat buffer of floats
+ * (x, y, z of each vertex) and the faces in one flat buffer of vertex indices (3 indices per face).
+ * The mesh keeps its own bounding volume hierarchy over the faces, stored in flat buffers as well.
+ * All the faces share the emission and the material of the mesh.
+ *
+ * @author Ayelet and Gili
+ */
+public class Mesh extends Geometry {
+    /** Number of bins along an axis when searching for the best split of the hierarchy */
+    private static final int BINS = 16;
+    /** Maximal number of faces in a leaf that is not worth splitting anyway */
+    private static final int MAX_LEAF_SIZE = 4;
+    /** Maximal depth of the hierarchy, deeper nodes become leaves */
+    private static final int MAX_DEPTH = 64;
+    /** Estimated cost of traversing a node relative to intersecting a face */
+    private static final double TRAVERSAL_COST = 0.125;
+    /** Margin of the node boxes when searching the face of a point on the mesh */
+    private static final double BOX_TOLERANCE = 1e-6;
+
+    /** Vertex coordinates, 3 floats per vertex */
+    private final FloatBuffer vertices;
+    /** Vertex indices of the faces, 3 per face, ordered by the hierarchy */
+    private final IntBuffer faces;
+    /** Boxes of the hierarchy nodes, 6 floats per node: min x, y, z and max x, y, z */
+    private final FloatBuffer nodeBounds;
+    /**
+     * Hierarchy nodes, 2 ints per node. A leaf holds the index of its first face and the number of faces,
+     * an inner node holds the index of its right child and 0 (its left child is the next node)
+     */
+    private final IntBuffer nodeData;
+
+    /**
+     * Mesh constructor from flat arrays. The vertices array is used as is, the faces are copied
+     * and reordered by the hierarchy that is built over them
+     *
+     * @param vertices - vertex coordinates, x, y, z of each vertex
+     * @param faces    - vertex indices (counted from 0), 3 indices of each face
+     * @throws IllegalArgumentException if the arrays are not made of triads, there are no faces
+     *                                  or a face refers to a missing vertex
+     */
+    public Mesh(float[] vertices, int[] faces) {
+        if (vertices.length % 3 != 0)
+            throw new IllegalArgumentException("The vertices array must hold 3 coordinates per vertex");
+        if (faces.length == 0 || faces.length % 3 != 0)
+            throw new IllegalArgumentException("The faces array must hold 3 indices per face");
+        int vertexCount = vertices.length / 3;
+        for (int index : faces)
+            if (index < 0 || index >= vertexCount)
+                throw new IllegalArgumentException("A face refers to a missing vertex " + index);
+        this.vertices = FloatBuffer.wrap(vertices);
+
+        Builder builder = new Builder(vertices, faces);
+        this.faces = IntBuffer.wrap(builder.orderedFaces());
+        this.nodeBounds = FloatBuffer.wrap(builder.bounds, 0, builder.nodes * 6).slice();
+        this.nodeData = IntBuffer.wrap(builder.data, 0, builder.nodes * 2).slice();
+    }
+
+    /**
+     * Mesh constructor from buffers of a mesh whose hierarchy is already built, e.g. buffers that
+     * are mapped from a file. The buffers are checked once, so a broken file can't make the
+     * intersections read out of the buffers or loop forever
+     *
+     * @param vertices   - vertex coordinates, 3 per vertex
+     * @param faces      - vertex indices, 3 per face, ordered by the hierarchy
+     * @param nodeBounds - boxes of the hierarchy nodes, 6 per node
+     * @param nodeData   - hierarchy nodes, 2 per node
+     * @throws IllegalArgumentException if a face refers to a missing vertex, or the hierarchy is not
+     *                                  laid out as the builder lays it out
+     */
+    Mesh(FloatBuffer vertices, IntBuffer faces, FloatBuffer nodeBounds, IntBuffer nodeData) {
+        if (vertices.limit() % 3 != 0 || faces.limit() == 0 || faces.limit() % 3 != 0
+                || nodeData.limit() == 0 || nodeData.limit() % 2 != 0 || nodeBounds.limit() != nodeData.limit() * 3)
+            throw new IllegalArgumentException("Broken mesh buffers");
+        int vertexCount = vertices.limit() / 3;
+        for (int i = 0; i < faces.limit(); ++i) {
+            int index = faces.get(i);
+            if (index < 0 || index >= vertexCount)
+                throw new IllegalArgumentException("A face refers to a missing vertex " + index);
+        }
+        checkHierarchy(nodeData, faces.limit() / 3);
+        this.vertices = vertices;
+        this.faces = faces;
+        this.nodeBounds = nodeBounds;
+        this.nodeData = nodeData;
+    }
+
+    /**
+     * Checks that a hierarchy is laid out as the builder lays it out: the nodes in depth first order
+     * with the left child right after its parent, no deeper than the maximal depth, and the leaves
+     * holding consecutive ranges of all the faces
+     *
+     * @param nodeData  the hierarchy nodes, 2 per node
+     * @param faceCount the number of faces
+     * @throws IllegalArgumentException if the hierarchy is broken
+     */
+    private static void checkHierarchy(IntBuffer nodeData, int faceCount) {
+        int nodeCount = nodeData.limit() / 2;
+        int[] stack = new int[MAX_DEPTH + 2];
+        int[] depths = new int[MAX_DEPTH + 2];
+        int top = 0, next = 0, nextFace = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top], depth = depths[top];
+            if (node != next++)
+                throw new IllegalArgumentException("Broken mesh hierarchy at node " + node);
+            int first = nodeData.get(2 * node), count = nodeData.get(2 * node + 1);
+            if (count > 0) {
+                if (first != nextFace || count > faceCount - first)
+                    throw new IllegalArgumentException("Broken mesh hierarchy leaf " + node);
+                nextFace += count;
+            } else if (count < 0 || depth >= MAX_DEPTH || first <= node + 1 || first >= nodeCount)
+                throw new IllegalArgumentException("Broken mesh hierarchy node " + node);
+            else {
+                stack[top] = first;
+                depths[top++] = depth + 1;
+                stack[top] = node + 1;
+                depths[top++] = depth + 1;
+            }
+        }
+        if (next != nodeCount || nextFace != faceCount)
+            throw new IllegalArgumentException("The mesh hierarchy doesn't cover all its nodes and faces");
+    }
+
+    /**
+     * @return the number of vertices of the mesh
+     */
+    public int getVertexCount() {
+        return vertices.limit() / 3;
+    }
+
+    /**
+     * @return the number of faces of the mesh
+     */
+    public int getFaceCount() {
+        return faces.limit() / 3;
+    }
+
+    /** @return the vertex coordinates buffer, 3 per vertex */
+    FloatBuffer getVertices() {
+        return vertices.duplicate();
+    }
+
+    /** @return the faces buffer, 3 vertex indices per face in the order of the hierarchy */
+    IntBuffer getFaces() {
+        return faces.duplicate();
+    }
+
+    /** @return the boxes of the hierarchy nodes, 6 per node */
+    FloatBuffer getNodeBounds() {
+        return nodeBounds.duplicate();
+    }
+
+    /** @return the hierarchy nodes, 2 per node */
+    IntBuffer getNodeData() {
+        return nodeData.duplicate();
+    }
+
+    /**
+     * Calculates the normal of a face
+     *
+     * @param face the index of the face
+     * @return the unit normal of the face
+     * @throws IllegalArgumentException if the face has no area - its vertices are on a line
+     */
+    public Vector getFaceNormal(int face) {
+        Vector normal = faceNormal(face);
+        if (normal == null)
+            throw new IllegalArgumentException("Face " + face + " has no area");
+        return normal;
+    }
+
+    /**
+     * Calculates the normal of a face, if it has one
+     *
+     * @param face the index of the face
+     * @return the unit normal of the face, null if the face has no area
+     */
+    private Vector faceNormal(int face) {
+        int a = faces.get(3 * face) * 3, b = faces.get(3 * face + 1) * 3, c = faces.get(3 * face + 2) * 3;
+        double e1x = vertices.get(b) - vertices.get(a), e1y = vertices.get(b + 1) - vertices.get(a + 1),
+                e1z = vertices.get(b + 2) - vertices.get(a + 2);
+        double e2x = vertices.get(c) - vertices.get(a), e2y = vertices.get(c + 1) - vertices.get(a + 1),
+                e2z = vertices.get(c + 2) - vertices.get(a + 2);
+        Double3 cross = new Double3(e1y * e2z - e1z * e2y, e1z * e2x - e1x * e2z, e1x * e2y - e1y * e2x);
+        return cross.equals(Double3.ZERO) ? null : new Vector(cross).normalize();
+    }
+
+    /**
+     * Finds the normal at a point on the mesh by searching the face that contains the point, among the
+     * faces of the hierarchy leaves whose boxes contain the point - the intersections of the mesh know
+     * their face and don't use it. Faces without area are skipped, no point is on them
+     *
+     * @param p the point on the mesh
+     * @return the normal of the face that contains the point
+     * @throws IllegalArgumentException if the point is not on the mesh
+     */
+    @Override
+    public Vector getNormal(Point p) {
+        double x = p.getX(), y = p.getY(), z = p.getZ();
+        int[] stack = new int[MAX_DEPTH + 2];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (!containsPoint(node, x, y, z))
+                continue;
+            int count = nodeData.get(2 * node + 1);
+            if (count == 0) {
+                stack[top++] = nodeData.get(2 * node);
+                stack[top++] = node + 1;
+                continue;
+            }
+            int first = nodeData.get(2 * node);
+            for (int face = first; face < first + count; ++face) {
+                Vector n = faceNormal(face);
+                if (n == null)
+                    continue;
+                // shoot a ray along the normal from a point just in front of p
+                double t = intersectFace(face, p.add(n), n.scale(-1), null);
+                if (t > 0 && isZero(t - 1))
+                    return n;
+            }
+        }
+        throw new IllegalArgumentException("The point is not on the mesh");
+    }
+
+    /**
+     * Checks whether the box of a hierarchy node contains a point, up to the rounding of the
+     * coordinates of the points on the mesh
+     *
+     * @param node the node index
+     * @param x    X coordinate of the point
+     * @param y    Y coordinate of the point
+     * @param z    Z coordinate of the point
+     * @return true if the point is in the box
+     */
+    private boolean containsPoint(int node, double x, double y, double z) {
+        int base = node * 6;
+        return x >= nodeBounds.get(base) - BOX_TOLERANCE && x <= nodeBounds.get(base + 3) + BOX_TOLERANCE
+                && y >= nodeBounds.get(base + 1) - BOX_TOLERANCE && y <= nodeBounds.get(base + 4) + BOX_TOLERANCE
+                && z >= nodeBounds.get(base + 2) - BOX_TOLERANCE && z <= nodeBounds.get(base + 5) + BOX_TOLERANCE;
+    }
+
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return new BoundingBox(nodeBounds.get(0), nodeBounds.get(1), nodeBounds.get(2),
+                nodeBounds.get(3), nodeBounds.get(4), nodeBounds.get(5));
+    }
+
+    /**
+     * Intersects a ray with a face, hits on the edges count so a ray can't slip between neighbour faces
+     *
+     * @param face        the index of the face
+     * @param p           the head of the ray
+     * @param v           the direction of the ray
+     * @param barycentric receives the barycentric coordinates of the hit, may be null
+     * @return the distance to the hit, or 0 if the ray misses the face
+     */
+    private double intersectFace(int face, Point p, Vector v, double[] barycentric) {
+        int a = faces.get(3 * face) * 3, b = faces.get(3 * face + 1) * 3, c = faces.get(3 * face + 2) * 3;
+        double v0x = vertices.get(a), v0y = vertices.get(a + 1), v0z = vertices.get(a + 2);
+        return Triangle.intersect(p.getX(), p.getY(), p.getZ(), v.getX(), v.getY(), v.getZ(),
+                v0x, v0y, v0z,
+                vertices.get(b) - v0x, vertices.get(b + 1) - v0y, vertices.get(b + 2) - v0z,
+                vertices.get(c) - v0x, vertices.get(c + 1) - v0y, vertices.get(c + 2) - v0z,
+                true, barycentric);
+    }
+
+    /**
+     * Finds the distance at which a ray enters the box of a hierarchy node, by the slab test
+     *
+     * @param node        the node index
+     * @param o           the head of the ray
+     * @param d           the direction of the ray
+     * @param maxDistance hits farther than this distance are ignored
+     * @return the entry distance, or {@link Double#POSITIVE_INFINITY} if the ray misses the box
+     */
+    private double intersectNode(int node, double[] o, double[] d, double maxDistance) {
+        double near = 0, far = maxDistance;
+        int base = node * 6;
+        for (int axis = 0; axis < 3; ++axis) {
+            double min = nodeBounds.get(base + axis), max = nodeBounds.get(base + 3 + axis);
+            if (d[axis] == 0) {
+                if (o[axis] < min || o[axis] > max) return Double.POSITIVE_INFINITY;
+            } else {
+                double t1 = (min - o[axis]) / d[axis], t2 = (max - o[axis]) / d[axis];
+                if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+                if (t1 > near) near = t1;
+                if (t2 < far) far = t2;
+                if (near > far) return Double.POSITIVE_INFINITY;
+            }
+        }
+        return near;
+    }
+
+    /**
+     * Finds the nearest face hit by a ray within a maximal distance, visiting the nodes front to back
+     *
+     * @param ray         the ray
+     * @param maxDistance the distance the hit must be closer than
+     * @param distance    receives the distance to the hit
+     * @return the index of the hit face, or -1 if there is no hit
+     */
+    private int findClosestFace(Ray ray, double maxDistance, double[] distance) {
+        Point p = ray.getP0();
+        Vector v = ray.getDir();
+        double[] o = {p.getX(), p.getY(), p.getZ()};
+        double[] d = {v.getX(), v.getY(), v.getZ()};
+        int closest = -1;
+        int[] stack = new int[2 * MAX_DEPTH + 2];
+        double[] entries = new double[2 * MAX_DEPTH + 2];
+        int top = 0;
+        double rootEntry = intersectNode(0, o, d, maxDistance);
+        if (rootEntry == Double.POSITIVE_INFINITY)
+            return -1;
+        stack[top] = 0;
+        entries[top++] = rootEntry;
+        while (top > 0) {
+            int node = stack[--top];
+            if (entries[top] >= maxDistance)
+                continue;
+            int count = nodeData.get(2 * node + 1);
+            if (count > 0) {
+                int first = nodeData.get(2 * node);
+                for (int face = first; face < first + count; ++face) {
+                    double t = intersectFace(face, p, v, null);
+                    if (t > 0 && t < maxDistance) {
+                        maxDistance = t;
+                        closest = face;
+                    }
+                }
+                continue;
+            }
+            int near = node + 1, far = nodeData.get(2 * node);
+            double nearEntry = intersectNode(near, o, d, maxDistance);
+            double farEntry = intersectNode(far, o, d, maxDistance);
+            if (farEntry < nearEntry) {
+                int tmp = near;
+                near = far;
+                far = tmp;
+                double tmpEntry = nearEntry;
+                nearEntry = farEntry;
+                farEntry = tmpEntry;
+            }
+            // push the farther child first, so the nearer one is visited first
+            if (farEntry != Double.POSITIVE_INFINITY) {
+                stack[top] = far;
+                entries[top++] = farEntry;
+            }
+            if (nearEntry != Double.POSITIVE_INFINITY) {
+                stack[top] = near;
+                entries[top++] = nearEntry;
+            }
+        }
+        distance[0] = maxDistance;
+        return closest;
+    }
+
+    /**
+     * Visits all the faces hit by a ray within a maximal distance. A hit on an edge or a vertex that is
+     * shared by several faces is visited once, at the first of its faces
+     *
+     * @param ray         the ray
+     * @param maxDistance hits farther than this distance are ignored
+     * @param visitor     receives the distance to each hit and the hit face, returns false to stop the search
+     */
+    private void visitFaces(Ray ray, double maxDistance, FaceVisitor visitor) {
+        Point p = ray.getP0();
+        Vector v = ray.getDir();
+        double[] o = {p.getX(), p.getY(), p.getZ()};
+        double[] d = {v.getX(), v.getY(), v.getZ()};
+        if (intersectNode(0, o, d, maxDistance) == Double.POSITIVE_INFINITY)
+            return;
+        int[] stack = new int[2 * MAX_DEPTH + 2];
+        double[] hits = new double[4];
+        int top = 0, hitCount = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            int count = nodeData.get(2 * node + 1);
+            if (count > 0) {
+                int first = nodeData.get(2 * node);
+                for (int face = first; face < first + count; ++face) {
+                    double t = intersectFace(face, p, v, null);
+                    if (t <= 0 || t >= maxDistance || isVisited(hits, hitCount, t))
+                        continue;
+                    if (hitCount == hits.length)
+                        hits = Arrays.copyOf(hits, 2 * hitCount);
+                    hits[hitCount++] = t;
+                    if (!visitor.visit(t, face))
+                        return;
+                }
+                continue;
+            }
+            int right = nodeData.get(2 * node);
+            if (intersectNode(node + 1, o, d, maxDistance) != Double.POSITIVE_INFINITY)
+                stack[top++] = node + 1;
+            if (intersectNode(right, o, d, maxDistance) != Double.POSITIVE_INFINITY)
+                stack[top++] = right;
+        }
+    }
+
+    /**
+     * Checks whether a hit at a distance was already visited, e.g. through another face that shares the
+     * hit edge
+     *
+     * @param hits  the distances of the visited hits
+     * @param count the number of the visited hits
+     * @param t     the distance of the hit
+     * @return true if a hit at the distance was visited
+     */
+    private static boolean isVisited(double[] hits, int count, double t) {
+        for (int i = 0; i < count; ++i)
+            if (isZero(hits[i] - t))
+                return true;
+        return false;
+    }
+
+    /**
+     * Receiver of the faces hit by a ray
+     */
+    @FunctionalInterface
+    private interface FaceVisitor {
+        /**
+         * @param t    the distance to the hit
+         * @param face the index of the hit face
+         * @return true to continue the search, false to stop it
+         */
+        boolean visit(double t, int face);
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        List<GeoPoint> points = new LinkedList<>();
+        visitFaces(ray, Double.POSITIVE_INFINITY, (t, face) -> points.add(new MeshPoint(this, ray.getPoint(t), t, face)));
+        return points.isEmpty() ? null : points;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double[] distance = new double[1];
+        int face = findClosestFace(ray, maxDistance, distance);
+        return face < 0 ? null : new MeshPoint(this, ray.getPoint(distance[0]), distance[0], face);
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, double minK) {
+        Double3 kt = getMaterial().Kt;
+        Double3[] ktr = {Double3.ONE};
+        visitFaces(ray, maxDistance, (t, face) -> {
+            ktr[0] = ktr[0].product(kt);
+            return !ktr[0].lowerThan(minK);
+        });
+        return ktr[0].lowerThan(minK) ? Double3.ZERO : ktr[0];
+    }
+
+    /**
+     * An intersection with the mesh that remembers its face, so its normal is found directly
+     */
+    private static final class MeshPoint extends GeoPoint {
+        /** the index of the face of the intersection */
+        private final int face;
+
+        /**
+         * constructor with the face of the intersection
+         *
+         * @param mesh  the mesh
+         * @param point the intersection point
+         * @param t     the ray parameter of the point
+         * @param face  the face index
+         */
+        MeshPoint(Mesh mesh, Point point, double t, int face) {
+            super(mesh, point, t);
+            this.face = face;
+        }
+
+        @Override
+        protected Vector calcNormal() {
+            return ((Mesh) geometry).getFaceNormal(face);
+        }
+    }
+
+    /**
+     * Builds the bounding volume hierarchy over the faces into flat growable arrays, by the
+     * surface area heuristic with binning of the face centroids
+     */
+    private static final class Builder {
+        /** the vertex coordinates */
+        private final float[] vertices;
+        /** the faces in the original order */
+        private final int[] faces;
+        /** the centroid coordinates of the faces */
+        private final float[] centroids;
+        /** the order of the faces, rearranged while building */
+        private final int[] order;
+        /** node boxes, 6 per node */
+        float[] bounds = new float[6 * 64];
+        /** node data, 2 per node */
+        int[] data = new int[2 * 64];
+        /** number of built nodes */
+        int nodes = 0;
+
+        /**
+         * Builds the hierarchy
+         *
+         * @param vertices the vertex coordinates
+         * @param faces    the faces
+         */
+        Builder(float[] vertices, int[] faces) {
+            this.vertices = vertices;
+            this.faces = faces;
+            int count = faces.length / 3;
+            centroids = new float[3 * count];
+            order = new int[count];
+            for (int f = 0; f < count; ++f) {
+                order[f] = f;
+                for (int axis = 0; axis < 3; ++axis)
+                    centroids[3 * f + axis] = (vertices[3 * faces[3 * f] + axis]
+                            + vertices[3 * faces[3 * f + 1] + axis]
+                            + vertices[3 * faces[3 * f + 2] + axis]) / 3;
+            }
+            build(0, count, 0);
+        }
+
+        /**
+         * @return the faces reordered by the hierarchy
+         */
+        int[] orderedFaces() {
+            int[] ordered = new int[faces.length];
+            for (int i = 0; i < order.length; ++i)
+                System.arraycopy(faces, 3 * order[i], ordered, 3 * i, 3);
+            return ordered;
+        }
+
+        /**
+         * Creates a new empty box
+         *
+         * @return min x, y, z and max x, y, z of an empty box
+         */
+        private static float[] emptyBox() {
+            return new float[]{Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                    Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        }
+
+        /**
+         * Expands a box to contain a face
+         *
+         * @param box  the box
+         * @param face the face index
+         */
+        private void expand(float[] box, int face) {
+            for (int k = 0; k < 3; ++k) {
+                int vertex = 3 * faces[3 * face + k];
+                for (int axis = 0; axis < 3; ++axis) {
+                    box[axis] = Math.min(box[axis], vertices[vertex + axis]);
+                    box[3 + axis] = Math.max(box[3 + axis], vertices[vertex + axis]);
+                }
+            }
+        }
+
+        /**
+         * Expands a box to contain another box
+         *
+         * @param box   the box
+         * @param other the other box
+         */
+        private static void expand(float[] box, float[] other) {
+            for (int axis = 0; axis < 3; ++axis) {
+                box[axis] = Math.min(box[axis], other[axis]);
+                box[3 + axis] = Math.max(box[3 + axis], other[3 + axis]);
+            }
+        }
+
+        /**
+         * @param box the box
+         * @return the surface area of the box, 0 for an empty box
+         */
+        private static double area(float[] box) {
+            if (box[0] > box[3]) return 0;
+            double dx = box[3] - box[0], dy = box[4] - box[1], dz = box[5] - box[2];
+            return 2 * (dx * dy + dy * dz + dz * dx);
+        }
+
+        /**
+         * Builds a sub tree over a range of the face order
+         *
+         * @param from  start of the range (inclusive)
+         * @param to    end of the range (exclusive)
+         * @param depth the depth of the node
+         */
+        private void build(int from, int to, int depth) {
+            int node = nodes++;
+            if (node * 6 >= bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            float[] box = emptyBox();
+            float[] cMin = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+            float[] cMax = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+            for (int i = from; i < to; ++i) {
+                expand(box, order[i]);
+                for (int axis = 0; axis < 3; ++axis) {
+                    cMin[axis] = Math.min(cMin[axis], centroids[3 * order[i] + axis]);
+                    cMax[axis] = Math.max(cMax[axis], centroids[3 * order[i] + axis]);
+                }
+            }
+            System.arraycopy(box, 0, bounds, node * 6, 6);
+            int count = to - from;
+
+            // search the best binned split over all the axes by the surface area heuristic
+            double bestCost = Double.POSITIVE_INFINITY;
+            int bestAxis = -1, bestBin = -1;
+            if (count > 1 && depth < MAX_DEPTH) {
+                double parentArea = area(box);
+                for (int axis = 0; axis < 3; ++axis) {
+                    double extent = cMax[axis] - cMin[axis];
+                    if (extent <= 0) continue;
+                    int[] binCount = new int[BINS];
+                    float[][] binBox = new float[BINS][];
+                    for (int b = 0; b < BINS; ++b)
+                        binBox[b] = emptyBox();
+                    for (int i = from; i < to; ++i) {
+                        int b = bin(centroids[3 * order[i] + axis], cMin[axis], extent);
+                        binCount[b]++;
+                        expand(binBox[b], order[i]);
+                    }
+                    double[] rightArea = new double[BINS];
+                    int[] rightCount = new int[BINS];
+                    float[] acc = emptyBox();
+                    int n = 0;
+                    for (int b = BINS - 1; b > 0; --b) {
+                        expand(acc, binBox[b]);
+                        n += binCount[b];
+                        rightArea[b] = area(acc);
+                        rightCount[b] = n;
+                    }
+                    acc = emptyBox();
+                    n = 0;
+                    for (int b = 0; b < BINS - 1; ++b) {
+                        expand(acc, binBox[b]);
+                        n += binCount[b];
+                        if (n == 0 || rightCount[b + 1] == 0) continue;
+                        double cost = TRAVERSAL_COST
+                                + (area(acc) * n + rightArea[b + 1] * rightCount[b + 1]) / parentArea;
+                        if (cost < bestCost) {
+                            bestCost = cost;
+                            bestAxis = axis;
+                            bestBin = b;
+                        }
+                    }
+                }
+            }
+
+            // a single face, all the centroids coincide, or splitting costs more than intersecting all the faces
+            if (bestAxis == -1 || (bestCost >= count && count <= MAX_LEAF_SIZE)) {
+                data[node * 2] = from;
+                data[node * 2 + 1] = count;
+                return;
+            }
+
+            // partition the range by the chosen bin
+            double extent = cMax[bestAxis] - cMin[bestAxis];
+            int mid = from;
+            for (int i = from; i < to; ++i) {
+                if (bin(centroids[3 * order[i] + bestAxis], cMin[bestAxis], extent) <= bestBin) {
+                    int f = order[i];
+                    order[i] = order[mid];
+                    order[mid++] = f;
+                }
+            }
+            build(from, mid, depth + 1);
+            data[node * 2] = nodes; // the right child is the next node to be built
+            data[node * 2 + 1] = 0;
+            build(mid, to, depth + 1);
+        }
+
+        /**
+         * Finds the bin of a centroid coordinate
+         *
+         * @param centroid the centroid coordinate
+         * @param min      the lowest centroid coordinate on the axis
+         * @param extent   the extent of the centroids on the axis
+         * @return the bin index
+         */
+        private static int bin(double centroid, double min, double extent) {
+            return Math.min(BINS - 1, (int) (BINS * (centroid - min) / extent));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package geometries;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary cache file of a {@link Mesh}, holding the vertices, the faces and the ready hierarchy of the mesh.
+ * Reading a cache maps its sections into memory and the mesh intersects rays directly against the
+ * mapped data - nothing is parsed, built or copied into the heap, so opening even a huge mesh is
+ * immediate, and renderers in different processes share the same pages of the operating system cache.
+ * <p>
+ * The file is little endian: a header of {@value #HEADER_SIZE} bytes - the magic bytes, the format version,
+ * the vertex, face and node counts - followed by the sections of the vertex coordinates (3 floats per vertex),
+ * the faces (3 ints per face), the node boxes (6 floats per node) and the node data (2 ints per node),
+ * each starting at a multiple of {@value #ALIGNMENT} bytes. The faces and the hierarchy are checked when the
+ * file is read, which touches the pages of their sections once, and the coordinates are used as they are.
+ * <p>
+ * Only meshes are cached: the rest of a scene - its lights, materials and simple geometries - is small and
+ * is loaded from its description, while its meshes are loaded through
+ * {@link scene.MeshLoader#loadCached(Path, Path)}.
+ *
+ * @author Ayelet and Gili
+ */
+public final class MeshCache {
+    /** The magic bytes that open a cache file */
+    private static final long MAGIC = 0x000048534D455452L; // "RTMESH" and 2 zero bytes in little endian
+    /** The format version, changed on every incompatible change of the format */
+    private static final int VERSION = 1;
+    /** The size of the header in bytes */
+    private static final int HEADER_SIZE = 64;
+    /** The alignment of the sections in bytes */
+    private static final int ALIGNMENT = 64;
+    /** The size of the buffer used for writing a section */
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    /** Don't let anyone instantiate this class. */
+    private MeshCache() {
+    }
+
+    /**
+     * Aligns a file position to the start of a section
+     *
+     * @param position the position
+     * @return the next aligned position
+     */
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Writes a mesh into a cache file. The file is written aside and moved into place when complete,
+     * so a reader never sees a partial file
+     *
+     * @param mesh the mesh
+     * @param path the cache file
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Mesh mesh, Path path) throws IOException {
+        FloatBuffer vertices = mesh.getVertices();
+        IntBuffer faces = mesh.getFaces();
+        FloatBuffer nodeBounds = mesh.getNodeBounds();
+        IntBuffer nodeData = mesh.getNodeData();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(VERSION)
+                    .putInt(vertices.remaining() / 3).putInt(faces.remaining() / 3).putInt(nodeData.remaining() / 2);
+            header.clear();
+            channel.write(header, 0);
+
+            ByteBuffer chunk = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            long position = align(HEADER_SIZE);
+            position = align(writeSection(channel, position, vertices, chunk));
+            position = align(writeSection(channel, position, faces, chunk));
+            position = align(writeSection(channel, position, nodeBounds, chunk));
+            writeSection(channel, position, nodeData, chunk);
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes a section of floats or ints through a chunk buffer
+     *
+     * @param channel  the file
+     * @param position the position of the section
+     * @param section  the float or int buffer of the section
+     * @param chunk    the chunk buffer
+     * @return the position after the section
+     * @throws IOException if the file can't be written
+     */
+    private static long writeSection(FileChannel channel, long position, Buffer section, ByteBuffer chunk)
+            throws IOException {
+        int perChunk = chunk.capacity() / 4;
+        while (section.hasRemaining()) {
+            int n = Math.min(perChunk, section.remaining());
+            chunk.clear();
+            if (section instanceof FloatBuffer floats) {
+                FloatBuffer part = floats.slice().limit(n);
+                chunk.asFloatBuffer().put(part);
+            } else {
+                IntBuffer part = ((IntBuffer) section).slice().limit(n);
+                chunk.asIntBuffer().put(part);
+            }
+            section.position(section.position() + n);
+            chunk.limit(4 * n);
+            while (chunk.hasRemaining())
+                position += channel.write(chunk, position);
+        }
+        return position;
+    }
+
+    /**
+     * Opens a cache file as a mesh over the mapped sections of the file
+     *
+     * @param path the cache file
+     * @return the mesh
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the file is not a cache file of this version, it is truncated, or
+     *                                  its faces or hierarchy are broken
+     */
+    public static Mesh read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE)
+                throw new IllegalArgumentException("Not a mesh cache file: " + path);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) ;
+            header.flip();
+            if (header.getLong() != MAGIC)
+                throw new IllegalArgumentException("Not a mesh cache file: " + path);
+            if (header.getInt() != VERSION)
+                throw new IllegalArgumentException("Unsupported mesh cache version: " + path);
+            long vertexCount = header.getInt(), faceCount = header.getInt(), nodeCount = header.getInt();
+
+            long vertexPosition = align(HEADER_SIZE);
+            long facePosition = align(vertexPosition + 12 * vertexCount);
+            long boundsPosition = align(facePosition + 12 * faceCount);
+            long dataPosition = align(boundsPosition + 24 * nodeCount);
+            if (vertexCount < 0 || faceCount <= 0 || nodeCount <= 0 || dataPosition + 8 * nodeCount > size)
+                throw new IllegalArgumentException("Truncated mesh cache file: " + path);
+
+            return new Mesh(
+                    map(channel, vertexPosition, 12 * vertexCount).asFloatBuffer(),
+                    map(channel, facePosition, 12 * faceCount).asIntBuffer(),
+                    map(channel, boundsPosition, 24 * nodeCount).asFloatBuffer(),
+                    map(channel, dataPosition, 8 * nodeCount).asIntBuffer());
+        }
+    }
+
+    /**
+     * Maps a section of the file, the mapping stays valid after the file is closed
+     *
+     * @param channel  the file
+     * @param position the position of the section
+     * @param size     the size of the section in bytes
+     * @return the mapped section in little endian order
+     * @throws IOException if the section can't be mapped
+     */
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("A mesh cache section is too large to be mapped");
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -2,6 +2,8 @@ package geometries;
 
 import static primitives.Util.*;
 
+import primitives.Double3;
+import primitives.MutableVector;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -54,6 +56,11 @@ public class Plane extends Geometry {
         return this.normal;
     }
 
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return null; // a plane is infinite
+    }
+
     /**
      * getter of the filed normal
      *
@@ -63,6 +70,24 @@ public class Plane extends Geometry {
         return normal;
     }
 
+    /**
+     * Calculates the distance along a ray to its intersection with the plane, without allocating
+     * @param ray The ray to find the intersection with.
+     * @return The distance to the intersection point, or 0 if there is no intersection in front of the ray's head.
+     */
+    double findIntersectionDistance(Ray ray)
+    {
+        Point p = ray.getP0();
+        double nv = normal.dotProduct(ray.getDir());
+        if (isZero(nv) || p0.equals(p)) //Checking if the beam is parallel to the plane or if it starts at the same point as the plane
+            return 0;
+        // Calculate the distance from the ray's starting point to the intersection point with this plane
+        double tmp = new MutableVector().setSubtract(p0, p).dotProduct(normal);
+        double t = alignZero(tmp / nv);
+        // Only an intersection point in front of the ray's head counts
+        return t > 0 ? t : 0;
+    }
+
     /**
      Finds the intersection point of a given ray with this Plane.
      @param ray The ray to find the intersection point with.
@@ -71,23 +96,27 @@ public class Plane extends Geometry {
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray)
     {
-        Point p = ray.getP0();
-        Vector v = ray.getDir();
-        Vector n = getNormal();
-        double nv = n.dotProduct(v);
-        if (isZero(nv) || p0.equals(p)) //Checking if the beam is parallel to the plane or if it starts at the same point as the plane
-            return null;
-        // Calculate the distance from the ray's starting point to the intersection point with this plane
-        double tmp = n.dotProduct(p0.subtract(p));
-        double t = alignZero(tmp / nv);
-        // If the intersection point is in front of the camera return it
-        if (t > 0)
-        {
-            Point point = ray.getPoint(t);
-            return List.of(new GeoPoint(this, point));
-        }
+        double t = findIntersectionDistance(ray);
         // If there is no intersection point
-        return null;
+        if (t == 0)
+            return null;
+        return List.of(new GeoPoint(this, ray.getPoint(t), t));
     }
-}
 
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance)
+    {
+        double t = findIntersectionDistance(ray);
+        return t > 0 && t < maxDistance ? new GeoPoint(this, ray.getPoint(t), t) : null;
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, double minK)
+    {
+        double t = findIntersectionDistance(ray);
+        if (t == 0 || t >= maxDistance)
+            return Double3.ONE;
+        Double3 kt = getMaterial().Kt;
+        return kt.lowerThan(minK) ? Double3.ZERO : kt;
+    }
+}
@@ -85,6 +85,9 @@ public class Polygon extends Geometry {
     @Override
     public Vector getNormal(Point point) { return plane.getNormal(); }
 
+    @Override
+    protected BoundingBox calcBoundingBox() { return BoundingBox.of(vertices.toArray(new Point[0])); }
+
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray)
     {
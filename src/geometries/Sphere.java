@@ -1,5 +1,7 @@
 package geometries;
 
+import primitives.Double3;
+import primitives.MutableVector;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -31,8 +33,16 @@ public class Sphere extends RadialGeometry
 
     @Override
     public Vector getNormal(Point p) {
-        Vector n = p.subtract(center);
-        return n.normalize();
+        // normalized in place, allocating only the result
+        double x = p.getX() - center.getX(), y = p.getY() - center.getY(), z = p.getZ() - center.getZ();
+        double scale = 1 / Math.sqrt(x * x + y * y + z * z);
+        return new Vector(x * scale, y * scale, z * scale);
+    }
+
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return new BoundingBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
     }
     /**
 
@@ -48,12 +58,12 @@ public class Sphere extends RadialGeometry
         // If the ray starts at the center of the sphere
         if (p.equals(center))
         {
-            return List.of(new GeoPoint (this, center.add(v.scale(radius))));
+            return List.of(new GeoPoint (this, ray.getPoint(radius), radius));
         }
-        Vector u = center.subtract(p);
-        double tm = alignZero(v.dotProduct(u));
+        MutableVector u = new MutableVector().setSubtract(center, p);
+        double tm = alignZero(u.dotProduct(v));
         //Calculation of the length of the perpendicular according to Pythagoras
-        double d = alignZero(Math.sqrt(u.lengthSquared() - tm * tm));
+        double d = alignZero(Math.sqrt(Math.max(0, u.lengthSquared() - tm * tm)));
         if (d >= radius) //there are no intersections
         {
             return null;
@@ -66,19 +76,64 @@ public class Sphere extends RadialGeometry
         {
             Point P1 = ray.getPoint(t1);
             Point P2 = ray.getPoint(t2);
-            return List.of(new GeoPoint (this, P1), new GeoPoint (this,P2));
+            return List.of(new GeoPoint (this, P1, t1), new GeoPoint (this,P2, t2));
         }
         if (t1 > 0)
         {
             Point P1 =ray.getPoint(t1);
-            return List.of(new GeoPoint (this, P1));
+            return List.of(new GeoPoint (this, P1, t1));
         }
         if (t2 > 0)
         {
             Point P2 =ray.getPoint(t2);
-            return List.of(new GeoPoint (this, P2));
+            return List.of(new GeoPoint (this, P2, t2));
         }
         return null;
 
     }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance)
+    {
+        Point p = ray.getP0();
+        // If the ray starts at the center of the sphere
+        if (p.equals(center))
+            return radius < maxDistance ? new GeoPoint(this, ray.getPoint(radius), radius) : null;
+        MutableVector u = new MutableVector().setSubtract(center, p);
+        double tm = alignZero(u.dotProduct(ray.getDir()));
+        double d = alignZero(Math.sqrt(Math.max(0, u.lengthSquared() - tm * tm)));
+        if (d >= radius) //there are no intersections
+            return null;
+        double th = alignZero(Math.sqrt(radius * radius - d * d));
+        // the nearer intersection in front of the head of the ray
+        double t = alignZero(tm - th);
+        if (t <= 0)
+            t = alignZero(tm + th);
+        return t > 0 && t < maxDistance ? new GeoPoint(this, ray.getPoint(t), t) : null;
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, double minK)
+    {
+        Point p = ray.getP0();
+        Double3 kt = getMaterial().Kt;
+        // a ray from the center crosses the surface once
+        if (p.equals(center))
+            return radius < maxDistance ? kt : Double3.ONE;
+        MutableVector u = new MutableVector().setSubtract(center, p);
+        double tm = alignZero(u.dotProduct(ray.getDir()));
+        double d = alignZero(Math.sqrt(Math.max(0, u.lengthSquared() - tm * tm)));
+        if (d >= radius) //there are no intersections
+            return Double3.ONE;
+        double th = alignZero(Math.sqrt(radius * radius - d * d));
+        double t1 = alignZero(tm - th);
+        double t2 = alignZero(tm + th);
+        boolean first = t1 > 0 && t1 < maxDistance;
+        boolean second = t2 > 0 && t2 < maxDistance;
+        if (first && second)
+            kt = kt.product(kt);
+        else if (!first && !second)
+            return Double3.ONE;
+        return kt.lowerThan(minK) ? Double3.ZERO : kt;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -13,6 +14,15 @@ import java.util.List;
  */
 public class Triangle extends Polygon
 {
+    /** The square of the sine of the smallest angle between a ray and a triangle it can hit */
+    private static final double PARALLEL_EPSILON = 1e-20;
+    /** The first vertex of the triangle */
+    private final double v0x, v0y, v0z;
+    /** The edge from the first vertex to the second one */
+    private final double e1x, e1y, e1z;
+    /** The edge from the first vertex to the third one */
+    private final double e2x, e2y, e2z;
+
     /**
      * Triangle constructor that get 3 points
      * @param p1 - point
@@ -22,6 +32,94 @@ public class Triangle extends Polygon
     public Triangle(Point p1, Point p2, Point p3)
     {
         super(p1, p2, p3);
+        // the edges are precalculated once for the intersection kernel
+        v0x = p1.getX();
+        v0y = p1.getY();
+        v0z = p1.getZ();
+        e1x = p2.getX() - v0x;
+        e1y = p2.getY() - v0y;
+        e1z = p2.getZ() - v0z;
+        e2x = p3.getX() - v0x;
+        e2y = p3.getY() - v0y;
+        e2z = p3.getZ() - v0z;
+    }
+
+    /**
+     * Möller–Trumbore ray/triangle intersection kernel on raw coordinates. A hit on an edge or a vertex
+     * counts as an intersection only if it is requested
+     * @param ox - X coordinate of the head of the ray
+     * @param oy - Y coordinate of the head of the ray
+     * @param oz - Z coordinate of the head of the ray
+     * @param dx - X coordinate of the unit direction of the ray
+     * @param dy - Y coordinate of the unit direction of the ray
+     * @param dz - Z coordinate of the unit direction of the ray
+     * @param v0x - X coordinate of the first vertex of the triangle
+     * @param v0y - Y coordinate of the first vertex of the triangle
+     * @param v0z - Z coordinate of the first vertex of the triangle
+     * @param e1x - X coordinate of the edge from the first vertex to the second one
+     * @param e1y - Y coordinate of the edge from the first vertex to the second one
+     * @param e1z - Z coordinate of the edge from the first vertex to the second one
+     * @param e2x - X coordinate of the edge from the first vertex to the third one
+     * @param e2y - Y coordinate of the edge from the first vertex to the third one
+     * @param e2z - Z coordinate of the edge from the first vertex to the third one
+     * @param includeEdges - whether a hit on an edge or a vertex counts, as needed for the faces of a mesh
+     *                     that share edges
+     * @param barycentric - if not null, receives the barycentric coordinates of the hit relative to the
+     *                    second and the third vertices
+     * @return the distance to the intersection point, or 0 if the ray doesn't cross the triangle
+     */
+    static double intersect(double ox, double oy, double oz, double dx, double dy, double dz,
+                            double v0x, double v0y, double v0z,
+                            double e1x, double e1y, double e1z,
+                            double e2x, double e2y, double e2z,
+                            boolean includeEdges, double[] barycentric)
+    {
+        // p = d x e2
+        double px = dy * e2z - dz * e2y;
+        double py = dz * e2x - dx * e2z;
+        double pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        // the ray is parallel to the triangle - relative to the edges, so a tiny triangle is still hit
+        if (det * det <= PARALLEL_EPSILON * (e1x * e1x + e1y * e1y + e1z * e1z) * (e2x * e2x + e2y * e2y + e2z * e2z))
+            return 0;
+        double inv = 1 / det;
+        // s = o - v0
+        double sx = ox - v0x, sy = oy - v0y, sz = oz - v0z;
+        double u = alignZero((sx * px + sy * py + sz * pz) * inv);
+        if (includeEdges ? u < 0 || u > 1 : u <= 0 || u >= 1)
+            return 0;
+        // q = s x e1
+        double qx = sy * e1z - sz * e1y;
+        double qy = sz * e1x - sx * e1z;
+        double qz = sx * e1y - sy * e1x;
+        double v = alignZero((dx * qx + dy * qy + dz * qz) * inv);
+        if (includeEdges ? v < 0 || alignZero(u + v - 1) > 0 : v <= 0 || alignZero(u + v - 1) >= 0)
+            return 0;
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * inv);
+        if (t <= 0)
+            return 0;
+        if (barycentric != null)
+        {
+            barycentric[0] = u;
+            barycentric[1] = v;
+        }
+        return t;
+    }
+
+    /**
+     * Calculates the distance along a ray to its intersection with the triangle, and the barycentric
+     * coordinates of the intersection point, without any allocation
+     * @param ray The ray to intersect with the triangle.
+     * @param barycentric if not null, an array of at least 2 cells that receives the barycentric
+     *                    coordinates of the intersection point relative to the second and the third vertices
+     * @return The distance to the intersection point, or 0 if the ray doesn't cross the triangle.
+     */
+    public double findIntersectionDistance(Ray ray, double[] barycentric)
+    {
+        Point p = ray.getP0();
+        Vector v = ray.getDir();
+        return intersect(p.getX(), p.getY(), p.getZ(), v.getX(), v.getY(), v.getZ(),
+                v0x, v0y, v0z, e1x, e1y, e1z, e2x, e2y, e2z, false, barycentric);
     }
 
     /**
@@ -33,34 +131,25 @@ public class Triangle extends Polygon
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray)
     {
-        Point p = ray.getP0();
-        Vector v = ray.getDir();
-        // calculate the three edges of the triangle
-        Vector v1 = vertices.get(0).subtract(p);
-        Vector v2 = vertices.get(1).subtract(p);
-        Vector v3 = vertices.get(2).subtract(p);
-        // calculate the three edges of the triangle
-        Vector n1 = (v1.crossProduct(v2)).normalize();
-        Vector n2 = (v2.crossProduct(v3)).normalize();
-        Vector n3 = (v3.crossProduct(v1)).normalize();
-        // calculate the dot products of the ray direction with the three normals
-        double d1 = alignZero(v.dotProduct(n1));
-        double d2 = alignZero(v.dotProduct(n2));
-        double d3 = alignZero(v.dotProduct(n3));
-        // calculate the dot products of the ray direction with the three normals
+        double t = findIntersectionDistance(ray, null);
+        return t == 0 ? null : List.of(new GeoPoint(this, ray.getPoint(t), t));
+    }
 
-        ///If all the values are positive, it means the ray intersects the triangle from the same direction for all the edges.
-        //If all the values are negative, it means the ray intersects the triangle from the opposite direction for all the edges.
-        //If any of the values differ in sign from the others, it means the ray does not intersect the triangle.
-        if((d1>0 && d2>0 && d3>0) || (d1<0 && d2<0 && d3<0))
-        {
-            List<GeoPoint> list = plane.findGeoIntersections(ray);
-            if (list != null) {
-                Point intersectPoint = list.get(0).point;
-                return List.of((new GeoPoint(this, intersectPoint)));
-            }
-        }
-        return null;
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance)
+    {
+        double t = findIntersectionDistance(ray, null);
+        return t > 0 && t < maxDistance ? new GeoPoint(this, ray.getPoint(t), t) : null;
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, double minK)
+    {
+        double t = findIntersectionDistance(ray, null);
+        if (t == 0 || t >= maxDistance)
+            return Double3.ONE;
+        Double3 kt = getMaterial().Kt;
+        return kt.lowerThan(minK) ? Double3.ZERO : kt;
     }
 
 }
\ No newline at end of file
@@ -32,14 +32,24 @@ public class Tube extends RadialGeometry
 
     @Override
     public Vector getNormal(Point p) {
-        double t = this.axisRay.getDir().dotProduct(p.subtract(this.axisRay.getP0()));
-        if(isZero(t))
+        Point p0 = this.axisRay.getP0();
+        Vector dir = this.axisRay.getDir();
+        // p - p0, then without its component along the axis - normalized in place, allocating only the result
+        double x = p.getX() - p0.getX(), y = p.getY() - p0.getY(), z = p.getZ() - p0.getZ();
+        double t = dir.getX() * x + dir.getY() * y + dir.getZ() * z;
+        if (!isZero(t))
         {
-            return p.subtract(this.axisRay.getP0()).normalize();
+            x -= dir.getX() * t;
+            y -= dir.getY() * t;
+            z -= dir.getZ() * t;
         }
-       // Point o = this.axisRay.getP0().add(this.axisRay.getDir().scale(t));
-        Point o = this.axisRay.getPoint(t);
-        return p.subtract(o).normalize();
+        double scale = 1 / Math.sqrt(x * x + y * y + z * z);
+        return new Vector(x * scale, y * scale, z * scale);
+    }
+
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return null; // a tube is infinite
     }
 
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray)
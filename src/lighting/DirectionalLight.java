@@ -50,4 +50,10 @@ public class DirectionalLight extends Light implements LightSource
     }
     @Override
     public List<Point> getGridPoints(Vector l) { return null; }
+
+    @Override
+    public Point getSamplePoint(Vector l, double u, double v) { return null; }
+
+    @Override
+    public double[] getSamplePoints(Vector l, int side, long seed) { return null; }
 }
\ No newline at end of file
@@ -44,4 +44,30 @@ public interface LightSource
 
 
     List<Point> getGridPoints(Vector l);
+
+    /**
+     * Finds a point on the disk of the light that faces a shaded point, by coordinates in the unit square.
+     * The square is mapped onto the disk preserving relative areas, so equal cells of the square
+     * stand for equal parts of the light
+     * @param l the direction from the light to the shaded point
+     * @param u first coordinate in [0,1]
+     * @param v second coordinate in [0,1]
+     * @return the point on the light, the position itself for a light without radius,
+     * or null for a light without a position
+     */
+    Point getSamplePoint(Vector l, double u, double v);
+
+    /**
+     * Finds the points of a lattice over the disk of the light that faces a shaded point.
+     * The lattice is mapped onto the disk as by {@link #getSamplePoint}, and its points may be jittered
+     * by the seed. The disk offsets are computed once per light, and the returned set may be shared with
+     * earlier calls on the same thread whose direction is close enough, so it must not be modified,
+     * and it is valid only until the next call on the same thread
+     * @param l the direction from the light to the shaded point
+     * @param side the number of lattice points along a side of the unit square
+     * @param seed selects the jitter of the lattice, e.g. by the shaded point
+     * @return the coordinates of the points, 3 per point, point (i,j) at index i*side+j,
+     * or null for a light without a position
+     */
+    double[] getSamplePoints(Vector l, int side, long seed);
 }
\ No newline at end of file
@@ -1,14 +1,17 @@
 package lighting;
 
-import primitives.BlackBoard;
 import primitives.Color;
 import primitives.Point;
 import primitives.Vector;
 
+import sampling.Sampler;
+import sampling.StratifiedSampler;
+
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-
-import static primitives.Util.isZero;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The PointLight class represents a point light source in a 3D scene.
@@ -26,6 +29,32 @@ public class PointLight extends Light implements LightSource
      * attenuation coefficients
      */
     private double Kc = 1, Kl = 0, Kq = 0;
+    /**
+     * sampler and number of the points of the light returned by getGridPoints
+     */
+    private Sampler sampler = new StratifiedSampler();
+    private int sampleCount = 64;
+    /**
+     * number of jittered variants of every lattice pattern, one is chosen by the seed of the shaded point
+     */
+    private static final int PATTERN_VARIANTS = 16;
+    /**
+     * minimal cosine between 2 directions whose oriented lattice patterns are shared
+     */
+    private static final double ORIENTATION_TOLERANCE = 0.99995;
+    /**
+     * unit disk offsets of the lattices by their side, computed once per light
+     */
+    private final Map<Integer, double[][]> latticePatterns = new ConcurrentHashMap<>();
+    /**
+     * unit disk offsets of the points returned by getGridPoints, computed once
+     */
+    private volatile double[] gridPattern;
+    /**
+     * the last oriented pattern of each variant on every thread
+     */
+    private final ThreadLocal<OrientedPattern[]> orientedPatterns =
+            ThreadLocal.withInitial(() -> new OrientedPattern[PATTERN_VARIANTS]);
 
     /**
      * Constructs a new PointLight object with the specified intensity and position.
@@ -120,6 +149,34 @@ public class PointLight extends Light implements LightSource
         return point.distance(position);
     }
 
+    /**
+     * Sets the sampler of the jitter of the shadow rays lattice and of the points returned by
+     * {@link #getGridPoints(Vector)}
+     * @param sampler the sampler
+     * @return this
+     */
+    public PointLight setSampler(Sampler sampler) {
+        if (sampler == null)
+            throw new IllegalArgumentException("Sampler cannot be null");
+        this.sampler = sampler;
+        latticePatterns.clear();
+        gridPattern = null;
+        return this;
+    }
+
+    /**
+     * Sets the number of the points of the light returned by {@link #getGridPoints(Vector)}
+     * @param count the number of points
+     * @return this
+     */
+    public PointLight setSampleCount(int count) {
+        if (count < 1)
+            throw new IllegalArgumentException("Sample count must be positive");
+        this.sampleCount = count;
+        gridPattern = null;
+        return this;
+    }
+
     @Override
     public List<Point> getGridPoints(Vector l) {
         // If the radius is zero, return a list containing only the position point
@@ -127,22 +184,149 @@ public class PointLight extends Light implements LightSource
             List<Point> li = new LinkedList<>();
             li.add(position);
             return li;
+        }
+        double[] offsets = gridPattern;
+        if (offsets == null) {
+            double[] samples = new double[2 * sampleCount];
+            sampler.sample2D(samples, sampleCount, 0);
+            offsets = new double[2 * sampleCount];
+            for (int k = 0; k < sampleCount; ++k)
+                concentric(samples[2 * k], samples[2 * k + 1], offsets, k);
+            gridPattern = offsets;
+        }
+        double[] coordinates = new double[3 * sampleCount];
+        orient(l, offsets, coordinates);
+        List<Point> points = new ArrayList<>(sampleCount);
+        for (int k = 0; k < sampleCount; ++k)
+            points.add(new Point(coordinates[3 * k], coordinates[3 * k + 1], coordinates[3 * k + 2]));
+        return points;
+    }
+
+    @Override
+    public Point getSamplePoint(Vector l, double u, double v) {
+        if (radius == 0)
+            return position;
+        double[] offset = new double[2], point = new double[3];
+        concentric(u, v, offset, 0);
+        orient(l, offset, point);
+        return new Point(point[0], point[1], point[2]);
+    }
+
+    @Override
+    public double[] getSamplePoints(Vector l, int side, long seed) {
+        int variant = (int) Long.remainderUnsigned(seed, PATTERN_VARIANTS);
+        double[] offsets = latticePatterns.computeIfAbsent(side, this::buildLatticePatterns)[variant];
+
+        // reuse the set oriented for a close direction, e.g. of a neighbour pixel on this thread
+        OrientedPattern[] cache = orientedPatterns.get();
+        OrientedPattern oriented = cache[variant];
+        if (oriented != null && oriented.offsets == offsets && oriented.radius == radius
+                && oriented.lx * l.getX() + oriented.ly * l.getY() + oriented.lz * l.getZ() >= ORIENTATION_TOLERANCE)
+            return oriented.points;
+
+        if (oriented == null || oriented.points.length != offsets.length / 2 * 3)
+            oriented = cache[variant] = new OrientedPattern(offsets.length / 2);
+        orient(l, offsets, oriented.points);
+        oriented.offsets = offsets;
+        oriented.radius = radius;
+        oriented.lx = l.getX();
+        oriented.ly = l.getY();
+        oriented.lz = l.getZ();
+        return oriented.points;
+    }
+
+    /**
+     * Builds the jittered variants of the offsets of a lattice over the unit disk
+     * @param side the number of lattice points along a side
+     * @return the variants, each with 2 offsets per lattice point
+     */
+    private double[][] buildLatticePatterns(int side) {
+        double[][] patterns = new double[PATTERN_VARIANTS][2 * side * side];
+        double[] jitter = new double[2 * side * side];
+        for (int variant = 0; variant < PATTERN_VARIANTS; ++variant) {
+            sampler.sample2D(jitter, side * side, variant);
+            for (int i = 0; i < side; ++i)
+                for (int j = 0; j < side; ++j) {
+                    int index = i * side + j;
+                    if (side == 1) {
+                        concentric(0.5, 0.5, patterns[variant], index);
+                        continue;
+                    }
+                    // move the point up to half a cell to each side, within the square
+                    double u = Math.min(side - 1, Math.max(0, i + jitter[2 * index] - 0.5));
+                    double v = Math.min(side - 1, Math.max(0, j + jitter[2 * index + 1] - 0.5));
+                    concentric(u / (side - 1), v / (side - 1), patterns[variant], index);
+                }
+        }
+        return patterns;
+    }
+
+    /**
+     * Maps a point of the unit square onto the unit disk preserving relative areas
+     * (the concentric mapping of Shirley and Chiu)
+     * @param u first coordinate in [0,1]
+     * @param v second coordinate in [0,1]
+     * @param offsets receives the offset on the disk
+     * @param k the index of the offset in the array
+     */
+    private static void concentric(double u, double v, double[] offsets, int k) {
+        double a = 2 * u - 1, b = 2 * v - 1;
+        double r, phi;
+        if (a == 0 && b == 0) {
+            r = 0;
+            phi = 0;
+        } else if (Math.abs(a) > Math.abs(b)) {
+            r = a;
+            phi = Math.PI / 4 * (b / a);
         } else {
-            // Determine the perpendicular vector to 'l'
-            Vector v = !(isZero(l.getX()) || isZero(l.getY())) ?
-                    new Vector(-l.getY(), l.getX(), 0) :  // If x or y of 'l' is not zero, calculate a perpendicular vector
-                    new Vector(1, 1, 0).normalize();     // If both x and y of 'l' are zero, use a default vector and normalize it
-
-            // Call the constructCircleBlackBoard function to create a list of points based on the perpendicular vector
-            return BlackBoard.constructCircleBlackBoard(
-                    BlackBoard.getMAX_CELLS(),   // Number of cells in each direction
-                    position,                    // The center point of the circle
-                    v,                           // The perpendicular vector representing the X direction in the circle
-                    v.crossProduct(l),           // The perpendicular vector calculated using the cross product with 'l'
-                    radius                       // Radius of the circle
-            );
+            r = b;
+            phi = Math.PI / 2 - Math.PI / 4 * (a / b);
         }
+        offsets[2 * k] = r * Math.cos(phi);
+        offsets[2 * k + 1] = r * Math.sin(phi);
     }
 
+    /**
+     * Places offsets of the unit disk on the disk of the light that faces a direction
+     * @param l the direction from the light
+     * @param offsets the offsets, 2 per point
+     * @param points receives the points, 3 coordinates per point
+     */
+    private void orient(Vector l, double[] offsets, double[] points) {
+        // orthonormal basis of the disk plane, perpendicular to l, without a square root (Duff et al.)
+        double x = l.getX(), y = l.getY(), z = l.getZ();
+        double sign = Math.copySign(1.0, z);
+        double s = -1 / (sign + z);
+        double m = x * y * s;
+        double t1x = radius * (1 + sign * x * x * s), t1y = radius * sign * m, t1z = -radius * sign * x;
+        double t2x = radius * m, t2y = radius * (sign + y * y * s), t2z = -radius * y;
+        double px = position.getX(), py = position.getY(), pz = position.getZ();
+        for (int k = 0, count = offsets.length / 2; k < count; ++k) {
+            double dx = offsets[2 * k], dy = offsets[2 * k + 1];
+            points[3 * k] = px + dx * t1x + dy * t2x;
+            points[3 * k + 1] = py + dx * t1y + dy * t2y;
+            points[3 * k + 2] = pz + dx * t1z + dy * t2z;
+        }
+    }
+
+    /**
+     * A lattice pattern oriented towards a direction, cached per thread
+     */
+    private static final class OrientedPattern {
+        /** the direction the pattern was oriented towards */
+        double lx, ly, lz;
+        /** the radius of the light when the pattern was oriented */
+        double radius;
+        /** the unit disk offsets that were oriented */
+        double[] offsets;
+        /** the oriented points, 3 coordinates per point */
+        final double[] points;
 
-}
\ No newline at end of file
+        /**
+         * @param count the number of points
+         */
+        OrientedPattern(int count) {
+            points = new double[3 * count];
+        }
+    }
+}
@@ -51,6 +51,12 @@ public class Color {
      */
     public Color(java.awt.Color other) { rgb = new Double3(other.getRed(), other.getGreen(), other.getBlue()); }
 
+    /**
+     * RGB components getter, without the limit of 255
+     * @return the triad of Red/Green/Blue components
+     */
+    public Double3 getRgb() { return rgb; }
+
     /**
      * Color getter - returns the color after converting it into java.awt.Color
      * object During the conversion any component bigger than 255 is set to 255
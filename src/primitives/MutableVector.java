@@ -0,0 +1,210 @@
+package primitives;
+
+/**
+ * Mutable triad of doubles for the hot paths of the intersection and shading calculations.
+ * Unlike {@link Point} and {@link Vector}, the operations change the object itself and return it,
+ * so a calculation can reuse a few scratch objects instead of allocating a new object on every step.
+ * The immutable classes stay the public API, this class is only a calculation aid and a zero
+ * length is allowed.
+ * <p>
+ * The hot paths create their triads as locals that never leave the method, rather than keeping scratch
+ * fields, so the geometries and the ray tracer stay safe for the rendering threads, and the JIT's escape
+ * analysis replaces the triads by plain doubles in registers. {@link Double3} and {@link Color} have no
+ * mutable counterpart - their products and sums are left to the same escape analysis.
+ *
+ * @author Ayelet and Gili
+ */
+public final class MutableVector {
+    /** x coordinate */
+    public double x;
+    /** y coordinate */
+    public double y;
+    /** z coordinate */
+    public double z;
+
+    /**
+     * Constructor of a zero triad
+     */
+    public MutableVector() {
+    }
+
+    /**
+     * Constructor with 3 coordinates
+     *
+     * @param x - X axis coordinate
+     * @param y - Y axis coordinate
+     * @param z - Z axis coordinate
+     */
+    public MutableVector(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * Sets the coordinates
+     *
+     * @param x - X axis coordinate
+     * @param y - Y axis coordinate
+     * @param z - Z axis coordinate
+     * @return this
+     */
+    public MutableVector set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    /**
+     * Sets the coordinates to those of a point (or a vector)
+     *
+     * @param p - the point
+     * @return this
+     */
+    public MutableVector set(Point p) {
+        x = p.xyz.d1;
+        y = p.xyz.d2;
+        z = p.xyz.d3;
+        return this;
+    }
+
+    /**
+     * Sets the triad to the difference of two points - the vector from p2 to p1
+     *
+     * @param p1 - the end point
+     * @param p2 - the start point
+     * @return this
+     */
+    public MutableVector setSubtract(Point p1, Point p2) {
+        x = p1.xyz.d1 - p2.xyz.d1;
+        y = p1.xyz.d2 - p2.xyz.d2;
+        z = p1.xyz.d3 - p2.xyz.d3;
+        return this;
+    }
+
+    /**
+     * Sets the triad to the cross product of two triads, which may be this triad itself
+     *
+     * @param a - left operand
+     * @param b - right operand
+     * @return this
+     */
+    public MutableVector setCrossProduct(MutableVector a, MutableVector b) {
+        double cx = a.y * b.z - a.z * b.y;
+        double cy = a.z * b.x - a.x * b.z;
+        double cz = a.x * b.y - a.y * b.x;
+        x = cx;
+        y = cy;
+        z = cz;
+        return this;
+    }
+
+    /**
+     * Adds another triad scaled by a factor - this += v * s
+     *
+     * @param v - the triad
+     * @param s - the factor
+     * @return this
+     */
+    public MutableVector addScaled(MutableVector v, double s) {
+        x += v.x * s;
+        y += v.y * s;
+        z += v.z * s;
+        return this;
+    }
+
+    /**
+     * Adds a vector scaled by a factor - this += v * s
+     *
+     * @param v - the vector
+     * @param s - the factor
+     * @return this
+     */
+    public MutableVector addScaled(Vector v, double s) {
+        x += v.xyz.d1 * s;
+        y += v.xyz.d2 * s;
+        z += v.xyz.d3 * s;
+        return this;
+    }
+
+    /**
+     * Multiplies the triad by a scalar
+     *
+     * @param s - the scalar
+     * @return this
+     */
+    public MutableVector scale(double s) {
+        x *= s;
+        y *= s;
+        z *= s;
+        return this;
+    }
+
+    /**
+     * Dot product with another triad
+     *
+     * @param v - the other triad
+     * @return the dot product
+     */
+    public double dotProduct(MutableVector v) {
+        return x * v.x + y * v.y + z * v.z;
+    }
+
+    /**
+     * Dot product with a vector
+     *
+     * @param v - the vector
+     * @return the dot product
+     */
+    public double dotProduct(Vector v) {
+        return x * v.xyz.d1 + y * v.xyz.d2 + z * v.xyz.d3;
+    }
+
+    /**
+     * @return the squared length of the triad
+     */
+    public double lengthSquared() {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * @return the length of the triad
+     */
+    public double length() {
+        return Math.sqrt(lengthSquared());
+    }
+
+    /**
+     * Normalizes the triad to unit length
+     *
+     * @return this
+     */
+    public MutableVector normalize() {
+        return scale(1 / length());
+    }
+
+    /**
+     * Creates an immutable vector with the same coordinates
+     *
+     * @return the new vector
+     * @throws IllegalArgumentException if the triad is zero
+     */
+    public Vector toVector() {
+        return new Vector(x, y, z);
+    }
+
+    /**
+     * Creates an immutable point with the same coordinates
+     *
+     * @return the new point
+     */
+    public Point toPoint() {
+        return new Point(x, y, z);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + "," + y + "," + z + ")";
+    }
+}
@@ -32,6 +32,21 @@ public class Ray
         this.dir = dir.normalize();
     }
 
+    /**
+     * Ray constructor by the components of its direction, which are normalized without the intermediate
+     * vectors of {@link Vector#normalize()}
+     * @param p0 - point
+     * @param x - X axis component of the direction
+     * @param y - Y axis component of the direction
+     * @param z - Z axis component of the direction
+     */
+    public Ray(Point p0, double x, double y, double z)
+    {
+        double scale = 1 / Math.sqrt(x * x + y * y + z * z);
+        this.p0 = p0;
+        this.dir = new Vector(x * scale, y * scale, z * scale);
+    }
+
     public Ray(Point p0, Vector dir, Vector n)
     {
         this.dir = dir.normalize();
@@ -87,7 +102,7 @@ public class Ray
      */
     public Point getPoint(double t)
     {
-        return isZero(t) ? p0 :p0.add(dir.scale(t));
+        return isZero(t) ? p0 : new Point(p0.xyz.d1 + dir.xyz.d1 * t, p0.xyz.d2 + dir.xyz.d2 * t, p0.xyz.d3 + dir.xyz.d3 * t);
     }
 
     /**
@@ -106,7 +121,7 @@ public class Ray
 
         for (GeoPoint gPoint : points) //going through all the points in the list
         {
-            tempDis = p0.distance(gPoint.point);
+            tempDis = gPoint.getDistance(this);
             if(tempDis < dis) //check if this point closer to the head of the ray
             {
                 closetPoint = gPoint;
@@ -36,9 +36,10 @@ public class Vector extends Point {
     }
 
     public Vector add(Vector vec) {
-        if (this.equals(vec.scale(-1)))
+        Double3 sum = this.xyz.add(vec.xyz);
+        if (sum.equals(Double3.ZERO))
             throw new IllegalArgumentException("ERROR: Adding opposite vectors gives the zero vector");
-        return new Vector(this.xyz.add(vec.xyz));
+        return new Vector(sum);
     }
 
     /**
@@ -98,8 +99,7 @@ public class Vector extends Point {
      * @return A unit vector in the same direction as the original vector
      */
     public Vector normalize() {
-        Vector newVector = new Vector(this.xyz);
-        return newVector.scale(1 / this.length());
+        return new Vector(this.xyz.scale(1 / this.length()));
     }
 
     /**
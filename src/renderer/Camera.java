@@ -1,8 +1,25 @@
 package renderer;
 
+import geometries.Intersectable;
+import geometries.IntersectionCounters;
 import primitives.*;
+import sampling.HaltonSampler;
+import sampling.Sampler;
+import sampling.StratifiedSampler;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.MissingResourceException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
 
 import static primitives.Util.isZero;
 
@@ -23,6 +40,44 @@ public class Camera implements Cloneable {
     private double viewPlaneDistance;
     private ImageWriter imageWriter;
     private RayTracerBase rayTracer;
+    /** Number of rendering worker threads, 0 means rendering on the calling thread */
+    private int threadsCount = 0;
+    /** Width and height (in pixels) of a square tile rendered by one task */
+    private int tileSize = DEFAULT_TILE_SIZE;
+
+    /** Number of rays cast through every pixel, 1 is a single ray through the pixel center */
+    private int antiAliasingSamples = 1;
+    /** Sampler of the positions of the rays inside a pixel */
+    private Sampler sampler = new StratifiedSampler();
+    /** Maximal depth of the recursive subdivision of a pixel by the adaptive anti aliasing, 0 for none */
+    private int adaptiveDepth = 0;
+    /** Difference of a color component from the mean of the corners above which an area is subdivided */
+    private double adaptiveThreshold = DEFAULT_ADAPTIVE_THRESHOLD;
+    /** Statistics of the renderings, null when they are not collected */
+    private RenderStatistics statistics = null;
+    /** The primary rays of the image, precomputed when the camera is built */
+    private PrimaryRayGenerator rays = null;
+    /** Number of samples per pixel of the progressive rendering, 0 for rendering in a single pass */
+    private int progressiveSamples = 0;
+    /** Wall time budget of the progressive rendering, null for no limit */
+    private Duration timeBudget = null;
+    /** Receiver of the snapshots of the progressive rendering, null for none */
+    private PassListener passListener = null;
+    /** The checkpoint file of the completed tiles, null for no checkpoints */
+    private Path checkpointFile = null;
+    /** Logger of the statistics summary */
+    private static final Logger LOGGER = Logger.getLogger("Camera");
+
+    /** Default tile size for the multi-threaded rendering */
+    private static final int DEFAULT_TILE_SIZE = 32;
+    /** Default color difference threshold of the adaptive anti aliasing */
+    private static final double DEFAULT_ADAPTIVE_THRESHOLD = 8;
+    /** Maximal depth of the adaptive anti aliasing, 256x256 corners per pixel */
+    private static final int MAX_ADAPTIVE_DEPTH = 8;
+    /** Size in pixels of the square blocks of the preview pass of the progressive rendering */
+    private static final int PREVIEW_BLOCK = 8;
+    /** The sampler of the progressive passes, whose every prefix is evenly spread over a pixel */
+    private static final HaltonSampler PROGRESSIVE_SAMPLER = new HaltonSampler();
 
     // Private constructor to enforce the use of the builder pattern
     private Camera() {}
@@ -42,6 +97,9 @@ public class Camera implements Cloneable {
      */
     public Camera setImageWriter(ImageWriter iw) {
         this.imageWriter = iw;
+        if (vRight != null && iw != null)
+            rays = new PrimaryRayGenerator(p0, vTo, vUp, vRight, viewPlaneDistance, viewPlaneWidth, viewPlaneHeight,
+                    iw.getNx(), iw.getNy());
         return this;
     }
 
@@ -153,6 +211,166 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Set the number of worker threads used by {@link Camera#renderImage()}.
+         * The image is split into tiles which are rendered by a pool of the given size.
+         *
+         * @param threads 0 for rendering on the calling thread, -1 for all the available processors,
+         *                otherwise the number of worker threads
+         * @return The Builder instance for method chaining.
+         * @throws IllegalArgumentException if the number of threads is less than -1
+         */
+        public Builder setMultithreading(int threads) throws IllegalArgumentException {
+            if (threads < -1) {
+                throw new IllegalArgumentException("Multithreading parameter must be -1 or higher");
+            }
+            camera.threadsCount = threads == -1 ? Runtime.getRuntime().availableProcessors() : threads;
+            return this;
+        }
+
+        /**
+         * Set the size of the square tiles rendered by the worker threads.
+         *
+         * @param size The width and height of a tile in pixels.
+         * @return The Builder instance for method chaining.
+         * @throws IllegalArgumentException if the size is not positive.
+         */
+        public Builder setTileSize(int size) throws IllegalArgumentException {
+            if (size <= 0) {
+                throw new IllegalArgumentException("Tile size must be positive");
+            }
+            camera.tileSize = size;
+            return this;
+        }
+
+        /**
+         * Set the number of rays cast through every pixel for anti aliasing.
+         * The rays are spread over the pixel by the sampler, decorrelated per pixel.
+         *
+         * @param samples The number of rays per pixel, 1 for a single ray through the pixel center.
+         * @return The Builder instance for method chaining.
+         * @throws IllegalArgumentException if the number is not positive.
+         */
+        public Builder setAntiAliasing(int samples) throws IllegalArgumentException {
+            if (samples < 1) {
+                throw new IllegalArgumentException("Anti aliasing samples must be positive");
+            }
+            camera.antiAliasingSamples = samples;
+            return this;
+        }
+
+        /**
+         * Set adaptive anti aliasing. Rays are cast through the corners of every pixel, and a pixel is
+         * subdivided into 4 recursively only where the colors at the corners of the area differ, so flat
+         * regions cost about a ray per pixel. The corners shared by neighbour pixels and sub areas are
+         * traced once, except on the seams of the tiles, which both of their tiles trace. When it is set, the number of anti aliasing rays per pixel is ignored.
+         *
+         * @param maxDepth  The maximal depth of the subdivision, 0 for no adaptive anti aliasing.
+         * @param threshold The difference of a color component from the mean of the corners of an area
+         *                  above which the area is subdivided.
+         * @return The Builder instance for method chaining.
+         * @throws IllegalArgumentException if the depth is negative or too big, or the threshold is negative.
+         */
+        public Builder setAdaptiveAntiAliasing(int maxDepth, double threshold) throws IllegalArgumentException {
+            if (maxDepth < 0 || maxDepth > MAX_ADAPTIVE_DEPTH) {
+                throw new IllegalArgumentException("Adaptive anti aliasing depth must be between 0 and " + MAX_ADAPTIVE_DEPTH);
+            }
+            if (threshold < 0) {
+                throw new IllegalArgumentException("Adaptive anti aliasing threshold must not be negative");
+            }
+            camera.adaptiveDepth = maxDepth;
+            camera.adaptiveThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Set the sampler of the positions of the anti aliasing rays inside a pixel.
+         *
+         * @param sampler The sampler.
+         * @return The Builder instance for method chaining.
+         * @throws IllegalArgumentException if the sampler is null.
+         */
+        public Builder setSampler(Sampler sampler) throws IllegalArgumentException {
+            if (sampler == null) {
+                throw new IllegalArgumentException("Sampler cannot be null");
+            }
+            camera.sampler = sampler;
+            return this;
+        }
+
+        /**
+         * Set progressive rendering. The image is rendered in passes that refine it: a low resolution
+         * preview with a ray per block of pixels, a pass with a ray through every pixel center, and then
+         * passes of a ray per pixel at evenly spread points, which are averaged into the frame buffer.
+         * After every pass the pass listener gets a snapshot, and the rendering stops early when the time
+         * budget runs out, leaving the best image so far. The anti aliasing settings are ignored, and
+         * the image writer must not be streaming.
+         *
+         * @param samples The number of rays per pixel of the final image, 0 for rendering in a single pass.
+         * @return The Builder instance for method chaining.
+         * @throws IllegalArgumentException if the number is negative.
+         */
+        public Builder setProgressive(int samples) throws IllegalArgumentException {
+            if (samples < 0) {
+                throw new IllegalArgumentException("Progressive samples must not be negative");
+            }
+            camera.progressiveSamples = samples;
+            return this;
+        }
+
+        /**
+         * Set the wall time budget of a progressive rendering. The passes are interrupted when it runs out,
+         * except the preview pass, which is always completed so there is an image.
+         *
+         * @param budget The time budget, null for no limit.
+         * @return The Builder instance for method chaining.
+         * @throws IllegalArgumentException if the budget is negative.
+         */
+        public Builder setTimeBudget(Duration budget) throws IllegalArgumentException {
+            if (budget != null && budget.isNegative()) {
+                throw new IllegalArgumentException("Time budget must not be negative");
+            }
+            camera.timeBudget = budget;
+            return this;
+        }
+
+        /**
+         * Set the receiver of the snapshots of a progressive rendering.
+         *
+         * @param listener The listener, called after every completed pass, null for none.
+         * @return The Builder instance for method chaining.
+         */
+        public Builder setPassListener(PassListener listener) {
+            camera.passListener = listener;
+            return this;
+        }
+
+        /**
+         * Set the checkpoint file of the rendering. Every completed tile is appended to the file, so a
+         * rendering that crashed or was stopped can be continued by {@link Camera#resumeImage()} of the
+         * same camera and scene. The image is rendered in tiles even on a single thread, and it can't be
+         * streaming or progressive.
+         *
+         * @param file The checkpoint file, null for no checkpoints.
+         * @return The Builder instance for method chaining.
+         */
+        public Builder setCheckpoint(Path file) {
+            camera.checkpointFile = file;
+            return this;
+        }
+
+        /**
+         * Set the statistics that the renderings are measured into. At the end of every rendering
+         * their summary is logged.
+         *
+         * @param statistics The statistics, null for no statistics.
+         * @return The Builder instance for method chaining.
+         */
+        public Builder setStatistics(RenderStatistics statistics) {
+            camera.statistics = statistics;
+            return this;
+        }
+
         /**
          * Build the Camera instance with the specified parameters.
          *
@@ -189,8 +407,10 @@ public class Camera implements Cloneable {
             }
 
 
-            // Calculate the view plane center point
-            // camera.viewPlanePC = camera.p0.add(camera.vTo.scale(camera.viewPlaneDistance));
+            // Precompute the view plane and the pixel steps of the primary rays
+            camera.rays = new PrimaryRayGenerator(camera.p0, camera.vTo, camera.vUp, camera.vRight,
+                    camera.viewPlaneDistance, camera.viewPlaneWidth, camera.viewPlaneHeight,
+                    camera.imageWriter.getNx(), camera.imageWriter.getNy());
 
             // Attempt to clone the camera instance
             try {
@@ -213,20 +433,38 @@ public class Camera implements Cloneable {
      * @return A Ray instance representing the ray through the center of the specified pixel.
      */
     public Ray constructRay(int nX, int nY, int j, int i) {
-        Point pCenter = p0.add(vTo.scale(viewPlaneDistance));
-
-        double Ry = (double) viewPlaneHeight / nY;//size of one pixel
-        double Rx = (double) viewPlaneWidth / nX;
-
-        double yI = -(i - (double) (nY - 1) / 2) * Ry;//distance from the center
-        double xJ = (j - (double) (nX - 1) / 2) * Rx;
+        return rayGenerator(nX, nY).pixelRay(j, i);
+    }
 
-        Point pIJ = pCenter;
-        if (xJ != 0) pIJ = pIJ.add(vRight.scale(xJ));
-        if (yI != 0) pIJ = pIJ.add(vUp.scale(yI));
+    /**
+     * This method creates a ray that goes through a point inside a pixel.
+     *
+     * @param nX The total number of pixels in the x-direction.
+     * @param nY The total number of pixels in the y-direction.
+     * @param j  The x-coordinate of the pixel.
+     * @param i  The y-coordinate of the pixel.
+     * @param u  The horizontal position inside the pixel, in [0,1) from its left edge.
+     * @param v  The vertical position inside the pixel, in [0,1) from its upper edge.
+     * @return A Ray instance through the point of the pixel.
+     */
+    private Ray constructRay(int nX, int nY, int j, int i, double u, double v) {
+        return rayGenerator(nX, nY).sampleRay(j, i, u, v);
+    }
 
-        Vector vIJ = pIJ.subtract(p0);
-        return new Ray(p0, vIJ);
+    /**
+     * Finds the primary ray generator of a resolution - the one precomputed for the image,
+     * or a new one for another resolution.
+     *
+     * @param nX The total number of pixels in the x-direction.
+     * @param nY The total number of pixels in the y-direction.
+     * @return The ray generator.
+     */
+    private PrimaryRayGenerator rayGenerator(int nX, int nY) {
+        PrimaryRayGenerator generator = rays;
+        if (generator == null || generator.getNx() != nX || generator.getNy() != nY)
+            generator = new PrimaryRayGenerator(p0, vTo, vUp, vRight, viewPlaneDistance, viewPlaneWidth,
+                    viewPlaneHeight, nX, nY);
+        return generator;
     }
 
     public double getViewPlaneDistance() {
@@ -260,24 +498,455 @@ public class Camera implements Cloneable {
     /**
 
      Renders the image using the configured ray tracer and image writer.
+     When multithreading is set the image is rendered tile by tile on a pool of worker threads,
+     the result is identical to the single threaded rendering.
+     With a streaming image writer the image is rendered in bands of rows, each one written into
+     the file before the next one is rendered.
+     A progressive rendering returns when all its passes are done, when the time budget runs out or when
+     the calling thread is interrupted, with the best image so far.
+     With a checkpoint file every completed tile is appended to the file, which is started anew.
 
-     @throws UnsupportedOperationException If the image writer or ray tracer is missing.
+     @throws UnsupportedOperationException If the image writer or ray tracer is missing,
+     or a progressive rendering or a checkpoint is set with a streaming image writer,
+     or a checkpoint is set with a progressive rendering.
+     @throws IllegalStateException If the checkpoint file can't be written.
      */
     public Camera renderImage() {
+        return render(false);
+    }
+
+    /**
+     Resumes a rendering from its checkpoint file - the completed tiles are loaded from the file and only
+     the rest of the image is rendered, and appended to the file. The camera and the scene must be the same
+     as those of the checkpointed rendering. Without a checkpoint file the whole image is rendered.
+
+     @throws UnsupportedOperationException If no checkpoint file is set, or as {@link #renderImage()}.
+     @throws IllegalStateException If the checkpoint file can't be read or written, or is a checkpoint
+     of another camera.
+     */
+    public Camera resumeImage() {
+        if (checkpointFile == null)
+            throw new UnsupportedOperationException("Missing checkpoint file");
+        return render(true);
+    }
+
+    /**
+     Renders the image, see {@link #renderImage()}.
+
+     @param resume whether the rendering is resumed from the checkpoint file.
+     */
+    private Camera render(boolean resume) {
         if (this.imageWriter == null)
             throw new UnsupportedOperationException("Missing imageWriter");
         if (this.rayTracer == null)
             throw new UnsupportedOperationException("Missing rayTracerBase");
+        if (progressiveSamples > 0 && imageWriter.isStreaming())
+            throw new UnsupportedOperationException("Progressive rendering needs an image writer that holds the pixels");
+        if (checkpointFile != null && (imageWriter.isStreaming() || progressiveSamples > 0))
+            throw new UnsupportedOperationException("Checkpoints need a tiled rendering into an image writer that holds the pixels");
 
-        for (int i = 0; i < this.imageWriter.getNy(); i++) {
-            for (int j = 0; j < this.imageWriter.getNx(); j++) {
-                Color color = castRay(j, i);
-                this.imageWriter.writePixel(j, i, color);
+        long start = System.nanoTime();
+        // the statistics the ray tracer was given by its owner are restored after the rendering
+        RenderStatistics tracerStatistics = rayTracer.getStatistics();
+        if (statistics != null) {
+            rayTracer.setStatistics(statistics);
+            Intersectable.setIntersectionCounters(statistics.getIntersections());
+        }
+        try {
+            if (progressiveSamples > 0)
+                renderProgressive();
+            else if (checkpointFile != null)
+                renderCheckpointed(resume);
+            else if (imageWriter.isStreaming())
+                renderBands();
+            else if (threadsCount == 0) {
+                int nX = imageWriter.getNx();
+                CornerCache corners = adaptiveDepth > 0 ? new CornerCache(0, nX) : null;
+                Ray[] batch = new Ray[nX];
+                Color[] colors = new Color[nX];
+                for (int i = 0; i < imageWriter.getNy(); i++) {
+                    castRow(0, i, nX, batch, corners, colors, 0);
+                    imageWriter.writeTile(0, i, nX, 1, colors);
+                }
+            } else
+                renderTiles(null);
+        } finally {
+            if (statistics != null) {
+                Intersectable.setIntersectionCounters(null);
+                rayTracer.setStatistics(tracerStatistics);
+                statistics.addTime(RenderStatistics.Phase.RENDER, System.nanoTime() - start);
+                LOGGER.info(statistics::summary);
             }
         }
         return this;
     }
 
+    /**
+     * Returns the statistics of the renderings
+     *
+     * @return the statistics, null if they are not collected
+     */
+    public RenderStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the image writer the camera renders into
+     *
+     * @return the image writer
+     */
+    ImageWriter getImageWriter() {
+        return imageWriter;
+    }
+
+    /**
+     * Creates the pool of the rendering threads. The threads count their intersection tests into the
+     * statistics of the camera, if any, like the thread that calls the rendering
+     *
+     * @return the pool
+     */
+    private ExecutorService newPool() {
+        IntersectionCounters counters = statistics == null ? null : statistics.getIntersections();
+        return Executors.newFixedThreadPool(threadsCount, task -> new Thread(() -> {
+            Intersectable.setIntersectionCounters(counters);
+            try {
+                task.run();
+            } finally {
+                Intersectable.setIntersectionCounters(null);
+            }
+        }));
+    }
+
+    /**
+     * Renders the image by splitting it into tiles and rendering them on a pool of worker threads, or one by
+     * one when multithreading isn't set. Each tile is rendered into a local buffer and then written into the
+     * image writer at once, and then appended to the checkpoint, if any. The tiles completed in the
+     * checkpoint are skipped.
+     *
+     * @param checkpoint The checkpoint, null for none.
+     */
+    private void renderTiles(TileCheckpoint checkpoint) {
+        int nX = imageWriter.getNx();
+        int nY = imageWriter.getNy();
+        ExecutorService pool = threadsCount == 0 ? null : newPool();
+        try {
+            List<Future<?>> tasks = new LinkedList<>();
+            for (int y0 = 0; y0 < nY; y0 += tileSize) {
+                for (int x0 = 0; x0 < nX; x0 += tileSize) {
+                    if (checkpoint != null && checkpoint.isCompleted(x0, y0))
+                        continue;
+                    int tileX = x0, tileY = y0;
+                    int width = Math.min(tileSize, nX - x0);
+                    int height = Math.min(tileSize, nY - y0);
+                    Runnable tile = () -> {
+                        renderTile(tileX, tileY, width, height);
+                        if (checkpoint != null) {
+                            try {
+                                checkpoint.append(tileX, tileY, width, height);
+                            } catch (IOException e) {
+                                throw new IllegalStateException("I/O error while writing the checkpoint", e);
+                            }
+                        }
+                    };
+                    if (pool == null)
+                        tile.run();
+                    else
+                        tasks.add(pool.submit(tile));
+                }
+            }
+            awaitAll(tasks);
+        } finally {
+            if (pool != null)
+                pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Renders the image tile by tile with a checkpoint file.
+     *
+     * @param resume Whether the completed tiles are loaded from the file, otherwise it is started anew.
+     * @throws IllegalStateException if the file can't be read or written, or is a checkpoint of another camera.
+     */
+    private void renderCheckpointed(boolean resume) {
+        try (TileCheckpoint checkpoint = new TileCheckpoint(checkpointFile, imageWriter.getFrameBuffer(),
+                fingerprint(), resume)) {
+            renderTiles(checkpoint);
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error in the checkpoint " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * Computes a fingerprint of the camera settings that determine the rendered tiles - the view, the
+     * resolution, the tiles and the sampling - so a checkpoint is resumed only by the same camera.
+     *
+     * @return The fingerprint.
+     */
+    private long fingerprint() {
+        double[] values = {p0.getX(), p0.getY(), p0.getZ(), vTo.getX(), vTo.getY(), vTo.getZ(),
+                vUp.getX(), vUp.getY(), vUp.getZ(), viewPlaneWidth, viewPlaneHeight, viewPlaneDistance,
+                imageWriter.getNx(), imageWriter.getNy(), tileSize, antiAliasingSamples, adaptiveDepth,
+                adaptiveThreshold};
+        long fingerprint = sampler.getClass().getName().hashCode();
+        for (double value : values)
+            fingerprint = Sampler.mix(fingerprint * 31 + Double.doubleToLongBits(value));
+        return fingerprint;
+    }
+
+    /**
+     * Renders the image in progressive passes into the frame buffer of the image writer. The tiles of a
+     * pass are rendered on the pool of worker threads when multithreading is set, and every tile checks
+     * between its rows whether the time budget ran out or the calling thread was interrupted.
+     */
+    private void renderProgressive() {
+        int nX = imageWriter.getNx();
+        int nY = imageWriter.getNy();
+        FrameBuffer frame = imageWriter.getFrameBuffer();
+        long start = System.nanoTime();
+        AtomicBoolean stop = new AtomicBoolean(false);
+        ExecutorService pool = threadsCount == 0 ? null : newPool();
+        try {
+            // a long pass counter, so the loop ends even after Integer.MAX_VALUE samples
+            for (long pass = 0; pass <= progressiveSamples && !stop.get(); ++pass) {
+                int current = (int) pass;
+                List<Future<?>> tasks = new LinkedList<>();
+                for (int y0 = 0; y0 < nY; y0 += tileSize) {
+                    for (int x0 = 0; x0 < nX; x0 += tileSize) {
+                        int tileX = x0, tileY = y0;
+                        int width = Math.min(tileSize, nX - x0);
+                        int height = Math.min(tileSize, nY - y0);
+                        if (pool == null)
+                            renderPassTile(current, tileX, tileY, width, height, start, stop);
+                        else
+                            tasks.add(pool.submit(() -> renderPassTile(current, tileX, tileY, width, height, start, stop)));
+                    }
+                }
+                awaitPass(tasks, stop);
+                if (!stop.get() && passListener != null)
+                    passListener.passCompleted(current, frame);
+            }
+        } finally {
+            if (pool != null)
+                pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Renders one tile of a progressive pass into the frame buffer of the image writer. The preview pass
+     * traces the center of every block of the tile and fills the block, the first pass replaces the
+     * preview by the pixel centers, and every further pass adds a sample to each pixel.
+     *
+     * @param pass   The pass, 0 for the preview.
+     * @param x0     The x-coordinate of the tile's upper left pixel.
+     * @param y0     The y-coordinate of the tile's upper left pixel.
+     * @param width  The width of the tile in pixels.
+     * @param height The height of the tile in pixels.
+     * @param start  The start time of the rendering in nanoseconds.
+     * @param stop   Set when the rendering is stopped, by this tile or another.
+     */
+    private void renderPassTile(int pass, int x0, int y0, int width, int height, long start, AtomicBoolean stop) {
+        int nX = imageWriter.getNx(), nY = imageWriter.getNy();
+        FrameBuffer frame = imageWriter.getFrameBuffer();
+        if (pass == 0) {
+            for (int by = y0; by < y0 + height && !stopped(false, start, stop); by += PREVIEW_BLOCK) {
+                int blockHeight = Math.min(PREVIEW_BLOCK, y0 + height - by);
+                for (int bx = x0; bx < x0 + width; bx += PREVIEW_BLOCK) {
+                    int blockWidth = Math.min(PREVIEW_BLOCK, x0 + width - bx);
+                    Color color = rayTracer.traceRay(rays.pixelRay(bx + blockWidth / 2, by + blockHeight / 2));
+                    for (int i = by; i < by + blockHeight; i++)
+                        for (int j = bx; j < bx + blockWidth; j++)
+                            frame.set(j, i, color);
+                }
+            }
+            return;
+        }
+        Ray[] batch = new Ray[width];
+        double[] sample = new double[2];
+        for (int i = y0; i < y0 + height && !stopped(true, start, stop); i++) {
+            if (pass == 1) {
+                rays.rowRays(x0, i, width, batch);
+                for (int j = 0; j < width; j++)
+                    frame.set(x0 + j, i, rayTracer.traceRay(batch[j]));
+            } else {
+                for (int j = x0; j < x0 + width; j++) {
+                    PROGRESSIVE_SAMPLER.sample2D(sample, pass - 2, 1, Sampler.seed(j, i));
+                    frame.add(j, i, rayTracer.traceRay(constructRay(nX, nY, j, i, sample[0], sample[1])), 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a progressive rendering must stop, and marks it stopped
+     *
+     * @param budgeted Whether the time budget applies to the pass.
+     * @param start    The start time of the rendering in nanoseconds.
+     * @param stop     Set when the rendering is stopped.
+     * @return true if the rendering is stopped.
+     */
+    private boolean stopped(boolean budgeted, long start, AtomicBoolean stop) {
+        if (stop.get())
+            return true;
+        if (Thread.currentThread().isInterrupted()
+                || budgeted && timeBudget != null && System.nanoTime() - start >= timeBudget.toNanos())
+            stop.set(true);
+        return stop.get();
+    }
+
+    /**
+     * Waits for the tiles of a progressive pass. When the waiting thread is interrupted the rendering is
+     * stopped, the tiles are still waited for, so none writes into the image after the rendering returns,
+     * and the interrupt status is kept.
+     *
+     * @param tasks The tiles.
+     * @param stop  Set when the rendering is stopped.
+     * @throws IllegalStateException if a tile failed.
+     */
+    private static void awaitPass(List<Future<?>> tasks, AtomicBoolean stop) {
+        boolean interrupted = false;
+        try {
+            for (Future<?> task : tasks) {
+                while (true) {
+                    try {
+                        task.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        stop.set(true);
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Rendering failed", e.getCause());
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Renders the image band by band - a row of tiles at a time - into a reused frame buffer,
+     * and streams every band into the png file of the image writer, so the memory is bounded by a band.
+     * The tiles of a band are rendered on the pool of worker threads when multithreading is set.
+     */
+    private void renderBands() {
+        int nX = imageWriter.getNx();
+        int nY = imageWriter.getNy();
+        FrameBuffer band = new FrameBuffer(nX, Math.min(tileSize, nY));
+        ExecutorService pool = threadsCount == 0 ? null : newPool();
+        try (PngStreamWriter png = imageWriter.openStream(Math.max(1, threadsCount))) {
+            for (int y0 = 0; y0 < nY; y0 += tileSize) {
+                int bandY = y0;
+                int height = Math.min(tileSize, nY - y0);
+                if (pool == null)
+                    renderBandTile(band, 0, bandY, nX, height);
+                else {
+                    List<Future<?>> tasks = new LinkedList<>();
+                    for (int x0 = 0; x0 < nX; x0 += tileSize) {
+                        int tileX = x0;
+                        int width = Math.min(tileSize, nX - x0);
+                        tasks.add(pool.submit(() -> renderBandTile(band, tileX, bandY, width, height)));
+                    }
+                    awaitAll(tasks);
+                }
+                png.writeRows(band, height);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error while writing the image", e);
+        } finally {
+            if (pool != null)
+                pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Renders one tile of a band into the band's frame buffer
+     *
+     * @param band   The frame buffer of the band, its first row is the band's first row.
+     * @param x0     The x-coordinate of the tile's upper left pixel.
+     * @param y0     The y-coordinate of the tile's upper left pixel, the first row of the band.
+     * @param width  The width of the tile in pixels.
+     * @param height The height of the tile in pixels.
+     */
+    private void renderBandTile(FrameBuffer band, int x0, int y0, int width, int height) {
+        band.set(x0, 0, width, height, castTile(x0, y0, width, height));
+    }
+
+    /**
+     * Waits for rendering tasks to complete
+     *
+     * @param tasks the tasks
+     * @throws IllegalStateException if the rendering was interrupted or a task failed
+     */
+    private static void awaitAll(List<Future<?>> tasks) {
+        try {
+            for (Future<?> task : tasks)
+                task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rendering was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Rendering failed", e.getCause());
+        }
+    }
+
+    /**
+     * Renders one tile of the image and writes it into the image writer
+     *
+     * @param x0     The x-coordinate of the tile's upper left pixel.
+     * @param y0     The y-coordinate of the tile's upper left pixel.
+     * @param width  The width of the tile in pixels.
+     * @param height The height of the tile in pixels.
+     */
+    private void renderTile(int x0, int y0, int width, int height) {
+        imageWriter.writeTile(x0, y0, width, height, castTile(x0, y0, width, height));
+    }
+
+    /**
+     * Casts the rays of a tile of the image. The corners of the adaptive anti aliasing are cached for the
+     * tile alone, so the corners on its seams with the neighbour tiles are traced again by them - about
+     * (width + height) / (width * height) more corner rays in flat regions, 6% for tiles of 32x32 pixels.
+     *
+     * @param x0     The x-coordinate of the tile's upper left pixel.
+     * @param y0     The y-coordinate of the tile's upper left pixel.
+     * @param width  The width of the tile in pixels.
+     * @param height The height of the tile in pixels.
+     * @return The colors of the tile's pixels, row by row.
+     */
+    Color[] castTile(int x0, int y0, int width, int height) {
+        Color[] colors = new Color[width * height];
+        CornerCache corners = adaptiveDepth > 0 ? new CornerCache(x0, width) : null;
+        Ray[] batch = new Ray[width];
+        for (int i = 0; i < height; i++)
+            castRow(x0, y0 + i, width, batch, corners, colors, i * width);
+        return colors;
+    }
+
+    /**
+     * Casts the rays of consecutive pixels of a row. Without anti aliasing the rays through the
+     * pixel centers are generated at once into the batch, which is reused from row to row.
+     *
+     * @param x0      The x-coordinate of the first pixel.
+     * @param i       The y-coordinate of the row.
+     * @param width   The number of pixels.
+     * @param batch   The reused array of the rays, at least width long.
+     * @param corners The corner colors of the adaptive anti aliasing, shared by the pixels of a tile, null without it.
+     * @param colors  Receives the colors of the pixels.
+     * @param offset  The index of the first pixel's color in the colors array.
+     */
+    private void castRow(int x0, int i, int width, Ray[] batch, CornerCache corners, Color[] colors, int offset) {
+        if (adaptiveDepth > 0 || antiAliasingSamples > 1) {
+            for (int j = 0; j < width; j++)
+                colors[offset + j] = castRay(x0 + j, i, corners);
+            return;
+        }
+        rays.rowRays(x0, i, width, batch);
+        for (int j = 0; j < width; j++)
+            colors[offset + j] = rayTracer.traceRay(batch[j]);
+    }
+
     /*
      * printGrid creates a grid of lines
      * want to color the pixels where the grid appears in them, leave the other pixels alone
@@ -301,19 +970,212 @@ public class Camera implements Cloneable {
             throw new MissingResourceException("ImageWriter field cannot be null", Camera.class.getName(), "");
         }
         // delegates the appropriate method of the ImageWriter.
+        long start = System.nanoTime();
         imageWriter.writeToImage();
+        if (statistics != null)
+            statistics.addTime(RenderStatistics.Phase.WRITE, System.nanoTime() - start);
         return this;
     }
+
+    /**
+     * Submits the rendered image to be written as a high dynamic range file on a background thread.
+     * The image is copied, so the next frame may be rendered right away.
+     *
+     * @param writer the background writer of the file
+     * @param format the file format
+     * @return the completion of the writing, with the file
+     */
+    public Future<Path> writeToImage(HdrImageWriter writer, HdrImageWriter.Format format) {
+        if (imageWriter == null) {
+            throw new MissingResourceException("ImageWriter field cannot be null", Camera.class.getName(), "");
+        }
+        return imageWriter.writeToImage(writer, format);
+    }
     /**
 
      Casts a ray through a specified pixel and returns the color of the intersection point.
      @param j The x-coordinate of the pixel.
      @param i The y-coordinate of the pixel.
+     @param corners The corner colors of the adaptive anti aliasing, shared by the pixels of a tile, null without it.
      @return The color of the intersection point.
      */
-    private Color castRay(int j, int i) {
-        Ray ray = constructRay(this.imageWriter.getNx(),this.imageWriter.getNy(),j,i);
-        return this.rayTracer.traceRay(ray);
+    private Color castRay(int j, int i, CornerCache corners) {
+        if (adaptiveDepth > 0) {
+            corners.moveTo(j, i);
+            int size = 1 << adaptiveDepth;
+            return refine(corners, j * size, i * size, size);
+        }
+        int nX = imageWriter.getNx(), nY = imageWriter.getNy();
+        if (antiAliasingSamples == 1)
+            return rayTracer.traceRay(rays.pixelRay(j, i));
+        double[] samples = new double[2 * antiAliasingSamples];
+        sampler.sample2D(samples, antiAliasingSamples, Sampler.seed(j, i));
+        Color color = Color.BLACK;
+        for (int k = 0; k < antiAliasingSamples; ++k)
+            color = color.add(rayTracer.traceRay(constructRay(nX, nY, j, i, samples[2 * k], samples[2 * k + 1])));
+        return color.reduce(antiAliasingSamples);
+    }
+
+    /**
+     * Finds the color of a square area of a pixel by the adaptive anti aliasing - the mean of its corners
+     * when they agree, otherwise the mean of its 4 quarters.
+     *
+     * @param corners The corner colors.
+     * @param a       The horizontal corner lattice index of the upper left corner of the area.
+     * @param b       The vertical corner lattice index of the upper left corner of the area.
+     * @param size    The size of the area in lattice steps.
+     * @return The color of the area.
+     */
+    private Color refine(CornerCache corners, int a, int b, int size) {
+        Color c00 = corners.at(a, b), c10 = corners.at(a + size, b);
+        Color c01 = corners.at(a, b + size), c11 = corners.at(a + size, b + size);
+        Color mean = c00.add(c10, c01, c11).reduce(4);
+        if (size == 1 || agree(mean, c00) && agree(mean, c10) && agree(mean, c01) && agree(mean, c11))
+            return mean;
+        if (statistics != null)
+            statistics.increment(RenderStatistics.Counter.ADAPTIVE_REFINEMENTS);
+        int half = size / 2;
+        return refine(corners, a, b, half).add(refine(corners, a + half, b, half),
+                refine(corners, a, b + half, half), refine(corners, a + half, b + half, half)).reduce(4);
+    }
+
+    /**
+     * Checks whether a corner color is close to the mean of the corners of an area.
+     *
+     * @param mean  The mean color.
+     * @param color The corner color.
+     * @return true if no component differs from the mean by more than the threshold.
+     */
+    private boolean agree(Color mean, Color color) {
+        Double3 m = mean.getRgb(), c = color.getRgb();
+        return Math.abs(m.d1 - c.d1) <= adaptiveThreshold && Math.abs(m.d2 - c.d2) <= adaptiveThreshold
+                && Math.abs(m.d3 - c.d3) <= adaptiveThreshold;
+    }
+
+    /**
+     * The colors at the points of the corner lattice of the adaptive anti aliasing, each traced once.
+     * The lattice has 2^depth steps along a pixel, and its indices are global, so a color doesn't depend
+     * on the tile it is traced for. A cache serves the pixels of a tile, requested row by row from left
+     * to right: it keeps the lattice rows on the top and the bottom edges of the current pixel row, the
+     * lattice columns on the left and the right edges of the current pixel, and the inside of the current
+     * pixel. The edges are handed on to the next pixel and the next row, so the corners shared by
+     * neighbour pixels are traced once. The seams of neighbour tiles are traced by both tiles.
+     */
+    private final class CornerCache {
+        /** The number of lattice steps along a pixel */
+        private final int size = 1 << adaptiveDepth;
+        /** The horizontal lattice index of the left edge of the first pixel of the tile */
+        private final int first;
+        /** The colors of the lattice rows on the top and the bottom edges of the pixel row, from first */
+        private Color[] top, bottom;
+        /** The colors of the lattice columns on the left and the right edges of the pixel, from its top */
+        private Color[] left, right;
+        /** The colors inside the pixel, row by row, valid where their stamp is the stamp of the pixel */
+        private final Color[] inner;
+        /** The stamps of the pixels the colors inside the pixel were traced for */
+        private final int[] stamps;
+        /** The stamp of the current pixel */
+        private int stamp = 0;
+        /** The current pixel row */
+        private int row = -1;
+        /** The current pixel column */
+        private int column = -1;
+
+        /**
+         * Constructs an empty cache for the pixels of a tile
+         *
+         * @param x0    The x-coordinate of the first pixel of the rows.
+         * @param width The number of pixels in a row.
+         */
+        CornerCache(int x0, int width) {
+            first = x0 * size;
+            top = new Color[width * size + 1];
+            bottom = new Color[width * size + 1];
+            left = new Color[size + 1];
+            right = new Color[size + 1];
+            inner = new Color[(size - 1) * (size - 1)];
+            stamps = new int[inner.length];
+        }
+
+        /**
+         * Prepares for a pixel, handing on the edges it shares with the previous pixel
+         *
+         * @param j The pixel column.
+         * @param i The pixel row.
+         */
+        void moveTo(int j, int i) {
+            if (i != row) {
+                Color[] edge = top;
+                top = bottom;
+                bottom = edge;
+                Arrays.fill(bottom, null);
+                if (i != row + 1)
+                    Arrays.fill(top, null);
+                Arrays.fill(right, null);
+                row = i;
+                column = -1;
+            }
+            if (j != column) {
+                Color[] edge = left;
+                left = right;
+                right = edge;
+                Arrays.fill(right, null);
+                if (j != column + 1)
+                    Arrays.fill(left, null);
+                if (++stamp == 0) {
+                    Arrays.fill(stamps, 0);
+                    stamp = 1;
+                }
+                column = j;
+            }
+        }
+
+        /**
+         * Finds the color at a lattice point of the current pixel, tracing it on the first request
+         *
+         * @param a The horizontal lattice index.
+         * @param b The vertical lattice index.
+         * @return The color.
+         */
+        Color at(int a, int b) {
+            int u = a - column * size, v = b - row * size;
+            Color[] colors;
+            int index;
+            if (v == 0 || v == size) {
+                colors = v == 0 ? top : bottom;
+                index = a - first;
+            } else if (u == 0 || u == size) {
+                colors = u == 0 ? left : right;
+                index = v;
+            } else {
+                index = (v - 1) * (size - 1) + u - 1;
+                if (stamps[index] != stamp) {
+                    inner[index] = trace(a, b);
+                    stamps[index] = stamp;
+                }
+                return inner[index];
+            }
+            Color color = colors[index];
+            if (color == null)
+                colors[index] = color = trace(a, b);
+            return color;
+        }
+
+        /**
+         * Traces the ray through a lattice point
+         *
+         * @param a The horizontal lattice index.
+         * @param b The vertical lattice index.
+         * @return The color.
+         */
+        private Color trace(int a, int b) {
+            int nX = imageWriter.getNx(), nY = imageWriter.getNy();
+            // the last lattice line of the image is the far edge of the last pixel
+            int j = Math.min(a >> adaptiveDepth, nX - 1), i = Math.min(b >> adaptiveDepth, nY - 1);
+            double u = (double) (a - (j << adaptiveDepth)) / (1 << adaptiveDepth);
+            double v = (double) (b - (i << adaptiveDepth)) / (1 << adaptiveDepth);
+            return rayTracer.traceRay(constructRay(nX, nY, j, i, u, v));
+        }
     }
 
 
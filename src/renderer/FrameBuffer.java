@@ -0,0 +1,281 @@
+package renderer;
+
+import primitives.Color;
+import primitives.Double3;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * High dynamic range frame buffer - the accumulated colors of the pixels of an image as float RGB
+ * triads, with the total weight of the samples of every pixel. A pixel may get any number of samples,
+ * and its color is their weighted average. Colors are kept without the 255 limit, and are converted to
+ * 8 bits only once, when the image is produced.
+ * <p>
+ * The buffer is not synchronized. Rendering threads that write disjoint pixels - e.g. each its own
+ * tile - don't need to lock it, as long as the buffer is read only after they are joined.
+ *
+ * @author Ayelet and Gili
+ */
+public class FrameBuffer {
+    /** The maximal number of pixels - 3 float components per pixel must fit in a Java array, which keeps
+     * the indices of the components in int range as well */
+    private static final long MAX_PIXELS = (Integer.MAX_VALUE - 8) / 3;
+
+    /** Horizontal resolution - number of pixels in row */
+    private final int nX;
+    /** Vertical resolution - number of pixels in column */
+    private final int nY;
+    /** Accumulated weighted color of every pixel, 3 components per pixel row by row */
+    private final float[] colors;
+    /** Total weight of the samples of every pixel */
+    private final float[] weights;
+
+    /**
+     * Constructs a black frame buffer with no samples
+     *
+     * @param nX number of pixels in row
+     * @param nY number of pixels in column
+     * @throws IllegalArgumentException if a resolution is not positive, or the image has too many pixels
+     *                                  for a buffer - such an image is rendered by a streaming
+     *                                  {@link ImageWriter}, see {@link ImageWriter#openStream(int)}
+     */
+    public FrameBuffer(int nX, int nY) {
+        if (nX < 1 || nY < 1)
+            throw new IllegalArgumentException("Frame buffer resolution must be positive");
+        if ((long) nX * nY > MAX_PIXELS)
+            throw new IllegalArgumentException("An image of " + nX + "x" + nY + " pixels is too big for a frame "
+                    + "buffer - render it with a streaming image writer");
+        this.nX = nX;
+        this.nY = nY;
+        this.colors = new float[3 * nX * nY];
+        this.weights = new float[nX * nY];
+    }
+
+    /**
+     * @return the amount of horizontal pixels
+     */
+    public int getNx() { return nX; }
+
+    /**
+     * @return the amount of vertical pixels
+     */
+    public int getNy() { return nY; }
+
+    /**
+     * Replaces all the samples of a pixel by a single color
+     *
+     * @param x     X axis index of the pixel
+     * @param y     Y axis index of the pixel
+     * @param color the color of the pixel
+     */
+    public void set(int x, int y, Color color) {
+        int index = y * nX + x;
+        Double3 rgb = color.getRgb();
+        colors[3 * index] = (float) rgb.d1;
+        colors[3 * index + 1] = (float) rgb.d2;
+        colors[3 * index + 2] = (float) rgb.d3;
+        weights[index] = 1;
+    }
+
+    /**
+     * Adds a sample to a pixel
+     *
+     * @param x      X axis index of the pixel
+     * @param y      Y axis index of the pixel
+     * @param color  the color of the sample
+     * @param weight the weight of the sample
+     */
+    public void add(int x, int y, Color color, double weight) {
+        int index = y * nX + x;
+        Double3 rgb = color.getRgb();
+        colors[3 * index] += (float) (rgb.d1 * weight);
+        colors[3 * index + 1] += (float) (rgb.d2 * weight);
+        colors[3 * index + 2] += (float) (rgb.d3 * weight);
+        weights[index] += (float) weight;
+    }
+
+    /**
+     * Replaces the samples of a rectangular block of pixels by their colors
+     *
+     * @param x0     X axis index of the upper left pixel of the block
+     * @param y0     Y axis index of the upper left pixel of the block
+     * @param width  width of the block
+     * @param height height of the block
+     * @param tile   the colors of the block's pixels, row by row
+     */
+    public void set(int x0, int y0, int width, int height, Color[] tile) {
+        for (int i = 0; i < height; i++)
+            for (int j = 0; j < width; j++)
+                set(x0 + j, y0 + i, tile[i * width + j]);
+    }
+
+    /**
+     * Finds the total weight of the samples of a pixel
+     *
+     * @param x X axis index of the pixel
+     * @param y Y axis index of the pixel
+     * @return the total weight, 0 for a pixel with no samples
+     */
+    public double getWeight(int x, int y) {
+        return weights[y * nX + x];
+    }
+
+    /**
+     * Finds the color of a pixel - the weighted average of its samples
+     *
+     * @param x X axis index of the pixel
+     * @param y Y axis index of the pixel
+     * @return the color, black for a pixel with no samples
+     */
+    public Color getColor(int x, int y) {
+        int index = y * nX + x;
+        float weight = weights[index];
+        if (weight <= 0)
+            return Color.BLACK;
+        return new Color(colors[3 * index] / weight, colors[3 * index + 1] / weight, colors[3 * index + 2] / weight);
+    }
+
+    /**
+     * Converts the buffer into an 8 bit RGB image, any component bigger than 255 is set to 255
+     *
+     * @return the image
+     */
+    public BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+        int[] row = new int[nX];
+        for (int y = 0; y < nY; y++) {
+            for (int x = 0; x < nX; x++)
+                row[x] = getRGB(x, y);
+            image.setRGB(0, y, nX, 1, row, 0, nX);
+        }
+        return image;
+    }
+
+    /**
+     * Converts the color of a pixel into 8 bits per component, any component bigger than 255 is set to 255
+     *
+     * @param x X axis index of the pixel
+     * @param y Y axis index of the pixel
+     * @return the color packed as 0xRRGGBB
+     */
+    public int getRGB(int x, int y) {
+        int index = y * nX + x;
+        float weight = weights[index];
+        return weight <= 0 ? 0
+                : toByte(colors[3 * index] / weight) << 16
+                | toByte(colors[3 * index + 1] / weight) << 8
+                | toByte(colors[3 * index + 2] / weight);
+    }
+
+    /**
+     * Finds the colors of a row of pixels - the weighted averages of their samples
+     *
+     * @param y   Y axis index of the row
+     * @param rgb receives the colors, 3 components per pixel
+     */
+    void getRow(int y, float[] rgb) {
+        for (int x = 0, index = y * nX; x < nX; ++x, ++index) {
+            float weight = weights[index];
+            float scale = weight <= 0 ? 0 : 1 / weight;
+            rgb[3 * x] = colors[3 * index] * scale;
+            rgb[3 * x + 1] = colors[3 * index + 1] * scale;
+            rgb[3 * x + 2] = colors[3 * index + 2] * scale;
+        }
+    }
+
+    /**
+     * Checks whether every pixel of a block has a single sample of weight 1, as set by {@link #set}
+     *
+     * @param x0     X axis index of the upper left pixel of the block
+     * @param y0     Y axis index of the upper left pixel of the block
+     * @param width  width of the block
+     * @param height height of the block
+     * @return true if all the weights of the block are 1
+     */
+    boolean isUnitWeight(int x0, int y0, int width, int height) {
+        for (int y = y0; y < y0 + height; ++y)
+            for (int index = y * nX + x0; index < y * nX + x0 + width; ++index)
+                if (weights[index] != 1)
+                    return false;
+        return true;
+    }
+
+    /**
+     * Puts the accumulated colors of a block into a buffer, and optionally their weights, as floats
+     *
+     * @param x0      X axis index of the upper left pixel of the block
+     * @param y0      Y axis index of the upper left pixel of the block
+     * @param width   width of the block
+     * @param height  height of the block
+     * @param weights whether the weights are put after the colors
+     * @param out     receives 3 floats per pixel row by row, and then a float per pixel
+     */
+    void save(int x0, int y0, int width, int height, boolean weights, ByteBuffer out) {
+        for (int y = y0; y < y0 + height; ++y) {
+            out.asFloatBuffer().put(colors, 3 * (y * nX + x0), 3 * width);
+            out.position(out.position() + 12 * width);
+        }
+        if (weights)
+            for (int y = y0; y < y0 + height; ++y) {
+                out.asFloatBuffer().put(this.weights, y * nX + x0, width);
+                out.position(out.position() + 4 * width);
+            }
+    }
+
+    /**
+     * Replaces the samples of a block by accumulated colors and weights saved by
+     * {@link #save(int, int, int, int, boolean, ByteBuffer)}
+     *
+     * @param x0      X axis index of the upper left pixel of the block
+     * @param y0      Y axis index of the upper left pixel of the block
+     * @param width   width of the block
+     * @param height  height of the block
+     * @param weights whether the buffer has the weights, otherwise they are 1
+     * @param in      the saved colors and weights
+     */
+    void load(int x0, int y0, int width, int height, boolean weights, ByteBuffer in) {
+        for (int y = y0; y < y0 + height; ++y) {
+            in.asFloatBuffer().get(colors, 3 * (y * nX + x0), 3 * width);
+            in.position(in.position() + 12 * width);
+        }
+        for (int y = y0; y < y0 + height; ++y)
+            if (weights) {
+                in.asFloatBuffer().get(this.weights, y * nX + x0, width);
+                in.position(in.position() + 4 * width);
+            } else
+                Arrays.fill(this.weights, y * nX + x0, y * nX + x0 + width, 1);
+    }
+
+    /**
+     * Copies the buffer, e.g. to write the copy while the next frame is rendered into the buffer
+     *
+     * @return the copy
+     */
+    public FrameBuffer copy() {
+        FrameBuffer copy = new FrameBuffer(nX, nY);
+        System.arraycopy(colors, 0, copy.colors, 0, colors.length);
+        System.arraycopy(weights, 0, copy.weights, 0, weights.length);
+        return copy;
+    }
+
+    /**
+     * Removes all the samples, so the buffer can be reused
+     */
+    public void clear() {
+        Arrays.fill(colors, 0);
+        Arrays.fill(weights, 0);
+    }
+
+    /**
+     * Truncates a color component into 8 bits
+     *
+     * @param component the component
+     * @return the component in [0,255]
+     */
+    private static int toByte(float component) {
+        int value = (int) component;
+        return value > 255 ? 255 : Math.max(value, 0);
+    }
+}
@@ -0,0 +1,244 @@
+package renderer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writer of high dynamic range image files on a background thread. The colors of a frame buffer are
+ * written as floats, without the 255 limit of the 8 bit images, so the exposure can be changed later
+ * without rendering again. A color component of 255 is written as 1.
+ * <p>
+ * The frame is copied when it is submitted, and then encoded and written through a file channel on the
+ * writer thread, so the caller never waits for the disk and may render the next frame into the same
+ * buffer right away. The frames are written one by one in their submission order. A file is written
+ * under a temporary name and then moved into place, so it never appears partially written.
+ *
+ * @author Ayelet and Gili
+ */
+public class HdrImageWriter implements AutoCloseable {
+    /** The value of a color component that is written as 1 */
+    private static final float WHITE = 255;
+    /** Minimal scan line width of the run length encoding of the Radiance format */
+    private static final int MIN_RLE_WIDTH = 8;
+    /** Maximal scan line width of the run length encoding of the Radiance format */
+    private static final int MAX_RLE_WIDTH = 0x7FFF;
+
+    /**
+     * The high dynamic range file formats
+     */
+    public enum Format {
+        /** Portable float map - 32 bit float RGB, little endian, rows bottom to top */
+        PFM("pfm"),
+        /** Radiance RGBE - 8 bit mantissas with a shared exponent, run length encoded */
+        RADIANCE("hdr");
+
+        /** The file extension of the format */
+        private final String extension;
+
+        /**
+         * @param extension the file extension
+         */
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * @return the file extension of the format, without the dot
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /** The writer thread */
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "hdr-image-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Submits a frame for writing
+     *
+     * @param frame  the frame buffer, copied before the method returns
+     * @param file   the file
+     * @param format the file format
+     * @return the completion of the writing, with the file
+     * @throws java.util.concurrent.RejectedExecutionException if the writer is closed
+     */
+    public Future<Path> write(FrameBuffer frame, Path file, Format format) {
+        FrameBuffer copy = frame.copy();
+        return writer.submit(() -> {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (format == Format.PFM)
+                    writePfm(copy, channel);
+                else
+                    writeRadiance(copy, channel);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return file;
+        });
+    }
+
+    /**
+     * Waits for the submitted frames to be written and stops the writer thread. If interrupted while
+     * waiting, it returns with the interrupt status set, and the frames are still written in the background
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes a frame in the portable float map format
+     *
+     * @param frame   the frame
+     * @param channel the file
+     * @throws IOException if the file can't be written
+     */
+    private static void writePfm(FrameBuffer frame, FileChannel channel) throws IOException {
+        int nX = frame.getNx(), nY = frame.getNy();
+        // a negative scale declares little endian floats
+        write(channel, ByteBuffer.wrap(("PF\n" + nX + " " + nY + "\n-1.0\n").getBytes(StandardCharsets.US_ASCII)));
+        float[] rgb = new float[3 * nX];
+        ByteBuffer row = ByteBuffer.allocate(12 * nX).order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = nY - 1; y >= 0; --y) {
+            frame.getRow(y, rgb);
+            row.clear();
+            for (float component : rgb)
+                row.putFloat(component / WHITE);
+            write(channel, row.flip());
+        }
+    }
+
+    /**
+     * Writes a frame in the Radiance RGBE format, with the run length encoding of the scan lines
+     *
+     * @param frame   the frame
+     * @param channel the file
+     * @throws IOException if the file can't be written
+     */
+    private static void writeRadiance(FrameBuffer frame, FileChannel channel) throws IOException {
+        int nX = frame.getNx(), nY = frame.getNy();
+        String header = "#?RADIANCE\nFORMAT=32-bit_rle_rgbe\n\n-Y " + nY + " +X " + nX + "\n";
+        write(channel, ByteBuffer.wrap(header.getBytes(StandardCharsets.US_ASCII)));
+        boolean encoded = nX >= MIN_RLE_WIDTH && nX <= MAX_RLE_WIDTH;
+        float[] rgb = new float[3 * nX];
+        byte[] rgbe = new byte[4 * nX];
+        // a run length encoded line takes at most 4 + 4 * (nX + nX / 128 + 1) bytes
+        ByteBuffer line = ByteBuffer.allocate(8 + 4 * (nX + nX / 128 + 1));
+        for (int y = 0; y < nY; ++y) {
+            frame.getRow(y, rgb);
+            for (int x = 0; x < nX; ++x)
+                toRgbe(rgb[3 * x] / WHITE, rgb[3 * x + 1] / WHITE, rgb[3 * x + 2] / WHITE, rgbe, 4 * x);
+            line.clear();
+            if (encoded) {
+                line.put((byte) 2).put((byte) 2).put((byte) (nX >> 8)).put((byte) nX);
+                for (int component = 0; component < 4; ++component)
+                    encodeRuns(rgbe, component, nX, line);
+            } else {
+                line.put(rgbe);
+            }
+            write(channel, line.flip());
+        }
+    }
+
+    /**
+     * Converts a color into a shared exponent and 8 bit mantissas
+     *
+     * @param r      red component
+     * @param g      green component
+     * @param b      blue component
+     * @param rgbe   receives the mantissas and the exponent
+     * @param offset the index of the first byte in the array
+     */
+    private static void toRgbe(float r, float g, float b, byte[] rgbe, int offset) {
+        float max = Math.max(r, Math.max(g, b));
+        if (max < 1e-32f) {
+            rgbe[offset] = rgbe[offset + 1] = rgbe[offset + 2] = rgbe[offset + 3] = 0;
+            return;
+        }
+        // max = m * 2^e with m in [0.5,1)
+        int exponent = Math.getExponent(max) + 1;
+        float scale = Math.scalb(256f, -exponent);
+        rgbe[offset] = (byte) (int) (r * scale);
+        rgbe[offset + 1] = (byte) (int) (g * scale);
+        rgbe[offset + 2] = (byte) (int) (b * scale);
+        rgbe[offset + 3] = (byte) (exponent + 128);
+    }
+
+    /**
+     * Encodes one component of a scan line by runs - a run of 3 to 127 equal bytes is written as its
+     * length plus 128 and the byte, and the other bytes as literal dumps of up to 128 bytes after their
+     * count
+     *
+     * @param rgbe      the scan line, 4 bytes per pixel
+     * @param component the index of the component in a pixel
+     * @param width     the number of pixels
+     * @param out       receives the encoded component
+     */
+    private static void encodeRuns(byte[] rgbe, int component, int width, ByteBuffer out) {
+        int current = 0;
+        while (current < width) {
+            // find the next run of at least 4 equal bytes
+            int runStart = current, runLength = 0, previousLength = 0;
+            while (runLength < 4 && runStart < width) {
+                runStart += runLength;
+                previousLength = runLength;
+                runLength = 1;
+                while (runStart + runLength < width && runLength < 127
+                        && rgbe[4 * runStart + component] == rgbe[4 * (runStart + runLength) + component])
+                    ++runLength;
+            }
+            // a short run right before the long one is written as a run too
+            if (previousLength > 1 && previousLength == runStart - current) {
+                out.put((byte) (128 + previousLength)).put(rgbe[4 * current + component]);
+                current = runStart;
+            }
+            while (current < runStart) {
+                int dump = Math.min(128, runStart - current);
+                out.put((byte) dump);
+                for (int k = 0; k < dump; ++k)
+                    out.put(rgbe[4 * (current + k) + component]);
+                current += dump;
+            }
+            if (runLength >= 4) {
+                out.put((byte) (128 + runLength)).put(rgbe[4 * runStart + component]);
+                current += runLength;
+            }
+        }
+    }
+
+    /**
+     * Writes a buffer completely
+     *
+     * @param channel the file
+     * @param buffer  the buffer
+     * @throws IOException if the file can't be written
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+}
@@ -3,6 +3,8 @@ package renderer;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,7 +15,8 @@ import primitives.Color;
 /** Image writer class combines accumulation of pixel color matrix and finally
  * producing a non-optimized jpeg image from this matrix. The class although is
  * responsible of holding image related parameters of View Plane - pixel matrix
- * size and resolution
+ * size and resolution. The colors are accumulated in a float {@link FrameBuffer}
+ * and converted to 8 bits only when the image is written
  * @author Dan */
 public class ImageWriter {
     /** Horizontal resolution of the image - number of pixels in row */
@@ -25,8 +28,13 @@ public class ImageWriter {
      * directory */
     private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
 
-    /** Image generation buffer (the matrix of the pixels) */
-    private BufferedImage       image;
+    /** Image generation buffer (the matrix of the pixels), allocated on its first
+     * use, so a writer whose camera only renders tiles for others holds no pixels.
+     * Always null when streaming */
+    private volatile FrameBuffer frameBuffer = null;
+    /** whether the image is encoded band by band while it is rendered, instead of
+     * being held in memory */
+    private final boolean       streaming;
     /** image file name, not including the file extension '.png' */
     private String              imageName;
     /** logger for reporting I/O failures */
@@ -38,11 +46,22 @@ public class ImageWriter {
      * @param nX        amount of pixels by Width
      * @param nY        amount of pixels by height */
     public ImageWriter(String imageName, int nX, int nY) {
+        this(imageName, nX, nY, false);
+    }
+
+    /** Image Writer constructor accepting image name, View Plane parameters and the
+     * output mode. A streaming writer holds no pixels - the camera renders the image
+     * in bands of rows and encodes each band into the png file as soon as it is
+     * done, so images too big for the memory can be rendered
+     * @param imageName the name of png file
+     * @param nX        amount of pixels by Width
+     * @param nY        amount of pixels by height
+     * @param streaming whether the image is encoded while it is rendered */
+    public ImageWriter(String imageName, int nX, int nY, boolean streaming) {
         this.imageName = imageName;
         this.nX        = nX;
         this.nY        = nY;
-
-        image          = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+        this.streaming = streaming;
     }
 
     // ***************** Getters/Setters ********************** //
@@ -54,28 +73,105 @@ public class ImageWriter {
      * @return the amount of horizontal pixels */
     public int getNx() { return nX; }
 
+    /** The buffer the pixel colors are accumulated in
+     * @return the frame buffer, null for a streaming writer */
+    public FrameBuffer getFrameBuffer() { return streaming ? null : buffer(); }
+
+    /** Output mode
+     * @return true if the image is encoded while it is rendered */
+    public boolean isStreaming() { return streaming; }
+
     // ***************** Operations ******************** //
 
     /** Function writeToImage produces unoptimized png file of the image according
      * to
-     * pixel color matrix in the directory of the project */
+     * pixel color matrix in the directory of the project. A streaming writer has
+     * nothing to do, its file is completed with the rendering */
     public void writeToImage() {
+        if (streaming) return;
         try {
             File file = new File(FOLDER_PATH + '/' + imageName + ".png");
-            ImageIO.write(image, "png", file);
+            ImageIO.write(getImage(), "png", file);
         } catch (IOException e) {
             logger.log(Level.SEVERE, "I/O error", e);
             throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
         }
     }
 
+    /** Function writeToImage submits the float pixel color matrix to be written as
+     * a high dynamic range file in the directory of the project. The matrix is
+     * copied, so the next image may be rendered while the file is written
+     * @param  writer the background writer of the file
+     * @param  format the file format
+     * @return        the completion of the writing, with the file */
+    public Future<Path> writeToImage(HdrImageWriter writer, HdrImageWriter.Format format) {
+        return writer.write(buffer(), Path.of(FOLDER_PATH, imageName + '.' + format.getExtension()), format);
+    }
+
     /** The function writePixel writes a color of a specific pixel into pixel color
      * matrix
      * @param xIndex X axis index of the pixel
      * @param yIndex Y axis index of the pixel
      * @param color  final color of the pixel */
     public void writePixel(int xIndex, int yIndex, Color color) {
-        image.setRGB(xIndex, yIndex, color.getColor().getRGB());
+        buffer().set(xIndex, yIndex, color);
+    }
+
+    /** The function addSample accumulates a weighted sample of a specific pixel,
+     * the pixel color is the weighted average of its samples
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @param color  color of the sample
+     * @param weight weight of the sample */
+    public void addSample(int xIndex, int yIndex, Color color, double weight) {
+        buffer().add(xIndex, yIndex, color, weight);
+    }
+
+    /** The function writeTile writes the colors of a rectangular block of pixels
+     * into pixel color matrix. It may be called concurrently by several rendering
+     * threads without locking, as long as their blocks don't overlap
+     * @param xIndex X axis index of the upper left pixel of the block
+     * @param yIndex Y axis index of the upper left pixel of the block
+     * @param width  width of the block
+     * @param height height of the block
+     * @param colors final colors of the block's pixels, row by row */
+    public void writeTile(int xIndex, int yIndex, int width, int height, Color[] colors) {
+        buffer().set(xIndex, yIndex, width, height, colors);
+    }
+
+    /** Converts the accumulated colors into an 8 bit image
+     * @return the image */
+    BufferedImage getImage() {
+        return buffer().toImage();
+    }
+
+    /** Opens the png file of a streaming writer for the rendered bands
+     * @param  threads number of compression threads
+     * @return         the stream of the png file */
+    PngStreamWriter openStream(int threads) {
+        try {
+            return new PngStreamWriter(Path.of(FOLDER_PATH, imageName + ".png"), nX, nY, threads);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
+        }
+    }
+
+    /** Finds the buffer of the pixels, allocating it on the first use
+     * @return the frame buffer
+     * @throws UnsupportedOperationException for a streaming writer */
+    private FrameBuffer buffer() {
+        if (streaming)
+            throw new UnsupportedOperationException("A streaming image writer holds no pixels");
+        FrameBuffer buffer = frameBuffer;
+        if (buffer == null) {
+            synchronized (this) {
+                buffer = frameBuffer;
+                if (buffer == null)
+                    frameBuffer = buffer = new FrameBuffer(nX, nY);
+            }
+        }
+        return buffer;
     }
 
 }
@@ -0,0 +1,20 @@
+package renderer;
+
+/**
+ * Receiver of the snapshots of a progressive rendering (see {@link Camera.Builder#setProgressive(int)}).
+ * It is called on the rendering thread after every completed pass, while no pass is running, so the frame
+ * buffer is consistent during the call. A snapshot that is kept must be copied, since the next pass
+ * refines the same buffer.
+ *
+ * @author Ayelet and Gili
+ */
+@FunctionalInterface
+public interface PassListener {
+    /**
+     * Receives the image after a pass
+     *
+     * @param pass  the number of samples per pixel so far, 0 after the low resolution preview pass
+     * @param frame the frame buffer of the image
+     */
+    void passCompleted(int pass, FrameBuffer frame);
+}
@@ -0,0 +1,244 @@
+package renderer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writer of a PNG file that is encoded while the image is rendered - the rows are written band after
+ * band, top to bottom, so the whole image is never held in memory. Every band is compressed on a pool of
+ * background threads into an independent piece of the deflate stream, ended by a sync flush on a byte
+ * boundary, and primed with the end of the previous band as a dictionary so the compression hardly
+ * suffers. The pieces are written in order as IDAT chunks, and only a few bands are in flight at a time,
+ * so the memory is bounded by the band size.
+ *
+ * @author Ayelet and Gili
+ */
+public class PngStreamWriter implements Closeable {
+    /** The PNG file signature */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    /** The size of the deflate window, and of the dictionary taken from the previous band */
+    private static final int WINDOW = 32 * 1024;
+    /** Filter type of every row - the difference from the left pixel */
+    private static final byte FILTER_SUB = 1;
+    /** Bytes per pixel - 8 bit RGB */
+    private static final int PIXEL_BYTES = 3;
+
+    /** Width of the image in pixels */
+    private final int width;
+    /** Height of the image in pixels */
+    private final int height;
+    /** The file */
+    private final FileChannel channel;
+    /** The compression threads */
+    private final ExecutorService pool;
+    /** The maximal number of bands compressed at a time */
+    private final int maxPending;
+    /** The bands being compressed, in the image order */
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    /** Checksum of the uncompressed stream */
+    private final Adler32 adler = new Adler32();
+    /** The end of the last band, the dictionary of the next one */
+    private byte[] dictionary = null;
+    /** The number of rows written so far */
+    private int rows = 0;
+
+    /**
+     * Creates the file and writes the PNG header
+     *
+     * @param file    the file
+     * @param width   width of the image in pixels
+     * @param height  height of the image in pixels
+     * @param threads number of compression threads
+     * @throws IOException              if the file can't be written
+     * @throws IllegalArgumentException if the size or the number of threads is not positive
+     */
+    public PngStreamWriter(Path file, int width, int height, int threads) throws IOException {
+        if (width < 1 || height < 1)
+            throw new IllegalArgumentException("Image size must be positive");
+        if (threads < 1)
+            throw new IllegalArgumentException("Number of compression threads must be positive");
+        this.width = width;
+        this.height = height;
+        this.maxPending = 2 * threads;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "png-deflate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            write(ByteBuffer.wrap(SIGNATURE));
+            ByteBuffer header = ByteBuffer.allocate(13);
+            // 8 bit RGB, deflate, adaptive filtering, no interlace
+            header.putInt(width).putInt(height).put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+            writeChunk("IHDR", header.array(), header.position());
+            // the zlib header of the deflate stream - 32K window, default compression
+            writeChunk("IDAT", new byte[]{0x78, (byte) 0x9C}, 2);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of rows written so far
+     */
+    public int getRowsWritten() {
+        return rows;
+    }
+
+    /**
+     * Writes the next rows of the image. After the last row the file is completed
+     *
+     * @param band  the frame buffer of the rows, as wide as the image
+     * @param count the number of rows to take from the top of the buffer
+     * @throws IOException              if the file can't be written
+     * @throws IllegalArgumentException if the buffer doesn't fit the image or the rows are beyond its bottom
+     */
+    public void writeRows(FrameBuffer band, int count) throws IOException {
+        if (band.getNx() != width)
+            throw new IllegalArgumentException("Band width differs from the image width");
+        if (count < 1 || count > band.getNy() || rows + count > height)
+            throw new IllegalArgumentException("Wrong number of rows");
+
+        int stride = 1 + PIXEL_BYTES * width;
+        byte[] raw = new byte[count * stride];
+        for (int y = 0, offset = 0; y < count; ++y, offset += stride) {
+            raw[offset] = FILTER_SUB;
+            int left = 0;
+            for (int x = 0; x < width; ++x) {
+                int rgb = band.getRGB(x, y);
+                int at = offset + 1 + PIXEL_BYTES * x;
+                raw[at] = (byte) ((rgb >> 16) - (left >> 16));
+                raw[at + 1] = (byte) ((rgb >> 8) - (left >> 8));
+                raw[at + 2] = (byte) (rgb - left);
+                left = rgb;
+            }
+        }
+        adler.update(raw);
+
+        rows += count;
+        boolean last = rows == height;
+        byte[] previous = dictionary;
+        dictionary = last ? null : Arrays.copyOfRange(raw, Math.max(0, raw.length - WINDOW), raw.length);
+        pending.add(pool.submit(() -> deflate(raw, previous, last)));
+
+        while (pending.size() > maxPending || last && !pending.isEmpty())
+            writeNextBand();
+        if (last) {
+            ByteBuffer checksum = ByteBuffer.allocate(4).putInt((int) adler.getValue());
+            writeChunk("IDAT", checksum.array(), 4);
+            writeChunk("IEND", new byte[0], 0);
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Closes the file. A file closed before its last row is not a valid PNG
+     *
+     * @throws IOException if the file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        pool.shutdownNow();
+        channel.close();
+    }
+
+    /**
+     * Waits for the compression of the oldest band and writes it
+     *
+     * @throws IOException if the file can't be written
+     */
+    private void writeNextBand() throws IOException {
+        try {
+            byte[] compressed = pending.removeFirst().get();
+            writeChunk("IDAT", compressed, compressed.length);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("PNG compression was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("PNG compression failed", e.getCause());
+        }
+    }
+
+    /**
+     * Compresses a band into a piece of the deflate stream
+     *
+     * @param raw        the filtered rows
+     * @param dictionary the end of the previous band, null for the first band
+     * @param last       whether it is the last band, which ends the stream
+     * @return the compressed band
+     */
+    private static byte[] deflate(byte[] raw, byte[] dictionary, boolean last) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            if (dictionary != null)
+                deflater.setDictionary(dictionary);
+            deflater.setInput(raw);
+            if (last)
+                deflater.finish();
+            byte[] out = new byte[raw.length / 2 + 64];
+            int length = 0;
+            while (true) {
+                if (length == out.length)
+                    out = Arrays.copyOf(out, 2 * out.length);
+                int written = deflater.deflate(out, length, out.length - length,
+                        last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                length += written;
+                // the piece is complete when the output buffer wasn't filled up
+                if (last ? deflater.finished() : length < out.length)
+                    break;
+            }
+            return Arrays.copyOf(out, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Writes a chunk - its length, type, data and CRC
+     *
+     * @param type   the chunk type
+     * @param data   the chunk data
+     * @param length the length of the data
+     * @throws IOException if the file can't be written
+     */
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(data, 0, length);
+        ByteBuffer head = ByteBuffer.allocate(8).putInt(length).put(name).flip();
+        ByteBuffer tail = ByteBuffer.allocate(4).putInt((int) crc.getValue()).flip();
+        write(head);
+        write(ByteBuffer.wrap(data, 0, length));
+        write(tail);
+    }
+
+    /**
+     * Writes a buffer completely
+     *
+     * @param buffer the buffer
+     * @throws IOException if the file can't be written
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+}
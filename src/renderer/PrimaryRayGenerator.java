@@ -0,0 +1,157 @@
+package renderer;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static primitives.Util.isZero;
+
+/**
+ * Generator of the primary rays of a camera for an image of a given resolution. The direction to the
+ * center of the view plane and the offsets of every pixel column and row along the right and the up
+ * vectors are computed once, so the ray through a pixel center takes 3 additions and its normalization,
+ * and allocates nothing but the ray itself. The rays of a row of pixels are produced into a batch array
+ * that the caller reuses from row to row.
+ * <p>
+ * The directions are summed in the same order as by the vector arithmetic of the camera, so the rays
+ * are the same as before, up to the rounding of the camera location. The generator is immutable and may
+ * be shared by the rendering threads.
+ *
+ * @author Ayelet and Gili
+ */
+public final class PrimaryRayGenerator {
+    /** The head of all the rays - the camera location */
+    private final Point p0;
+    /** The components of the vector from the camera to the view plane center */
+    private final double toX, toY, toZ;
+    /** The components of the right and the up vectors */
+    private final double rightX, rightY, rightZ, upX, upY, upZ;
+    /** Width and height of a pixel */
+    private final double pixelWidth, pixelHeight;
+    /** Resolution of the image */
+    private final int nX, nY;
+    /** The offset of the center of every pixel column along the right vector, as x, y, z triplets */
+    private final double[] columns;
+    /** The offset of the center of every pixel row along the up vector, as x, y, z triplets */
+    private final double[] rows;
+
+    /**
+     * Precomputes the rays of an image
+     *
+     * @param p0       the camera location
+     * @param vTo      the camera direction, normalized
+     * @param vUp      the up vector, normalized
+     * @param vRight   the right vector, normalized
+     * @param distance distance of the view plane from the camera
+     * @param width    width of the view plane
+     * @param height   height of the view plane
+     * @param nX       the number of pixel columns
+     * @param nY       the number of pixel rows
+     * @throws IllegalArgumentException if the resolution is not positive
+     */
+    public PrimaryRayGenerator(Point p0, Vector vTo, Vector vUp, Vector vRight, double distance,
+                               double width, double height, int nX, int nY) {
+        if (nX < 1 || nY < 1)
+            throw new IllegalArgumentException("Image resolution must be positive");
+        this.p0 = p0;
+        this.nX = nX;
+        this.nY = nY;
+        toX = vTo.getX() * distance;
+        toY = vTo.getY() * distance;
+        toZ = vTo.getZ() * distance;
+        rightX = vRight.getX();
+        rightY = vRight.getY();
+        rightZ = vRight.getZ();
+        upX = vUp.getX();
+        upY = vUp.getY();
+        upZ = vUp.getZ();
+        pixelWidth = width / nX;
+        pixelHeight = height / nY;
+
+        columns = new double[3 * nX];
+        for (int j = 0; j < nX; ++j) {
+            double xJ = (j - (double) (nX - 1) / 2) * pixelWidth;
+            columns[3 * j] = rightX * xJ;
+            columns[3 * j + 1] = rightY * xJ;
+            columns[3 * j + 2] = rightZ * xJ;
+        }
+        rows = new double[3 * nY];
+        for (int i = 0; i < nY; ++i) {
+            double yI = -(i - (double) (nY - 1) / 2) * pixelHeight;
+            rows[3 * i] = upX * yI;
+            rows[3 * i + 1] = upY * yI;
+            rows[3 * i + 2] = upZ * yI;
+        }
+    }
+
+    /**
+     * @return the number of pixel columns
+     */
+    public int getNx() {
+        return nX;
+    }
+
+    /**
+     * @return the number of pixel rows
+     */
+    public int getNy() {
+        return nY;
+    }
+
+    /**
+     * Produces the ray through the center of a pixel
+     *
+     * @param j the pixel column
+     * @param i the pixel row
+     * @return the ray
+     */
+    public Ray pixelRay(int j, int i) {
+        return new Ray(p0, toX + columns[3 * j] + rows[3 * i], toY + columns[3 * j + 1] + rows[3 * i + 1],
+                toZ + columns[3 * j + 2] + rows[3 * i + 2]);
+    }
+
+    /**
+     * Produces the rays through the centers of consecutive pixels of a row
+     *
+     * @param x0    the first pixel column
+     * @param i     the pixel row
+     * @param count the number of pixels
+     * @param batch receives the rays from its beginning, at least count long
+     * @throws IllegalArgumentException if the pixels are beyond the image or the batch is too short
+     */
+    public void rowRays(int x0, int i, int count, Ray[] batch) {
+        if (x0 < 0 || count < 0 || x0 + count > nX || i < 0 || i >= nY)
+            throw new IllegalArgumentException("Pixels are out of the image");
+        if (batch.length < count)
+            throw new IllegalArgumentException("Batch is too short");
+        double rowX = rows[3 * i], rowY = rows[3 * i + 1], rowZ = rows[3 * i + 2];
+        for (int k = 0, c = 3 * x0; k < count; ++k, c += 3)
+            batch[k] = new Ray(p0, toX + columns[c] + rowX, toY + columns[c + 1] + rowY, toZ + columns[c + 2] + rowZ);
+    }
+
+    /**
+     * Produces the ray through a point inside a pixel
+     *
+     * @param j the pixel column
+     * @param i the pixel row
+     * @param u the horizontal position inside the pixel, in [0,1) from its left edge
+     * @param v the vertical position inside the pixel, in [0,1) from its upper edge
+     * @return the ray
+     */
+    public Ray sampleRay(int j, int i, double u, double v) {
+        double yI = -(i + v - nY / 2d) * pixelHeight;
+        double xJ = (j + u - nX / 2d) * pixelWidth;
+        double x = toX, y = toY, z = toZ;
+        if (!isZero(xJ)) {
+            x += rightX * xJ;
+            y += rightY * xJ;
+            z += rightZ * xJ;
+        }
+        if (!isZero(yI)) {
+            x += upX * yI;
+            y += upY * yI;
+            z += upZ * yI;
+        }
+        return new Ray(p0, x, y, z);
+    }
+}
@@ -10,6 +10,8 @@ import scene.*;
 public abstract class RayTracerBase
 {
     protected Scene scene;
+    /** statistics of the traced rays, null when they are not collected */
+    protected RenderStatistics statistics = null;
 
     /**
      Constructs with one param.
@@ -27,4 +29,24 @@ public abstract class RayTracerBase
      */
     public abstract Color traceRay(Ray ray);
 
+    /**
+     Sets the statistics the traced rays are counted into.
+     @param statistics the statistics, null to stop collecting them
+     @return this
+     */
+    public RayTracerBase setStatistics(RenderStatistics statistics)
+    {
+        this.statistics = statistics;
+        return this;
+    }
+
+    /**
+     Returns the statistics the traced rays are counted into.
+     @return the statistics, null when they are not collected
+     */
+    public RenderStatistics getStatistics()
+    {
+        return statistics;
+    }
+
 }
\ No newline at end of file
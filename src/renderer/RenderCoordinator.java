@@ -0,0 +1,513 @@
+package renderer;
+
+import primitives.Color;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coordinator of renderings distributed over worker processes (see {@link RenderWorker}). The workers
+ * connect to the coordinator over TCP and stay connected between jobs. A job is split into tiles which
+ * are handed to the workers one at a time, on demand, so the faster workers render more of them, and the
+ * rendered tiles are assembled in the image writer of a local camera built from the same job.
+ * <p>
+ * The tiles of a worker that disconnects or fails are given to the other workers. When no tile is left
+ * to hand out, a tile that is rendered for longer than the tile timeout is given to another worker as
+ * well, and the first result wins. A late tile never fails the job - a job fails when a tile failed the
+ * maximal number of times, by errors of the workers or disconnections, or when no worker is connected for
+ * longer than the tile timeout.
+ * Connections are accepted on the loopback interface by default: the workers run whatever job classes the
+ * coordinator sends, so they must trust it, and the coordinator must trust its clients.
+ *
+ * @author Ayelet and Gili
+ */
+public class RenderCoordinator implements Closeable {
+    /** Message to a worker: the definition of a job - its id and its serialized {@link RenderJob} */
+    static final byte JOB = 1;
+    /** Message to a worker: a tile to render - the job id and the tile's x, y, width and height */
+    static final byte TILE = 2;
+    /** Message from a worker: the colors of a tile - the job id and the RGB components row by row */
+    static final byte RESULT = 3;
+    /** Message from a worker: a tile failed - the job id and the reason */
+    static final byte ERROR = 4;
+
+    /** Default size of the square tiles in pixels */
+    private static final int DEFAULT_TILE_SIZE = 32;
+    /** Logger of the failures of the workers */
+    private static final Logger LOGGER = Logger.getLogger("RenderCoordinator");
+
+    /**
+     * A tile of a job
+     */
+    private static final class Tile {
+        /** The upper left pixel and the size of the tile */
+        final int x0, y0, width, height;
+        /** The number of times the tile was handed to a worker */
+        int attempts = 0;
+        /** The number of times a worker failed the tile or disconnected while rendering it */
+        int failures = 0;
+        /** The number of workers rendering the tile now */
+        int rendering = 0;
+        /** The time the tile was last handed to a worker, in nanoseconds */
+        long started;
+        /** Whether the tile is in the image */
+        boolean done = false;
+
+        /**
+         * @param x0     x-coordinate of the upper left pixel
+         * @param y0     y-coordinate of the upper left pixel
+         * @param width  width in pixels
+         * @param height height in pixels
+         */
+        Tile(int x0, int y0, int width, int height) {
+            this.x0 = x0;
+            this.y0 = y0;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public String toString() {
+            return "tile " + x0 + "," + y0;
+        }
+    }
+
+    /**
+     * A rendering job
+     */
+    private static final class Job {
+        /** The id of the job */
+        final int id;
+        /** The serialized definition of the job */
+        final byte[] definition;
+        /** The image writer the tiles are written into */
+        final ImageWriter imageWriter;
+        /** The tiles of the job */
+        final List<Tile> tiles = new ArrayList<>();
+        /** The tiles waiting for a worker */
+        final Deque<Tile> pending = new ArrayDeque<>();
+        /** The number of tiles that are not in the image yet */
+        int remaining;
+        /** The reason of the failure of the job, null while it hasn't failed */
+        String failure = null;
+
+        /**
+         * @param id          the job id
+         * @param definition  the serialized definition
+         * @param imageWriter the image writer
+         * @param tileSize    the size of the tiles
+         */
+        Job(int id, byte[] definition, ImageWriter imageWriter, int tileSize) {
+            this.id = id;
+            this.definition = definition;
+            this.imageWriter = imageWriter;
+            for (int y0 = 0; y0 < imageWriter.getNy(); y0 += tileSize)
+                for (int x0 = 0; x0 < imageWriter.getNx(); x0 += tileSize)
+                    tiles.add(new Tile(x0, y0, Math.min(tileSize, imageWriter.getNx() - x0),
+                            Math.min(tileSize, imageWriter.getNy() - y0)));
+            pending.addAll(tiles);
+            remaining = tiles.size();
+        }
+
+        /**
+         * @return whether the job is still rendered
+         */
+        boolean active() {
+            return remaining > 0 && failure == null;
+        }
+    }
+
+    /** The listening socket */
+    private final ServerSocket server;
+    /** The connections of the workers */
+    private final List<Socket> workers = new ArrayList<>();
+    /** The size of the tiles in pixels */
+    private int tileSize = DEFAULT_TILE_SIZE;
+    /** The time after which a tile is given to another worker too */
+    private Duration tileTimeout = Duration.ofMinutes(1);
+    /** The maximal number of failures of a tile */
+    private int maxAttempts = 3;
+    /** The job being rendered, null if none */
+    private Job job = null;
+    /** The id of the last job */
+    private int lastJobId = 0;
+    /** The number of times tiles were handed again to a worker */
+    private long reassignments = 0;
+    /** Whether the coordinator is closed */
+    private boolean closed = false;
+
+    /**
+     * Starts accepting workers on the loopback interface
+     *
+     * @param port the port, 0 for any free port
+     * @throws IOException if the port can't be opened
+     */
+    public RenderCoordinator(int port) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Starts accepting workers
+     *
+     * @param address the address to listen on
+     * @throws IOException if the address can't be opened
+     */
+    public RenderCoordinator(InetSocketAddress address) throws IOException {
+        server = new ServerSocket();
+        server.bind(address);
+        Thread acceptor = new Thread(this::accept, "render-coordinator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return the port the workers connect to
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Sets the size of the square tiles handed to the workers
+     *
+     * @param size the width and height of a tile in pixels
+     * @return this
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public synchronized RenderCoordinator setTileSize(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Tile size must be positive");
+        tileSize = size;
+        return this;
+    }
+
+    /**
+     * Sets the time after which a tile that is still rendered is given to another worker too, and after
+     * which a job without connected workers fails
+     *
+     * @param timeout the timeout
+     * @return this
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    public synchronized RenderCoordinator setTileTimeout(Duration timeout) {
+        if (timeout == null || timeout.isNegative() || timeout.isZero())
+            throw new IllegalArgumentException("Tile timeout must be positive");
+        tileTimeout = timeout;
+        return this;
+    }
+
+    /**
+     * Sets the maximal number of times a tile may fail - by an error of a worker or a disconnection while
+     * rendering it - before the job fails. Tiles given to another worker for being late are not counted.
+     *
+     * @param attempts the number of failed attempts
+     * @return this
+     * @throws IllegalArgumentException if the number is not positive
+     */
+    public synchronized RenderCoordinator setMaxAttempts(int attempts) {
+        if (attempts < 1)
+            throw new IllegalArgumentException("Number of attempts must be positive");
+        maxAttempts = attempts;
+        return this;
+    }
+
+    /**
+     * @return the number of connected workers
+     */
+    public synchronized int getWorkers() {
+        return workers.size();
+    }
+
+    /**
+     * @return the number of times tiles were handed again to a worker, after a failure or a timeout
+     */
+    public synchronized long getReassignments() {
+        return reassignments;
+    }
+
+    /**
+     * Waits for workers to connect
+     *
+     * @param count   the number of workers
+     * @param timeout the maximal time to wait
+     * @return whether the workers are connected
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized boolean awaitWorkers(int count, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (long left = timeout.toNanos(); workers.size() < count && left > 0; left = deadline - System.nanoTime())
+            wait(left / 1_000_000 + 1);
+        return workers.size() >= count;
+    }
+
+    /**
+     * Renders a job on the workers. The method waits for a previous job to end, and then for the tiles of
+     * this one - the workers may connect while it waits, but the job fails when no worker is connected for
+     * longer than the tile timeout.
+     *
+     * @param definition the job
+     * @return the local camera of the job, whose image writer holds the image
+     * @throws UnsupportedOperationException if the image writer of the job is streaming
+     * @throws IllegalStateException         if the job can't be serialized, a tile failed too many times,
+     *                                       no worker was connected for too long, the coordinator is
+     *                                       closed or the waiting was interrupted
+     */
+    public Camera render(RenderJob definition) {
+        Camera camera = definition.createCamera();
+        ImageWriter imageWriter = camera.getImageWriter();
+        if (imageWriter.isStreaming())
+            throw new UnsupportedOperationException("Distributed rendering needs an image writer that holds the pixels");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(definition);
+        } catch (IOException e) {
+            throw new IllegalStateException("The job can't be serialized", e);
+        }
+
+        synchronized (this) {
+            Job current = null;
+            try {
+                while (job != null && !closed)
+                    wait();
+                if (closed)
+                    throw new IllegalStateException("The coordinator is closed");
+                current = job = new Job(++lastJobId, bytes.toByteArray(), imageWriter, tileSize);
+                notifyAll();
+                long unattended = System.nanoTime();
+                while (current.active() && !closed) {
+                    if (!workers.isEmpty()) {
+                        wait();
+                        unattended = System.nanoTime();
+                        continue;
+                    }
+                    long left = unattended + tileTimeout.toNanos() - System.nanoTime();
+                    if (left <= 0)
+                        current.failure = "No worker was connected for " + tileTimeout.toMillis() + " ms";
+                    else
+                        wait(left / 1_000_000 + 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (current != null)
+                    current.failure = "Rendering was interrupted";
+                throw new IllegalStateException("Rendering was interrupted", e);
+            } finally {
+                if (current != null && job == current) {
+                    job = null;
+                    notifyAll();
+                }
+            }
+            if (current.failure != null)
+                throw new IllegalStateException(current.failure);
+            if (current.remaining > 0)
+                throw new IllegalStateException("The coordinator is closed");
+        }
+        return camera;
+    }
+
+    /**
+     * Stops accepting workers and disconnects them, which ends the worker processes
+     *
+     * @throws IOException if the listening socket can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        List<Socket> connected;
+        synchronized (this) {
+            closed = true;
+            connected = new ArrayList<>(workers);
+            notifyAll();
+        }
+        for (Socket worker : connected)
+            worker.close();
+        server.close();
+    }
+
+    /**
+     * Accepts the workers, each served by its own thread
+     */
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                synchronized (this) {
+                    if (closed) {
+                        socket.close();
+                        return;
+                    }
+                    workers.add(socket);
+                    notifyAll();
+                }
+                Thread thread = new Thread(() -> serve(socket), "render-coordinator-" + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (!server.isClosed())
+                    LOGGER.log(Level.WARNING, "Failed accepting a worker", e);
+            }
+        }
+    }
+
+    /**
+     * Hands tiles to a worker and collects their colors, until the worker or the coordinator is closed
+     *
+     * @param socket the connection of the worker
+     */
+    private void serve(Socket socket) {
+        Job current = null;
+        Tile tile = null;
+        int shipped = 0;
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (true) {
+                synchronized (this) {
+                    while ((tile = nextTile(current = job)) == null) {
+                        if (closed)
+                            return;
+                        wait(waitTime(current));
+                    }
+                }
+                if (shipped != current.id) {
+                    out.writeByte(JOB);
+                    out.writeInt(current.id);
+                    out.writeInt(current.definition.length);
+                    out.write(current.definition);
+                    shipped = current.id;
+                }
+                out.writeByte(TILE);
+                out.writeInt(current.id);
+                out.writeInt(tile.x0);
+                out.writeInt(tile.y0);
+                out.writeInt(tile.width);
+                out.writeInt(tile.height);
+                out.flush();
+
+                byte type = in.readByte();
+                if (in.readInt() != current.id)
+                    throw new IOException("The worker answered another job");
+                if (type == RESULT) {
+                    Color[] colors = new Color[tile.width * tile.height];
+                    for (int k = 0; k < colors.length; ++k)
+                        colors[k] = new Color(in.readDouble(), in.readDouble(), in.readDouble());
+                    complete(current, tile, colors);
+                } else if (type == ERROR) {
+                    fail(current, tile, in.readUTF());
+                } else
+                    throw new IOException("Unknown message " + type);
+                tile = null;
+            }
+        } catch (IOException e) {
+            if (tile != null)
+                fail(current, tile, "worker disconnected: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                workers.remove(socket);
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Finds the next tile of a job for a worker - a waiting tile, or else a tile that is rendered for too
+     * long and is given to another worker as well. A late tile never fails the job, since its worker may
+     * just be slow. Called while holding the lock.
+     *
+     * @param current the job, may be null
+     * @return the tile, null if there is none now
+     */
+    private Tile nextTile(Job current) {
+        if (closed || current == null || !current.active())
+            return null;
+        long now = System.nanoTime();
+        Tile tile = current.pending.poll();
+        if (tile == null)
+            for (Tile late : current.tiles)
+                if (!late.done && late.rendering > 0 && now - late.started >= tileTimeout.toNanos()) {
+                    tile = late;
+                    LOGGER.info(() -> "Rendering " + late + " of job " + current.id + " again, it is late");
+                    break;
+                }
+        if (tile == null)
+            return null;
+        if (tile.attempts > 0)
+            ++reassignments;
+        ++tile.attempts;
+        ++tile.rendering;
+        tile.started = now;
+        return tile;
+    }
+
+    /**
+     * Finds how long a worker without a tile waits before looking again - until the earliest rendered
+     * tile is late. Called while holding the lock.
+     *
+     * @param current the job, may be null
+     * @return the time in milliseconds, 0 for waiting until notified
+     */
+    private long waitTime(Job current) {
+        if (current == null || !current.active())
+            return 0;
+        long earliest = Long.MAX_VALUE;
+        for (Tile tile : current.tiles)
+            if (!tile.done && tile.rendering > 0)
+                earliest = Math.min(earliest, tile.started);
+        if (earliest == Long.MAX_VALUE)
+            return 0;
+        return Math.max(1, (earliest + tileTimeout.toNanos() - System.nanoTime()) / 1_000_000 + 1);
+    }
+
+    /**
+     * Writes the colors of a tile into the image, unless another worker was first
+     *
+     * @param current the job
+     * @param tile    the tile
+     * @param colors  the colors of the tile, row by row
+     */
+    private void complete(Job current, Tile tile, Color[] colors) {
+        synchronized (this) {
+            --tile.rendering;
+            if (tile.done || !current.active())
+                return;
+            tile.done = true;
+        }
+        current.imageWriter.writeTile(tile.x0, tile.y0, tile.width, tile.height, colors);
+        synchronized (this) {
+            --current.remaining;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Puts a failed tile back for another worker, or fails the job when the tile failed too many times
+     *
+     * @param current the job
+     * @param tile    the tile
+     * @param reason  the reason of the failure
+     */
+    private synchronized void fail(Job current, Tile tile, String reason) {
+        --tile.rendering;
+        ++tile.failures;
+        LOGGER.warning(() -> "Rendering " + tile + " of job " + current.id + " failed: " + reason);
+        if (tile.done || tile.rendering > 0 || !current.active())
+            return;
+        if (tile.failures >= maxAttempts)
+            current.failure = "Rendering " + tile + " failed " + tile.failures + " times: " + reason;
+        else
+            current.pending.addFirst(tile);
+        notifyAll();
+    }
+}
@@ -0,0 +1,21 @@
+package renderer;
+
+import java.io.Serializable;
+
+/**
+ * The definition of a rendering that is distributed over worker processes by a {@link RenderCoordinator}.
+ * Scenes and cameras are not serializable, so a job is the serializable recipe that builds them: it is
+ * shipped once to every worker of the job, and each worker builds its own camera from it and renders
+ * the tiles it is given. The job must build the same camera on every call, with an image writer of the
+ * image resolution, and its class must be on the class path of the workers.
+ *
+ * @author Ayelet and Gili
+ */
+public interface RenderJob extends Serializable {
+    /**
+     * Builds the camera of the job, with its scene, ray tracer and image writer
+     *
+     * @return the camera
+     */
+    Camera createCamera();
+}
@@ -0,0 +1,161 @@
+package renderer;
+
+import geometries.IntersectionCounters;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of renderings - the traced rays by their kind, the depth of the recursion, the refinements
+ * of the adaptive sampling, the intersection tests by the geometry type and the wall time of every phase.
+ * The collection is opt in: a camera and a ray tracer count only when they are given statistics
+ * (see {@link Camera.Builder#setStatistics(RenderStatistics)}). The counters are striped, so parallel
+ * rendering threads hardly contend on them. The statistics of several renderings are summed up until
+ * they are reset.
+ *
+ * @author Ayelet and Gili
+ */
+public class RenderStatistics {
+    /**
+     * The counted events
+     */
+    public enum Counter {
+        /** rays cast from the camera */
+        PRIMARY_RAYS,
+        /** reflected rays that were traced */
+        REFLECTION_RAYS,
+        /** refracted rays that were traced */
+        REFRACTION_RAYS,
+        /** shadow rays towards the lights */
+        SHADOW_RAYS,
+        /** sum of the recursion depths of the reflected and refracted rays */
+        SECONDARY_DEPTH,
+        /** cells split by the adaptive sampling */
+        ADAPTIVE_REFINEMENTS
+    }
+
+    /**
+     * The timed phases of a rendering
+     */
+    public enum Phase {
+        /** rendering the image */
+        RENDER,
+        /** writing the image file */
+        WRITE
+    }
+
+    /** The counters, by {@link Counter} */
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    /** The wall time of the phases in nanoseconds, by {@link Phase} */
+    private final LongAdder[] times = new LongAdder[Phase.values().length];
+    /** The intersection tests */
+    private final IntersectionCounters intersections = new IntersectionCounters();
+
+    /**
+     * Constructs empty statistics
+     */
+    public RenderStatistics() {
+        for (int i = 0; i < counters.length; ++i)
+            counters[i] = new LongAdder();
+        for (int i = 0; i < times.length; ++i)
+            times[i] = new LongAdder();
+    }
+
+    /**
+     * Counts an event
+     *
+     * @param counter the event
+     */
+    public void increment(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    /**
+     * Adds to a counter
+     *
+     * @param counter the counter
+     * @param amount  the amount to add
+     */
+    public void add(Counter counter, long amount) {
+        counters[counter.ordinal()].add(amount);
+    }
+
+    /**
+     * @param counter the counter
+     * @return the value of the counter
+     */
+    public long get(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    /**
+     * Adds to the wall time of a phase
+     *
+     * @param phase the phase
+     * @param nanos the time in nanoseconds
+     */
+    public void addTime(Phase phase, long nanos) {
+        times[phase.ordinal()].add(nanos);
+    }
+
+    /**
+     * @param phase the phase
+     * @return the wall time of the phase in nanoseconds
+     */
+    public long getTime(Phase phase) {
+        return times[phase.ordinal()].sum();
+    }
+
+    /**
+     * @return the average recursion depth of the reflected and refracted rays, 0 if there are none
+     */
+    public double getAverageDepth() {
+        long secondary = get(Counter.REFLECTION_RAYS) + get(Counter.REFRACTION_RAYS);
+        return secondary == 0 ? 0 : (double) get(Counter.SECONDARY_DEPTH) / secondary;
+    }
+
+    /**
+     * @return the counters of the intersection tests by the geometry type
+     */
+    public IntersectionCounters getIntersections() {
+        return intersections;
+    }
+
+    /**
+     * Sets all the statistics to 0
+     */
+    public void reset() {
+        for (LongAdder counter : counters)
+            counter.reset();
+        for (LongAdder time : times)
+            time.reset();
+        intersections.reset();
+    }
+
+    /**
+     * @return a readable summary of the statistics
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder("Render statistics:");
+        double seconds = getTime(Phase.RENDER) / 1e9;
+        long rays = get(Counter.PRIMARY_RAYS) + get(Counter.REFLECTION_RAYS) + get(Counter.REFRACTION_RAYS)
+                + get(Counter.SHADOW_RAYS);
+        for (Counter counter : Counter.values())
+            if (counter != Counter.SECONDARY_DEPTH)
+                summary.append(String.format("%n  %-22s %,d", counter.name().toLowerCase().replace('_', ' '), get(counter)));
+        summary.append(String.format("%n  %-22s %.2f", "average depth", getAverageDepth()));
+        for (Map.Entry<String, long[]> entry : intersections.getCounts().entrySet())
+            summary.append(String.format("%n  %-22s %,d tests, %,d hits", entry.getKey(),
+                    entry.getValue()[0], entry.getValue()[1]));
+        for (Phase phase : Phase.values())
+            summary.append(String.format("%n  %-22s %.3f s", phase.name().toLowerCase() + " time", getTime(phase) / 1e9));
+        if (seconds > 0)
+            summary.append(String.format("%n  %-22s %,.0f", "rays per second", rays / seconds));
+        return summary.toString();
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+}
@@ -0,0 +1,158 @@
+package renderer;
+
+import primitives.Color;
+import primitives.Double3;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A worker of distributed renderings. It connects to a {@link RenderCoordinator}, builds the camera of
+ * every job it is sent, and renders the tiles it is given one at a time, until the coordinator
+ * disconnects. A worker process may open several connections to render several tiles at a time; the
+ * connections of a worker share the camera of the job, so its scene is built once per process, and the
+ * camera never allocates the pixels of its image writer, since the tiles are sent to the coordinator:
+ * <pre>
+ *     java -cp &lt;classes of the renderer and the jobs&gt; renderer.RenderWorker &lt;host&gt; &lt;port&gt; [connections]
+ * </pre>
+ *
+ * @author Ayelet and Gili
+ */
+public class RenderWorker {
+    /** Logger of the failures */
+    private static final Logger LOGGER = Logger.getLogger("RenderWorker");
+
+    /** The host of the coordinator */
+    private final String host;
+    /** The port of the coordinator */
+    private final int port;
+    /** The camera of the last job, shared by the connections */
+    private JobCamera last = null;
+
+    /**
+     * The camera built from a job definition
+     *
+     * @param jobId   the id of the job
+     * @param camera  the camera, null if the job can't be built
+     * @param failure the reason the job can't be built, null if it was built
+     */
+    private record JobCamera(int jobId, Camera camera, String failure) {
+    }
+
+    /**
+     * @param host the host of the coordinator
+     * @param port the port of the coordinator
+     */
+    public RenderWorker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Connects to the coordinator and renders its tiles until it disconnects
+     *
+     * @throws IOException if the connection fails
+     */
+    public void serve() throws IOException {
+        try (Socket socket = new Socket(host, port);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            JobCamera job = new JobCamera(0, null, "no job");
+            while (true) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    return; // the coordinator disconnected
+                }
+                if (type == RenderCoordinator.JOB) {
+                    int jobId = in.readInt();
+                    job = prepare(jobId, in.readNBytes(in.readInt()));
+                } else if (type == RenderCoordinator.TILE) {
+                    if (in.readInt() != job.jobId())
+                        throw new IOException("Tile of an unknown job");
+                    int x0 = in.readInt(), y0 = in.readInt(), width = in.readInt(), height = in.readInt();
+                    Color[] colors = null;
+                    String failure = job.failure();
+                    if (job.camera() != null) {
+                        try {
+                            colors = job.camera().castTile(x0, y0, width, height);
+                        } catch (RuntimeException e) {
+                            failure = e.toString();
+                        }
+                    }
+                    if (colors == null) {
+                        out.writeByte(RenderCoordinator.ERROR);
+                        out.writeInt(job.jobId());
+                        out.writeUTF(failure);
+                    } else {
+                        out.writeByte(RenderCoordinator.RESULT);
+                        out.writeInt(job.jobId());
+                        for (Color color : colors) {
+                            Double3 rgb = color.getRgb();
+                            out.writeDouble(rgb.d1);
+                            out.writeDouble(rgb.d2);
+                            out.writeDouble(rgb.d3);
+                        }
+                    }
+                    out.flush();
+                } else
+                    throw new IOException("Unknown message " + type);
+            }
+        }
+    }
+
+    /**
+     * Finds the camera of a job - the one already built by another connection, or a new one built from the
+     * job definition. A job that can't be built fails each of its tiles, so the coordinator fails the job.
+     *
+     * @param jobId      the id of the job
+     * @param definition the serialized job
+     * @return the camera of the job
+     */
+    private synchronized JobCamera prepare(int jobId, byte[] definition) {
+        if (last == null || last.jobId() != jobId) {
+            try (ObjectInputStream job = new ObjectInputStream(new ByteArrayInputStream(definition))) {
+                last = new JobCamera(jobId, ((RenderJob) job.readObject()).createCamera(), null);
+            } catch (ClassNotFoundException | IOException | RuntimeException e) {
+                last = new JobCamera(jobId, null, "the job can't be built: " + e);
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Runs a worker process
+     *
+     * @param args the host and the port of the coordinator, and optionally the number of connections
+     *             (by default the number of available processors)
+     * @throws InterruptedException if interrupted while waiting for the connections to end
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: RenderWorker <host> <port> [connections]");
+            System.exit(2);
+        }
+        RenderWorker worker = new RenderWorker(args[0], Integer.parseInt(args[1]));
+        int connections = args.length == 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < connections; ++i) {
+            Thread thread = new Thread(() -> {
+                try {
+                    worker.serve();
+                } catch (IOException e) {
+                    LOGGER.log(Level.SEVERE, "Connection to the coordinator failed", e);
+                }
+            }, "render-worker-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads)
+            thread.join();
+    }
+}
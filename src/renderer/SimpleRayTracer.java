@@ -7,12 +7,7 @@ import primitives.Ray;
 import scene.Scene;
 import primitives.*;
 import lighting.*;
-
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.*;
-
+import sampling.Sampler;
 
 import geometries.Intersectable.GeoPoint;
 
@@ -21,11 +16,15 @@ import static primitives.Util.isZero;
 
 public class SimpleRayTracer extends RayTracerBase{
 
-    private static final double DELTA = 0.1;
     private static final Double3 INITIAL_K = Double3.ONE;
-    private static final int MAX_CALC_COLOR_LEVEL = 10;
     private static final double MIN_CALC_COLOR_K = 0.001;
 
+    /** policy of terminating the reflected and refracted rays recursion */
+    private TerminationPolicy terminationPolicy = new TerminationPolicy();
+
+    /** estimator of the transparency towards area lights */
+    private SoftShadowEstimator softShadowEstimator = new SoftShadowEstimator(SoftShadowEstimator.DEFAULT_BUDGET);
+
     /**
      * Constructs with one param.
      *
@@ -35,6 +34,50 @@ public class SimpleRayTracer extends RayTracerBase{
         super(scene);
     }
 
+    /**
+     * Sets the maximal number of shadow rays traced towards each area light from a shaded point
+     *
+     * @param budget the shadow rays budget per light
+     * @return this
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public SimpleRayTracer setSoftShadowBudget(int budget) {
+        softShadowEstimator = new SoftShadowEstimator(budget);
+        return this;
+    }
+
+    /**
+     * Sets the sampler that jitters the shadow rays towards area lights. The jitter is part of the sample
+     * patterns of the lights, so the sampler is set on the point lights that are in the scene now
+     *
+     * @param sampler the sampler
+     * @return this
+     * @throws IllegalArgumentException if the sampler is null
+     * @see PointLight#setSampler(Sampler)
+     */
+    public SimpleRayTracer setSoftShadowSampler(Sampler sampler) {
+        if (sampler == null)
+            throw new IllegalArgumentException("Sampler cannot be null");
+        for (LightSource light : scene.lights)
+            if (light instanceof PointLight pointLight)
+                pointLight.setSampler(sampler);
+        return this;
+    }
+
+    /**
+     * Sets the policy of terminating the reflected and refracted rays recursion
+     *
+     * @param policy the termination policy
+     * @return this
+     * @throws IllegalArgumentException if the policy is null
+     */
+    public SimpleRayTracer setTerminationPolicy(TerminationPolicy policy) {
+        if (policy == null)
+            throw new IllegalArgumentException("Termination policy cannot be null");
+        terminationPolicy = policy;
+        return this;
+    }
+
     /**
      * Traces a ray through the scene and calculates the color at the point where the ray intersects with an object.
      * @param ray the ray to trace through the scene
@@ -43,6 +86,8 @@ public class SimpleRayTracer extends RayTracerBase{
     @Override
     public Color traceRay(Ray ray)
     {
+        if (statistics != null)
+            statistics.increment(RenderStatistics.Counter.PRIMARY_RAYS);
         GeoPoint closestPoint = findClosestIntersection(ray);
         if (closestPoint == null)
             return scene.background;
@@ -51,7 +96,9 @@ public class SimpleRayTracer extends RayTracerBase{
 
     private Color calcColor(GeoPoint gp, Ray ray)
     {
-        return calcColor(gp, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K).add(scene.ambientLight.getIntensity());
+        TerminationPolicy.Path path = terminationPolicy.startPath(ray);
+        return calcColor(gp, ray, terminationPolicy.getMaxLevel(), INITIAL_K, path)
+                .add(scene.ambientLight.getIntensity());
     }
 
 
@@ -60,10 +107,10 @@ public class SimpleRayTracer extends RayTracerBase{
      * @param point the point in the scene for which to calculate the color
      * @return the color of the point based on the ambient light present
      */
-    private Color calcColor(GeoPoint point, Ray ray, int level, Double3 k)
+    private Color calcColor(GeoPoint point, Ray ray, int level, Double3 k, TerminationPolicy.Path path)
     {
         Color color = calcLocalEffects(point,ray, k);
-        return 1 == level ? color : color.add(calcGlobalEffects(point, ray, level, k));
+        return 1 == level ? color : color.add(calcGlobalEffects(point, ray, level, k, path));
     }
 
     /**
@@ -76,11 +123,11 @@ public class SimpleRayTracer extends RayTracerBase{
     private Color calcLocalEffects(GeoPoint gp, Ray ray, Double3 k) {
         Color color = gp.geometry.getEmission();
         Vector v = ray.getDir();
-        Vector n = gp.geometry.getNormal(gp.point);
+        Vector n = gp.getNormal();
         double nv = alignZero(n.dotProduct(v));
         if (nv == 0)
             return color;
-        Material material = gp.geometry.getMaterial();
+        Material material = gp.getMaterial();
 
         for (LightSource lightSource : scene.lights) {
             Vector l = lightSource.getL(gp.point);
@@ -130,43 +177,19 @@ public class SimpleRayTracer extends RayTracerBase{
     private Double3 calcSpecular(Material mat,Vector n,Vector l,double nl,Vector v)
     {
         // Calculate the reflection vector using the surface normal, light direction, and dot product
-        Vector r = l.subtract(n.scale(nl*2)).normalize();
+        MutableVector r = new MutableVector().set(l).addScaled(n, -nl * 2).normalize();
         // Calculate the specular reflection coefficient of the material and scale by the specular coefficient of the material
-        return mat.Ks.scale(Math.pow(Math.max(0, v.scale(-1).dotProduct(r)), mat.nShininess));
+        return mat.Ks.scale(Math.pow(Math.max(0, -r.dotProduct(v)), mat.nShininess));
     }
 
     /**
-     * Checks if a given point is unshaded by finding intersections between the point and the light source.
-     *
-     * @param gp The geometric point to check for shading.
-     * @param l The direction from the point towards the light source.
-     * @param n The normal vector at the point.
-     * @param light The light source.
-     * @param nv The dot product between the normal vector and the light direction.
-     * @return {@code true} if the point is unshaded, {@code false} otherwise.
+     * Finds the closest intersection of the ray with the scene geometries
+     * @param ray the ray
+     * @return the closest intersection, or null if the ray hits nothing
      */
-    private boolean unshaded(GeoPoint gp, Vector l, Vector n, double nv, LightSource light) {
-        Vector lightDirection = l.scale(-1); // from point to light source
-        Vector epsVector = n.scale(nv < 0 ? DELTA : -DELTA);
-        Point point = gp.point.add(epsVector);
-        Ray lightRay = new Ray(point, lightDirection);
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(lightRay);
-        if (intersections == null)
-            return true;
-        double lightDistance = light.getDistance(gp.point);
-        for (GeoPoint gp1 : intersections) {
-            if (Util.alignZero(gp1.point.distance(gp.point) - lightDistance) <= 0)
-
-                return false;
-        }
-        return true;
-    }
     private GeoPoint findClosestIntersection(Ray ray)
     {
-        List <GeoPoint> intersections = scene.geometries.findGeoIntersections(ray);
-        if (intersections == null)
-            return null;
-        return ray.findClosestGeoPoint(intersections);
+        return scene.geometries.findClosestGeoIntersection(ray);
     }
 
     private Ray constructReflectedRay(Vector normal, Point point, Vector v)
@@ -174,7 +197,7 @@ public class SimpleRayTracer extends RayTracerBase{
         double nv = alignZero(normal.dotProduct(v));
         if (isZero(nv))
             return null;
-        Vector r = v.subtract(normal.scale(nv*2));
+        Vector r = new MutableVector().set(v).addScaled(normal, -nv * 2).toVector();
         return new Ray(point, r, normal);
     }
 
@@ -182,184 +205,97 @@ public class SimpleRayTracer extends RayTracerBase{
         return new Ray(point, vector, normal);
     }
 
-    private Color calcGlobalEffects(GeoPoint gp, Ray ray, int level, Double3 k)
+    private Color calcGlobalEffects(GeoPoint gp, Ray ray, int level, Double3 k, TerminationPolicy.Path path)
     {
-        Color color= Color.BLACK;
         Vector v = ray.getDir();
-        Vector n = gp.geometry.getNormal(gp.point);
-        Material material= gp.geometry.getMaterial();
-        return calcGlobalEffect(constructReflectedRay(n, gp.point, v), level, k, material.Kr)
-                .add(calcGlobalEffect(constructRefractedRay(n, gp.point, v), level, k, material.Kt));
+        Vector n = gp.getNormal();
+        Material material= gp.getMaterial();
+        return calcGlobalEffect(constructReflectedRay(n, gp.point, v), level, k, material.Kr, path,
+                RenderStatistics.Counter.REFLECTION_RAYS)
+                .add(calcGlobalEffect(constructRefractedRay(n, gp.point, v), level, k, material.Kt, path,
+                        RenderStatistics.Counter.REFRACTION_RAYS));
     }
 
-    private Color calcGlobalEffect(Ray ray, int level, Double3 k, Double3 kx)
+    private Color calcGlobalEffect(Ray ray, int level, Double3 k, Double3 kx, TerminationPolicy.Path path,
+                                   RenderStatistics.Counter kind)
     {
         Double3 kkx= k.product(kx);
-        if (kkx.lowerThan(MIN_CALC_COLOR_K))
+        // the policy cuts the branch, or boosts a branch that survived the roulette
+        double weight = path.survive(kkx);
+        if (weight == 0)
             return Color.BLACK;
+        if (statistics != null) {
+            statistics.increment(kind);
+            statistics.add(RenderStatistics.Counter.SECONDARY_DEPTH, terminationPolicy.getMaxLevel() - level + 1);
+        }
+        if (weight != 1) {
+            kx = kx.scale(weight);
+            kkx = kkx.scale(weight);
+        }
         GeoPoint gp= findClosestIntersection(ray);
         if (gp == null)
             return scene.background.scale(kx);
-        return isZero(gp.geometry.getNormal(gp.point).dotProduct(ray.getDir())) ? Color.BLACK: calcColor(gp, ray, level - 1, kkx).scale(kx);
+        return isZero(gp.getNormal().dotProduct(ray.getDir())) ? Color.BLACK: calcColor(gp, ray, level - 1, kkx, path).scale(kx);
     }
 
     /**
+     * Calculates the transparency between a point and a light source. A light with a radius is
+     * an area light, and its average transparency is estimated by the soft shadow estimator;
+     * otherwise a single shadow ray is traced
      *
-     * function that creates Partial shading in case the body or bodies that block
-     * the light source from the point have transparency at some level or another
-     *
-     * @param //gp- the point in the geometry
-     * @param //light
-     * @param //l         -the vector from the light to the point
-     * @param //n-        normal vector to the point at the geometry
-     * @return double number represent the shadow
+     * @param geoPoint the shaded point
+     * @param ls       the light source
+     * @param l        the direction from the light source to the point
+     * @param n        the normal at the shaded point
+     * @return the transparency factor, {@link Double3#ZERO} if the light is blocked
      */
     private Double3 transparency(GeoPoint geoPoint, LightSource ls, Vector l, Vector n) {
-        // Initialize transparency value to zero and count of samples to zero
-        Double3 ktr = Double3.ZERO;
-        int count = 0;
-
-        // Get target area points from the light source based on the light direction
-        List<Point> targetAreaPoints = ls.getGridPoints(l);
-
-        // If no target area points are found, create a default point opposite to the light direction
-        if (targetAreaPoints == null) {
-            targetAreaPoints = new LinkedList<>();
-            targetAreaPoints.add(geoPoint.point.add(l.scale(-1)));
-        }
-
-        // Perform adaptive sampling to refine the list of target area points
-        List<Point> sampledPoints = adaptiveSampling(targetAreaPoints, geoPoint, l, n, ls);
-
-        // Iterate through each sampled point
-        for (Point p : sampledPoints) {
-            // Create a ray from the sampled point to geoPoint and find intersections with geometries in the scene
-            List<GeoPoint> intersections = scene.geometries.findGeoIntersections(
-                    new Ray(p.subtract(geoPoint.point).normalize(), geoPoint.point, n)
-            );
-
-            // If no intersections are found, assume full transparency
-            if (intersections == null) {
-                ktr = ktr.add(Double3.ONE);
-                count++;
-            }
-            else {
-                // Calculate the distance from the light source to geoPoint
-                double lightDistance = ls.getDistance(geoPoint.point);
-
-                // Iterate through all intersection points
-                for (GeoPoint geop : intersections) {
-                    // If the intersection is within the light distance
-                    if (Util.alignZero(geop.point.distance(geoPoint.point) - lightDistance) <= 0) {
-                        // Update transparency based on the material's transparency (Kt)
-                        ktr = ktr.add(geop.geometry.getMaterial().Kt);
-                    }
-                    else {
-                        // Update transparency to full transparency
-                        ktr = ktr.add(Double3.ONE);
-                    }
-                    count++;
-                }
-            }
-        }
-
-        // Calculate the average transparency and return zero if it is below the minimum threshold
-        return ktr.scale(1.0 / count).lowerThan(MIN_CALC_COLOR_K) ? Double3.ZERO : ktr.scale(1.0 / count);
+        Point center = ls.getSamplePoint(l, 0.5, 0.5);
+        // a light without a position is infinitely far, against the light direction
+        if (center == null)
+            return calculateTransparency(geoPoint, l.scale(-1), Double.POSITIVE_INFINITY, n);
+        if (ls.getRadius() == 0)
+            return calculateTransparency(geoPoint, center, n);
+
+        // the lattice points on the light, jittered per shaded point
+        Point p = geoPoint.point;
+        double[] points = ls.getSamplePoints(l, softShadowEstimator.getSide(), Sampler.seed(p.getX(), p.getY(), p.getZ()));
+        MutableVector toLight = new MutableVector();
+        Double3 ktr = softShadowEstimator.estimate(index -> {
+            toLight.set(points[3 * index] - p.getX(), points[3 * index + 1] - p.getY(), points[3 * index + 2] - p.getZ());
+            double distance = toLight.length();
+            return calculateTransparency(geoPoint, toLight.scale(1 / distance).toVector(), distance, n);
+        }, statistics);
+        return ktr.lowerThan(MIN_CALC_COLOR_K) ? Double3.ZERO : ktr;
     }
 
-
-    private List<Point> adaptiveSampling(List<Point> points, GeoPoint geoPoint, Vector l, Vector n, LightSource ls) {
-        // Initial sampling of 4 corner points
-        List<Point> initialSamples = List.of(points.get(0), points.get(points.size() - 1),
-                points.get(points.size() / 2), points.get(points.size() / 2 - 1));
-
-        // Create a new list of sampled points starting with the initial samples
-        List<Point> sampledPoints = new LinkedList<>(initialSamples);
-
-        // Calculate the transparency/light effect for the initial samples
-        List<Double3> results = new LinkedList<>();
-        for (Point p : initialSamples) {
-            results.add(calculateTransparency(geoPoint, p, l, n, ls));
-        }
-
-        // Check if additional sampling is needed based on standard deviation or significant variation
-        if (shouldSampleMore(results)) {
-            // Add more sample points if needed
-            for (int i = 1; i < points.size() - 1; i++) {
-                if (!sampledPoints.contains(points.get(i))) {
-                    sampledPoints.add(points.get(i));
-                }
-            }
-        }
-
-        // Return the final list of sampled points
-        return sampledPoints;
-    }
-
-
-    private Double3 calculateTransparency(GeoPoint geoPoint, Point p, Vector l, Vector n, LightSource ls) {
-        // Create a ray from point p towards geoPoint
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(
-                new Ray(p.subtract(geoPoint.point).normalize(), geoPoint.point, n)
-        );
-
-        // Initialize the transparency value to zero (no light passes)
-        Double3 ktr = Double3.ZERO;
-
-        // If there are no intersections, transparency is full (all light passes)
-        if (intersections == null) {
-            ktr = Double3.ONE;
-        }
-        else {
-            // Calculate the distance from the light source to the geoPoint
-            double lightDistance = ls.getDistance(geoPoint.point);
-
-            // Loop through all intersection points
-            for (GeoPoint geop : intersections) {
-                // If the intersection is closer to the light source than geoPoint
-                if (Util.alignZero(geop.point.distance(geoPoint.point) - lightDistance) <= 0) {
-                    // Update transparency based on the material's transparency (Kt)
-                    ktr = geop.geometry.getMaterial().Kt;
-                }
-                else {
-                    // If the intersection is beyond the light source, full transparency
-                    ktr = Double3.ONE;
-                }
-            }
-        }
-
-        // Return the calculated transparency value
-        return ktr;
-    }
-
-
-    private boolean shouldSampleMore(List<Double3> results) {
-        // Loop through all results
-        for (int i = 0; i < results.size(); i++) {
-            // Compare the current result with all subsequent results
-            for (int j = i + 1; j < results.size(); j++) {
-                // If any two results are not equal
-                if (!isColorsEqual(results.get(i), results.get(j))) {
-                    // Significant difference found, additional sampling is needed
-                    return true;
-                }
-            }
-        }
-        // All results are sufficiently close to each other, no additional sampling needed
-        return false;
+    /**
+     * Calculates the transparency of a shadow ray from the geometric point towards a point on the light source
+     *
+     * @param geoPoint the shaded point
+     * @param p        the point on the light source
+     * @param n        the normal at the shaded point
+     * @return the transparency factor, {@link Double3#ZERO} if the light is blocked
+     */
+    private Double3 calculateTransparency(GeoPoint geoPoint, Point p, Vector n) {
+        return calculateTransparency(geoPoint, p.subtract(geoPoint.point).normalize(), p.distance(geoPoint.point), n);
     }
 
-
-    private boolean isColorsEqual(Double3 double3, Double3 double31) {
-        // Calculate the magnitude (length) of the first color vector
-        double c1 = Math.sqrt(double3.d1 * double3.d1 + double3.d2 * double3.d2 + double3.d3 * double3.d3);
-        // Calculate the magnitude (length) of the second color vector
-        double c2 = Math.sqrt(double31.d1 * double31.d1 + double31.d2 * double31.d2 + double31.d3 * double31.d3);
-        // Compute the average magnitude of the two color vectors
-        double avg = (c1 + c2) / 2d;
-        // Return true if the distance between the two color vectors is less than or equal to 25% of the average magnitude
-        return double3.distance(double31) <= 0.25 * avg;
+    /**
+     * Calculates the transparency of a shadow ray from the geometric point towards the light source.
+     * The blockers between the point and the light are multiplied by their transparency (Kt), and the
+     * search stops as soon as an opaque blocker, or enough transparent ones, block the light
+     *
+     * @param geoPoint the shaded point
+     * @param dir      the direction from the point towards the light
+     * @param distance the distance to the light
+     * @param n        the normal at the shaded point
+     * @return the transparency factor, {@link Double3#ZERO} if the light is blocked
+     */
+    private Double3 calculateTransparency(GeoPoint geoPoint, Vector dir, double distance, Vector n) {
+        Ray shadowRay = new Ray(dir, geoPoint.point, n);
+        if (statistics != null)
+            statistics.increment(RenderStatistics.Counter.SHADOW_RAYS);
+        return scene.geometries.findTransparency(shadowRay, distance, MIN_CALC_COLOR_K);
     }
-
-
 }
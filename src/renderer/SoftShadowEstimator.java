@@ -0,0 +1,190 @@
+package renderer;
+
+import primitives.Double3;
+
+/**
+ * Estimator of the transparency between a shaded point and an area light, for soft shadows.
+ * The light is parameterized by the unit square (see {@link lighting.LightSource#getSamplePoints}),
+ * and shadow rays are traced only at the points of a lattice over the square. The square is refined
+ * recursively - a cell is split into 4 only if the transparencies at its corners disagree, so fully lit
+ * and fully shadowed parts of the light cost a few rays and the rays are spent on the penumbra.
+ * Every lattice point is probed at most once, since neighbour cells share their corners.
+ * The number of shadow rays per light and shaded point never exceeds the budget.
+ *
+ * @author Ayelet and Gili
+ */
+final class SoftShadowEstimator {
+    /** Default shadow rays budget, the 9x9 lattice of the former fixed grid */
+    static final int DEFAULT_BUDGET = 81;
+    /** Relative difference of transparencies above which a cell is refined */
+    private static final double TOLERANCE = 0.25;
+
+    /**
+     * Traces a shadow ray towards a lattice point of the light
+     */
+    @FunctionalInterface
+    interface Probe {
+        /**
+         * @param index the index i*side+j of the lattice point (i,j)
+         * @return the transparency along the shadow ray
+         */
+        Double3 transparency(int index);
+    }
+
+    /** The maximal number of shadow rays per estimation */
+    private final int budget;
+    /** The depth of the finest lattice within the budget */
+    private final int depth;
+    /** The number of points along a side of the finest lattice */
+    private final int side;
+
+    /**
+     * Constructs an estimator by a shadow rays budget
+     *
+     * @param budget the maximal number of shadow rays per light and shaded point
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    SoftShadowEstimator(int budget) {
+        if (budget < 1)
+            throw new IllegalArgumentException("Shadow rays budget must be positive");
+        this.budget = budget;
+        int d = 0;
+        // the finest lattice whose points all fit in the budget
+        while (((1L << (d + 1)) + 1) * ((1L << (d + 1)) + 1) <= budget && d < 15) ++d;
+        this.depth = d;
+        this.side = d == 0 ? 1 : (1 << d) + 1;
+    }
+
+    /**
+     * @return the maximal number of shadow rays per estimation
+     */
+    int getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return the number of lattice points along a side of the unit square, 1 for a single center point
+     */
+    int getSide() {
+        return side;
+    }
+
+    /**
+     * Estimates the average transparency over the light
+     *
+     * @param probe traces the shadow rays
+     * @return the average transparency
+     */
+    Double3 estimate(Probe probe) {
+        return estimate(probe, null);
+    }
+
+    /**
+     * Estimates the average transparency over the light, counting the refined cells
+     *
+     * @param probe      traces the shadow rays
+     * @param statistics the statistics the refinements are counted into, null for none
+     * @return the average transparency
+     */
+    Double3 estimate(Probe probe, RenderStatistics statistics) {
+        // a budget too small for a lattice gets a single ray towards the center
+        if (depth == 0)
+            return probe.transparency(0);
+        Lattice lattice = new Lattice(probe, statistics);
+        return lattice.refine(0, 0, side - 1, 0);
+    }
+
+    /**
+     * Checks whether the transparencies at the corners of a cell agree with each other
+     *
+     * @param a first corner
+     * @param b second corner
+     * @param c third corner
+     * @param d fourth corner
+     * @return true if no corner is farther than the tolerance from the mean of the corners
+     */
+    private static boolean agree(Double3 a, Double3 b, Double3 c, Double3 d) {
+        Double3 mean = a.add(b).add(c).add(d).scale(0.25);
+        double limit = TOLERANCE * Math.sqrt(mean.d1 * mean.d1 + mean.d2 * mean.d2 + mean.d3 * mean.d3);
+        return a.distance(mean) <= limit && b.distance(mean) <= limit
+                && c.distance(mean) <= limit && d.distance(mean) <= limit;
+    }
+
+    /**
+     * The probes of one estimation, cached by their lattice point
+     */
+    private final class Lattice {
+        /** traces the shadow rays */
+        private final Probe probe;
+        /** the statistics the refinements are counted into, null for none */
+        private final RenderStatistics statistics;
+        /** the transparency at each lattice point that was already probed */
+        private final Double3[] probes = new Double3[side * side];
+        /** the number of traced shadow rays */
+        private int rays = 0;
+
+        /**
+         * @param probe      traces the shadow rays
+         * @param statistics the statistics the refinements are counted into, null for none
+         */
+        Lattice(Probe probe, RenderStatistics statistics) {
+            this.probe = probe;
+            this.statistics = statistics;
+        }
+
+        /**
+         * Finds the transparency at a lattice point, tracing a shadow ray on the first request
+         *
+         * @param i first lattice index
+         * @param j second lattice index
+         * @return the transparency
+         */
+        private Double3 at(int i, int j) {
+            int index = i * side + j;
+            if (probes[index] == null) {
+                probes[index] = probe.transparency(index);
+                ++rays;
+            }
+            return probes[index];
+        }
+
+        /**
+         * @param i first lattice index
+         * @param j second lattice index
+         * @return 1 if the point was not probed yet, otherwise 0
+         */
+        private int missing(int i, int j) {
+            return probes[i * side + j] == null ? 1 : 0;
+        }
+
+        /**
+         * Estimates the average transparency over a cell, refining it while its corners disagree
+         *
+         * @param i     first lattice index of the cell corner
+         * @param j     second lattice index of the cell corner
+         * @param size  the size of the cell in lattice steps
+         * @param level the refinement level of the cell
+         * @return the average transparency over the cell
+         */
+        Double3 refine(int i, int j, int size, int level) {
+            Double3 a = at(i, j), b = at(i + size, j), c = at(i, j + size), d = at(i + size, j + size);
+            if (size == 1)
+                return a.add(b).add(c).add(d).scale(0.25);
+            int h = size / 2;
+            // the whole light is split at least once, so a small blocker inside it isn't missed
+            boolean split = level == 0 || !agree(a, b, c, d);
+            if (split) {
+                int needed = missing(i + h, j) + missing(i, j + h) + missing(i + h, j + h)
+                        + missing(i + size, j + h) + missing(i + h, j + size);
+                split = rays + needed <= budget;
+            }
+            if (!split)
+                return a.add(b).add(c).add(d).scale(0.25);
+            // the first split is not adaptive
+            if (statistics != null && level > 0)
+                statistics.increment(RenderStatistics.Counter.ADAPTIVE_REFINEMENTS);
+            return refine(i, j, h, level + 1).add(refine(i + h, j, h, level + 1))
+                    .add(refine(i, j + h, h, level + 1)).add(refine(i + h, j + h, h, level + 1)).scale(0.25);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package renderer;
+
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import sampling.Sampler;
+
+/**
+ * Policy of terminating the recursion of the reflected and refracted rays.
+ * A branch is cut when it is deeper than the maximal level, and then by its contribution - the product
+ * of the reflection (Kr) and transparency (Kt) factors along the branch:
+ * <ul>
+ * <li>without Russian roulette, a branch whose contribution is below the minimum is cut, as the
+ * tracer always did - this loses the light of all the weak branches</li>
+ * <li>with Russian roulette, a branch whose contribution is below the roulette threshold survives only
+ * at random, with a probability proportional to its contribution, and a surviving branch is boosted by
+ * the inverse of that probability - so the expected color is unbiased while the weak branches are
+ * pruned</li>
+ * </ul>
+ * On top of these, a ray budget bounds the number of the secondary rays of every primary ray, so glass
+ * in front of mirrors can't explode into 2^level rays. The random decisions are seeded by the primary ray,
+ * so a rendering is reproducible whatever the threads are.
+ *
+ * @author Ayelet and Gili
+ */
+public class TerminationPolicy {
+    /** Default maximal recursion level */
+    public static final int DEFAULT_MAX_LEVEL = 10;
+    /** Default minimal contribution of a branch */
+    public static final double DEFAULT_MIN_CONTRIBUTION = 0.001;
+
+    /** Maximal recursion level */
+    private int maxLevel = DEFAULT_MAX_LEVEL;
+    /** Contribution below which a branch is cut, without Russian roulette */
+    private double minContribution = DEFAULT_MIN_CONTRIBUTION;
+    /** Contribution below which a branch plays Russian roulette, 0 for no roulette */
+    private double rouletteThreshold = 0;
+    /** Maximal number of secondary rays per primary ray */
+    private int rayBudget = Integer.MAX_VALUE;
+
+    /**
+     * Sets the maximal recursion level
+     *
+     * @param maxLevel the maximal level, 1 for no secondary rays
+     * @return this
+     * @throws IllegalArgumentException if the level is not positive
+     */
+    public TerminationPolicy setMaxLevel(int maxLevel) {
+        if (maxLevel < 1)
+            throw new IllegalArgumentException("Maximal level must be positive");
+        this.maxLevel = maxLevel;
+        return this;
+    }
+
+    /**
+     * Sets the contribution below which a branch is cut when there is no Russian roulette
+     *
+     * @param minContribution the minimal contribution
+     * @return this
+     * @throws IllegalArgumentException if the contribution is negative
+     */
+    public TerminationPolicy setMinContribution(double minContribution) {
+        if (minContribution < 0)
+            throw new IllegalArgumentException("Minimal contribution must not be negative");
+        this.minContribution = minContribution;
+        return this;
+    }
+
+    /**
+     * Sets the contribution below which a branch plays Russian roulette instead of being cut
+     *
+     * @param rouletteThreshold the threshold in [0,1], 0 turns the roulette off
+     * @return this
+     * @throws IllegalArgumentException if the threshold is out of [0,1]
+     */
+    public TerminationPolicy setRouletteThreshold(double rouletteThreshold) {
+        if (rouletteThreshold < 0 || rouletteThreshold > 1)
+            throw new IllegalArgumentException("Roulette threshold must be in [0,1]");
+        this.rouletteThreshold = rouletteThreshold;
+        return this;
+    }
+
+    /**
+     * Sets the maximal number of secondary (reflected and refracted) rays per primary ray
+     *
+     * @param rayBudget the budget
+     * @return this
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    public TerminationPolicy setRayBudget(int rayBudget) {
+        if (rayBudget < 0)
+            throw new IllegalArgumentException("Ray budget must not be negative");
+        this.rayBudget = rayBudget;
+        return this;
+    }
+
+    /**
+     * @return the maximal recursion level
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * Starts the tracing of a primary ray
+     *
+     * @param ray the primary ray
+     * @return the termination state of the ray tree
+     */
+    Path startPath(Ray ray) {
+        Point p = ray.getP0();
+        Vector v = ray.getDir();
+        return new Path(Sampler.seed(v.getX(), v.getY(), v.getZ()) ^ Sampler.seed(p.getX(), p.getY(), p.getZ()));
+    }
+
+    /**
+     * The termination state of the ray tree of one primary ray - its rays count and random generator
+     */
+    final class Path {
+        /** the number of secondary rays so far */
+        private int rays = 0;
+        /** the state of the random generator */
+        private long state;
+
+        /**
+         * @param seed the seed of the random generator
+         */
+        private Path(long seed) {
+            this.state = seed;
+        }
+
+        /**
+         * Decides whether to trace a branch
+         *
+         * @param k the contribution of the branch
+         * @return 0 to cut the branch, otherwise the factor (1 or more) the branch color is boosted by
+         */
+        double survive(Double3 k) {
+            if (rays >= rayBudget)
+                return 0;
+            double contribution = Math.max(k.d1, Math.max(k.d2, k.d3));
+            double weight = 1;
+            if (contribution < rouletteThreshold) {
+                double probability = contribution / rouletteThreshold;
+                if (Sampler.toUnit(Sampler.mix(state += Sampler.GOLDEN_GAMMA)) >= probability)
+                    return 0;
+                weight = 1 / probability;
+            } else if (contribution < minContribution) {
+                return 0;
+            }
+            ++rays;
+            return weight;
+        }
+    }
+}
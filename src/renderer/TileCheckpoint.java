@@ -0,0 +1,215 @@
+package renderer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Append only checkpoint file of the completed tiles of a rendering, so a rendering that crashed or was
+ * stopped can be resumed without rendering its completed tiles again. Every completed tile is appended
+ * as a record with the accumulated colors of its pixels as floats - and their sample weights, unless all
+ * of them are 1 - so a resumed image is the same as an uninterrupted one. The records are written through
+ * a file channel and synced to the disk every few seconds.
+ * <p>
+ * The file starts with a header of the image resolution and a fingerprint of the camera, and a checkpoint
+ * is resumed only by the same camera. A record is checked by its CRC when it is loaded, and a record torn
+ * by a crash in the middle of its writing is cut off, so the rendering continues from the last complete
+ * tile. The scene isn't in the fingerprint - it must be reloaded the same.
+ *
+ * @author Ayelet and Gili
+ */
+public class TileCheckpoint implements Closeable {
+    /** The first bytes of a checkpoint file - "RTCK" */
+    private static final int MAGIC = 0x5254434B;
+    /** The version of the file format */
+    private static final int VERSION = 1;
+    /** The size of the header - magic, version, resolution and fingerprint */
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8;
+    /** The size of the head of a record after its length - the tile position, size and flags */
+    private static final int RECORD_HEAD_SIZE = 4 * 4 + 1;
+    /** Record flag - the weights of the pixels follow their colors */
+    private static final byte WEIGHTS = 1;
+    /** The time between syncs of the file to the disk, in nanoseconds */
+    private static final long SYNC_INTERVAL = 5_000_000_000L;
+
+    /** The file */
+    private final FileChannel channel;
+    /** The frame buffer the tiles are saved from and loaded into */
+    private final FrameBuffer frame;
+    /** The upper left pixels of the completed tiles, packed as y << 32 | x */
+    private final Set<Long> completed = new HashSet<>();
+    /** The time of the last sync, in nanoseconds */
+    private long lastSync = System.nanoTime();
+
+    /**
+     * Opens a checkpoint file. A resumed file is loaded into the frame buffer, otherwise the file is
+     * started anew.
+     *
+     * @param file        the file
+     * @param frame       the frame buffer of the image
+     * @param fingerprint the fingerprint of the camera
+     * @param resume      whether an existing file is resumed
+     * @throws IOException           if the file can't be read or written
+     * @throws IllegalStateException if the resumed file is not a checkpoint of the same camera
+     */
+    public TileCheckpoint(Path file, FrameBuffer frame, long fingerprint, boolean resume) throws IOException {
+        this.frame = frame;
+        boolean load = resume && Files.exists(file) && Files.size(file) > 0;
+        channel = load ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (load) {
+                readFully(header.clear(), 0);
+                if (header.flip().getInt() != MAGIC || header.getInt() != VERSION)
+                    throw new IllegalStateException("Not a checkpoint file: " + file);
+                if (header.getInt() != frame.getNx() || header.getInt() != frame.getNy()
+                        || header.getLong() != fingerprint)
+                    throw new IllegalStateException("The checkpoint is of another rendering: " + file);
+                long end = loadRecords();
+                // cut off a record torn by a crash
+                channel.truncate(end);
+                channel.position(end);
+            } else {
+                header.putInt(MAGIC).putInt(VERSION).putInt(frame.getNx()).putInt(frame.getNy()).putLong(fingerprint);
+                write(header.flip());
+                channel.force(true);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of completed tiles
+     */
+    public synchronized int getCompletedTiles() {
+        return completed.size();
+    }
+
+    /**
+     * Checks whether a tile is completed
+     *
+     * @param x0 X axis index of the upper left pixel of the tile
+     * @param y0 Y axis index of the upper left pixel of the tile
+     * @return true if the tile is in the checkpoint
+     */
+    public synchronized boolean isCompleted(int x0, int y0) {
+        return completed.contains((long) y0 << 32 | x0);
+    }
+
+    /**
+     * Appends a completed tile from the frame buffer. May be called by several rendering threads.
+     *
+     * @param x0     X axis index of the upper left pixel of the tile
+     * @param y0     Y axis index of the upper left pixel of the tile
+     * @param width  width of the tile
+     * @param height height of the tile
+     * @throws IOException if the file can't be written
+     */
+    public void append(int x0, int y0, int width, int height) throws IOException {
+        boolean weights = !frame.isUnitWeight(x0, y0, width, height);
+        int pixels = width * height;
+        int length = RECORD_HEAD_SIZE + (weights ? 16 : 12) * pixels;
+        ByteBuffer record = ByteBuffer.allocate(4 + length + 4);
+        record.putInt(length).putInt(x0).putInt(y0).putInt(width).putInt(height).put(weights ? WEIGHTS : 0);
+        frame.save(x0, y0, width, height, weights, record);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, length);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        synchronized (this) {
+            write(record);
+            completed.add((long) y0 << 32 | x0);
+            long now = System.nanoTime();
+            if (now - lastSync >= SYNC_INTERVAL) {
+                channel.force(false);
+                lastSync = now;
+            }
+        }
+    }
+
+    /**
+     * Syncs the file to the disk and closes it
+     *
+     * @throws IOException if the file can't be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (channel.isOpen())
+                channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Loads the records of the file into the frame buffer, up to the first incomplete or corrupted one
+     *
+     * @return the end of the last valid record in the file
+     * @throws IOException if the file can't be read
+     */
+    private long loadRecords() throws IOException {
+        long position = HEADER_SIZE, size = channel.size();
+        ByteBuffer length = ByteBuffer.allocate(4);
+        while (position + 4 <= size) {
+            readFully(length.clear(), position);
+            int recordLength = length.flip().getInt();
+            if (recordLength < RECORD_HEAD_SIZE || position + 4 + recordLength + 4 > size)
+                break;
+            ByteBuffer record = ByteBuffer.allocate(recordLength + 4);
+            readFully(record, position + 4);
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), 0, recordLength);
+            if (record.getInt(recordLength) != (int) crc.getValue())
+                break;
+            record.flip();
+            int x0 = record.getInt(), y0 = record.getInt(), width = record.getInt(), height = record.getInt();
+            boolean weights = (record.get() & WEIGHTS) != 0;
+            if (x0 < 0 || y0 < 0 || width < 1 || height < 1 || x0 + width > frame.getNx() || y0 + height > frame.getNy()
+                    || recordLength != RECORD_HEAD_SIZE + (weights ? 16 : 12) * width * height)
+                break;
+            frame.load(x0, y0, width, height, weights, record);
+            completed.add((long) y0 << 32 | x0);
+            position += 4 + recordLength + 4;
+        }
+        return position;
+    }
+
+    /**
+     * Fills a buffer from the file
+     *
+     * @param buffer   the buffer
+     * @param position the position in the file
+     * @throws IOException if the file ends before the buffer is full
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new IOException("Unexpected end of the checkpoint file");
+            position += read;
+        }
+    }
+
+    /**
+     * Writes a buffer completely at the end of the file
+     *
+     * @param buffer the buffer
+     * @throws IOException if the file can't be written
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+}
@@ -0,0 +1,75 @@
+package sampling;
+
+/**
+ * Blue noise sampler - the samples are random but keep a minimal distance from each other, with no
+ * visible structure. The points come from one progressive sequence that is built once by Mitchell's best
+ * candidate algorithm on the torus: each point is the candidate farthest from all the previous ones, so
+ * every prefix of the sequence is blue noise as well. The sets are decorrelated by a random toroidal
+ * shift per seed, which keeps the distances between the points.
+ *
+ * @author Ayelet and Gili
+ */
+public class BlueNoiseSampler implements Sampler {
+    /** Number of points of the precomputed sequence */
+    private static final int SEQUENCE_LENGTH = 1024;
+    /** Number of candidates tried for every point */
+    private static final int CANDIDATES = 16;
+
+    /**
+     * Holder of the sequence, built on the first use
+     */
+    private static final class Sequence {
+        /** the coordinates of the points, 2 per point */
+        static final double[] POINTS = build();
+
+        /**
+         * Builds the sequence by the best candidate algorithm
+         *
+         * @return the coordinates of the points
+         */
+        private static double[] build() {
+            double[] points = new double[2 * SEQUENCE_LENGTH];
+            long state = 0x5eed;
+            for (int n = 0; n < SEQUENCE_LENGTH; ++n) {
+                double bestDistance = -1, bestU = 0, bestV = 0;
+                for (int c = 0; c < CANDIDATES; ++c) {
+                    double u = Sampler.toUnit(Sampler.mix(state += GOLDEN_GAMMA));
+                    double v = Sampler.toUnit(Sampler.mix(state += GOLDEN_GAMMA));
+                    double distance = Double.POSITIVE_INFINITY;
+                    for (int k = 0; k < n && distance > bestDistance; ++k) {
+                        double du = Math.abs(u - points[2 * k]), dv = Math.abs(v - points[2 * k + 1]);
+                        du = Math.min(du, 1 - du);
+                        dv = Math.min(dv, 1 - dv);
+                        distance = Math.min(distance, du * du + dv * dv);
+                    }
+                    if (distance > bestDistance) {
+                        bestDistance = distance;
+                        bestU = u;
+                        bestV = v;
+                    }
+                }
+                points[2 * n] = bestU;
+                points[2 * n + 1] = bestV;
+            }
+            return points;
+        }
+    }
+
+    @Override
+    public void sample2D(double[] samples, int count, long seed) {
+        Sampler.checkLength(samples, count);
+        double[] points = Sequence.POINTS;
+        double shiftU = 0, shiftV = 0;
+        for (int k = 0; k < count; ++k) {
+            // every pass over the sequence gets its own shift
+            if (k % SEQUENCE_LENGTH == 0) {
+                shiftU = Sampler.toUnit(Sampler.mix(seed + (2L * (k / SEQUENCE_LENGTH) + 1) * GOLDEN_GAMMA));
+                shiftV = Sampler.toUnit(Sampler.mix(seed + (2L * (k / SEQUENCE_LENGTH) + 2) * GOLDEN_GAMMA));
+            }
+            int p = k % SEQUENCE_LENGTH;
+            double u = points[2 * p] + shiftU, v = points[2 * p + 1] + shiftV;
+            samples[2 * k] = u >= 1 ? u - 1 : u;
+            samples[2 * k + 1] = v >= 1 ? v - 1 : v;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package sampling;
+
+/**
+ * Halton sequence sampler - the radical inverses of the sample index in bases 2 and 3.
+ * Any prefix of the sequence is evenly spread, so the count doesn't have to be a square.
+ * The sets are decorrelated by a random toroidal shift (Cranley-Patterson rotation) per seed.
+ *
+ * @author Ayelet and Gili
+ */
+public class HaltonSampler implements Sampler {
+
+    @Override
+    public void sample2D(double[] samples, int count, long seed) {
+        sample2D(samples, 0, count, seed);
+    }
+
+    /**
+     * Generates a part of the sequence of a seed - since every prefix of the sequence is evenly spread,
+     * the samples may be taken a few at a time, e.g. one per pass of a progressive rendering
+     *
+     * @param samples receives the samples, the coordinates of sample k at indices 2k and 2k+1
+     * @param first   the index of the first sample in the sequence
+     * @param count   the number of samples
+     * @param seed    the seed that decorrelates the set of samples
+     * @throws IllegalArgumentException if the array is shorter than 2*count or the first index is negative
+     */
+    public void sample2D(double[] samples, int first, int count, long seed) {
+        Sampler.checkLength(samples, count);
+        if (first < 0)
+            throw new IllegalArgumentException("First sample index must not be negative");
+        double shiftU = Sampler.toUnit(Sampler.mix(seed + GOLDEN_GAMMA));
+        double shiftV = Sampler.toUnit(Sampler.mix(seed + 2 * GOLDEN_GAMMA));
+        for (int k = 0; k < count; ++k) {
+            samples[2 * k] = wrap(radicalInverse2(first + k) + shiftU);
+            samples[2 * k + 1] = wrap(radicalInverse3(first + k) + shiftV);
+        }
+    }
+
+    /**
+     * @param value a number in [0,2)
+     * @return the fraction of the number
+     */
+    private static double wrap(double value) {
+        return value >= 1 ? value - 1 : value;
+    }
+
+    /**
+     * Mirrors the binary digits of an index around the binary point
+     *
+     * @param index the index
+     * @return the radical inverse in base 2
+     */
+    private static double radicalInverse2(int index) {
+        return (Integer.reverse(index) & 0xffffffffL) * 0x1.0p-32;
+    }
+
+    /**
+     * Mirrors the ternary digits of an index around the point
+     *
+     * @param index the index
+     * @return the radical inverse in base 3
+     */
+    private static double radicalInverse3(int index) {
+        double result = 0, digit = 1.0 / 3;
+        for (int i = index; i > 0; i /= 3, digit /= 3)
+            result += (i % 3) * digit;
+        return result;
+    }
+}
@@ -0,0 +1,84 @@
+package sampling;
+
+/**
+ * Generator of 2D sample points in the unit square, used for sampling pixels (anti aliasing)
+ * and area lights (soft shadows). The samples are written into a primitive array on demand, and a seed
+ * decorrelates the sets - every pixel or shaded point gets its own variant of the same sequence,
+ * so the errors show as fine noise instead of the banding of one repeated pattern.
+ * The same seed always gives the same samples, so a rendering is reproducible.
+ *
+ * @author Ayelet and Gili
+ */
+public interface Sampler {
+    /** Increment of the state of the random generator (the golden ratio in 64 bits) */
+    long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Generates samples in the unit square [0,1)x[0,1)
+     *
+     * @param samples receives the samples, the coordinates of sample k at indices 2k and 2k+1
+     * @param count   the number of samples
+     * @param seed    the seed that decorrelates the set of samples
+     * @throws IllegalArgumentException if the array is shorter than 2*count
+     */
+    void sample2D(double[] samples, int count, long seed);
+
+    /**
+     * Scrambles the bits of a number (the finalizer of SplitMix64), used as a random generator
+     * by mixing consecutive states
+     *
+     * @param z the number
+     * @return the scrambled number
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Converts random bits into a number in [0,1)
+     *
+     * @param bits the random bits
+     * @return the number
+     */
+    static double toUnit(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Creates a seed of a pixel
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @return the seed
+     */
+    static long seed(int x, int y) {
+        return mix(((long) x << 32) ^ (y & 0xffffffffL));
+    }
+
+    /**
+     * Creates a seed of a point in space, e.g. a shaded point
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param z z coordinate
+     * @return the seed
+     */
+    static long seed(double x, double y, double z) {
+        return mix(Double.doubleToLongBits(x)
+                ^ mix(Double.doubleToLongBits(y) ^ mix(Double.doubleToLongBits(z))));
+    }
+
+    /**
+     * Checks that an array can hold the samples
+     *
+     * @param samples the array
+     * @param count   the number of samples
+     * @throws IllegalArgumentException if the array is shorter than 2*count
+     */
+    static void checkLength(double[] samples, int count) {
+        if (count < 0 || samples.length < 2 * count)
+            throw new IllegalArgumentException("The samples array is too short");
+    }
+}
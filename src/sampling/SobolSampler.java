@@ -0,0 +1,29 @@
+package sampling;
+
+/**
+ * Sobol sequence sampler over the first two dimensions (a (0,2)-sequence): every aligned power of 2
+ * samples form a net that puts exactly one sample into each cell of any partition of the square into
+ * that many equal rectangles. The sets are decorrelated by a random digital shift (an exclusive or
+ * of the bits of the coordinates) per seed, which keeps the net property.
+ *
+ * @author Ayelet and Gili
+ */
+public class SobolSampler implements Sampler {
+
+    @Override
+    public void sample2D(double[] samples, int count, long seed) {
+        Sampler.checkLength(samples, count);
+        long random = Sampler.mix(seed + GOLDEN_GAMMA);
+        int shiftU = (int) random, shiftV = (int) (random >>> 32);
+        for (int k = 0; k < count; ++k) {
+            // the first dimension is the van der Corput sequence
+            int u = Integer.reverse(k);
+            // the second dimension by its direction numbers v(i+1) = v(i) ^ (v(i) >> 1)
+            int v = 0;
+            for (int i = k, direction = 1 << 31; i != 0; i >>>= 1, direction ^= direction >>> 1)
+                if ((i & 1) != 0) v ^= direction;
+            samples[2 * k] = ((u ^ shiftU) & 0xffffffffL) * 0x1.0p-32;
+            samples[2 * k + 1] = ((v ^ shiftV) & 0xffffffffL) * 0x1.0p-32;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package sampling;
+
+/**
+ * Stratified (jittered) sampler - the square is divided into a grid of cells and every sample is placed
+ * at a random position inside its own cell. The grid has exactly one cell per sample - for a count that is
+ * not a perfect square its columns and rows are the pair of factors of the count that is closest to a
+ * square, e.g. 2 x 3 cells for 6 samples, and a prime count is divided into rows only, so the cells
+ * always cover the square evenly.
+ *
+ * @author Ayelet and Gili
+ */
+public class StratifiedSampler implements Sampler {
+
+    @Override
+    public void sample2D(double[] samples, int count, long seed) {
+        Sampler.checkLength(samples, count);
+        if (count == 0) return;
+        int columns = (int) Math.sqrt(count);
+        while (count % columns != 0)
+            --columns;
+        int rows = count / columns;
+        long state = seed;
+        for (int k = 0; k < count; ++k) {
+            double du = Sampler.toUnit(Sampler.mix(state += GOLDEN_GAMMA));
+            double dv = Sampler.toUnit(Sampler.mix(state += GOLDEN_GAMMA));
+            samples[2 * k] = (k % columns + du) / columns;
+            samples[2 * k + 1] = (k / columns + dv) / rows;
+        }
+    }
+}
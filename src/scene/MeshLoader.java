@@ -0,0 +1,708 @@
+package scene;
+
+import geometries.Mesh;
+import geometries.MeshCache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Loader of triangle meshes from Wavefront OBJ and binary PLY files into {@link Mesh} geometries.
+ * The file is mapped into memory and parsed byte by byte straight into the flat vertex and face
+ * arrays of the mesh, without creating a {@link primitives.Point} per vertex or a string per line.
+ * Large files are split into chunks that are parsed in parallel: a first pass counts the vertices and
+ * the faces of each chunk, so the second pass knows where each chunk writes into the shared arrays.
+ * Polygons with more than 3 vertices are split into a fan of triangles.
+ *
+ * @author Ayelet and Gili
+ */
+public final class MeshLoader {
+    /** Minimal size of a chunk of a text file that is parsed by its own task */
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    /** Number of faces of a binary file that are parsed by one task */
+    private static final int FACE_BLOCK = 1 << 16;
+    /** Exact powers of 10 that a double can hold */
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; ++i)
+            POW10[i] = POW10[i - 1] * 10;
+    }
+
+    /** Don't let anyone instantiate this class. */
+    private MeshLoader() {
+    }
+
+    /**
+     * Loads a mesh by the extension of the file name - .obj or .ply
+     *
+     * @param path the file
+     * @return the mesh
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the format is unknown or the file is malformed
+     */
+    public static Mesh load(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase();
+        if (name.endsWith(".obj")) return loadObj(path);
+        if (name.endsWith(".ply")) return loadPly(path);
+        throw new IllegalArgumentException("Unknown mesh format: " + name);
+    }
+
+    /**
+     * Loads a mesh through a binary cache file. If the cache is at least as new as the mesh file
+     * it is opened instead of parsing the mesh file, otherwise the mesh file is loaded and the cache
+     * is written for the next time
+     *
+     * @param path  the mesh file, .obj or .ply
+     * @param cache the cache file
+     * @return the mesh
+     * @throws IOException              if a file can't be read or the cache can't be written
+     * @throws IllegalArgumentException if the mesh file is malformed
+     */
+    public static Mesh loadCached(Path path, Path cache) throws IOException {
+        if (Files.exists(cache) && Files.getLastModifiedTime(cache).compareTo(Files.getLastModifiedTime(path)) >= 0)
+            return MeshCache.read(cache);
+        Mesh mesh = load(path);
+        MeshCache.write(mesh, cache);
+        return mesh;
+    }
+
+    /**
+     * Maps a whole file into memory for reading
+     *
+     * @param path the file
+     * @return the mapped buffer
+     * @throws IOException if the file can't be mapped, or it is too large for a single buffer
+     */
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("The file is too large to be mapped: " + path);
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    // ***************** Wavefront OBJ ********************** //
+
+    /**
+     * Loads a mesh from a Wavefront OBJ file. Only the vertices (v) and the faces (f) are read,
+     * the other statements are skipped
+     *
+     * @param path the file
+     * @return the mesh
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public static Mesh loadObj(Path path) throws IOException {
+        ByteBuffer buffer = map(path);
+        int size = buffer.limit();
+
+        // split the file into chunks that start at the beginning of a line
+        int chunks = Math.max(1, Math.min(4 * Runtime.getRuntime().availableProcessors(), size / MIN_CHUNK_SIZE));
+        int[] bounds = new int[chunks + 1];
+        bounds[chunks] = size;
+        for (int i = 1; i < chunks; ++i) {
+            int p = Math.max(bounds[i - 1], (int) ((long) size * i / chunks));
+            while (p < size && p > 0 && buffer.get(p - 1) != '\n') ++p;
+            bounds[i] = p;
+        }
+
+        // first pass - count the vertices and the triangles of each chunk
+        int[] vertexCounts = new int[chunks];
+        int[] triangleCounts = new int[chunks];
+        IntStream.range(0, chunks).parallel().forEach(i -> {
+            ObjParser parser = new ObjParser(buffer, bounds[i], bounds[i + 1]);
+            parser.count();
+            vertexCounts[i] = parser.vertices;
+            triangleCounts[i] = parser.triangles;
+        });
+
+        int[] vertexOffsets = new int[chunks + 1];
+        int[] triangleOffsets = new int[chunks + 1];
+        for (int i = 0; i < chunks; ++i) {
+            vertexOffsets[i + 1] = vertexOffsets[i] + vertexCounts[i];
+            triangleOffsets[i + 1] = triangleOffsets[i] + triangleCounts[i];
+        }
+
+        // second pass - parse each chunk into its own part of the arrays
+        float[] vertices = new float[3 * vertexOffsets[chunks]];
+        int[] faces = new int[3 * triangleOffsets[chunks]];
+        IntStream.range(0, chunks).parallel().forEach(i ->
+                new ObjParser(buffer, bounds[i], bounds[i + 1])
+                        .parse(vertices, vertexOffsets[i], faces, triangleOffsets[i]));
+        return new Mesh(vertices, faces);
+    }
+
+    /**
+     * Parser of the lines of a chunk of an OBJ file
+     */
+    private static final class ObjParser {
+        /** the file content */
+        private final ByteBuffer buffer;
+        /** the end of the chunk */
+        private final int end;
+        /** the current position */
+        private int pos;
+        /** the number of vertices found in the chunk */
+        int vertices;
+        /** the number of triangles found in the chunk */
+        int triangles;
+
+        /**
+         * Creates a parser of a chunk
+         *
+         * @param buffer the file content
+         * @param start  the start of the chunk
+         * @param end    the end of the chunk
+         */
+        ObjParser(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.pos = start;
+            this.end = end;
+        }
+
+        /**
+         * Counts the vertices and the triangles of the chunk
+         */
+        void count() {
+            while (pos < end) {
+                skipBlanks();
+                int statement = statement();
+                if (statement == 'v') {
+                    ++vertices;
+                } else if (statement == 'f') {
+                    int corners = 0;
+                    while (skipBlanks()) {
+                        ++corners;
+                        skipToken();
+                    }
+                    if (corners > 2) triangles += corners - 2;
+                }
+                skipLine();
+            }
+        }
+
+        /**
+         * Parses the chunk into the arrays
+         *
+         * @param vertexArray   receives the vertex coordinates
+         * @param firstVertex   the index of the first vertex of the chunk
+         * @param faceArray     receives the vertex indices of the triangles
+         * @param firstTriangle the index of the first triangle of the chunk
+         */
+        void parse(float[] vertexArray, int firstVertex, int[] faceArray, int firstTriangle) {
+            int vertex = firstVertex, face = 3 * firstTriangle;
+            while (pos < end) {
+                skipBlanks();
+                int statement = statement();
+                if (statement == 'v') {
+                    for (int axis = 0; axis < 3; ++axis) {
+                        skipBlanks();
+                        vertexArray[3 * vertex + axis] = parseFloat();
+                    }
+                    ++vertex;
+                } else if (statement == 'f') {
+                    int first = -1, previous = -1;
+                    while (skipBlanks()) {
+                        int index = parseInt();
+                        if (index == 0)
+                            throw new IllegalArgumentException("OBJ indices are counted from 1");
+                        // a negative index is relative to the vertices read so far
+                        index = index > 0 ? index - 1 : vertex + index;
+                        skipToken();
+                        if (first < 0) {
+                            first = index;
+                        } else if (previous < 0) {
+                            previous = index;
+                        } else {
+                            faceArray[face++] = first;
+                            faceArray[face++] = previous;
+                            faceArray[face++] = index;
+                            previous = index;
+                        }
+                    }
+                }
+                skipLine();
+            }
+        }
+
+        /**
+         * Reads the keyword at the start of a line, only the vertex and face statements are recognized
+         *
+         * @return 'v' for a vertex, 'f' for a face and 0 for anything else
+         */
+        private int statement() {
+            if (pos + 1 >= end) return 0;
+            byte c = buffer.get(pos), next = buffer.get(pos + 1);
+            if ((c != 'v' && c != 'f') || (next != ' ' && next != '\t')) return 0;
+            ++pos;
+            return c;
+        }
+
+        /**
+         * Skips spaces and tabs
+         *
+         * @return true if there is another token on the line
+         */
+        private boolean skipBlanks() {
+            while (pos < end) {
+                byte c = buffer.get(pos);
+                if (c != ' ' && c != '\t' && c != '\r') return c != '\n' && c != '#';
+                ++pos;
+            }
+            return false;
+        }
+
+        /**
+         * Skips the rest of a token
+         */
+        private void skipToken() {
+            while (pos < end) {
+                byte c = buffer.get(pos);
+                if (c == ' ' || c == '\t' || c == '\r' || c == '\n') return;
+                ++pos;
+            }
+        }
+
+        /**
+         * Skips the rest of the line including the line break
+         */
+        private void skipLine() {
+            while (pos < end && buffer.get(pos++) != '\n') ;
+        }
+
+        /**
+         * Parses a signed integer
+         *
+         * @return the integer
+         */
+        private int parseInt() {
+            boolean negative = pos < end && buffer.get(pos) == '-';
+            if (negative || (pos < end && buffer.get(pos) == '+')) ++pos;
+            int start = pos;
+            long value = 0;
+            while (pos < end) {
+                int d = buffer.get(pos) - '0';
+                if (d < 0 || d > 9) break;
+                value = value * 10 + d;
+                if (value > Integer.MAX_VALUE) throw new IllegalArgumentException("OBJ index out of range");
+                ++pos;
+            }
+            if (pos == start) throw new IllegalArgumentException("Malformed OBJ number at byte " + pos);
+            return (int) (negative ? -value : value);
+        }
+
+        /**
+         * Parses a decimal number, with an optional fraction and exponent
+         *
+         * @return the number
+         */
+        private float parseFloat() {
+            boolean negative = pos < end && buffer.get(pos) == '-';
+            if (negative || (pos < end && buffer.get(pos) == '+')) ++pos;
+            long mantissa = 0;
+            int exponent = 0;
+            boolean digits = false;
+            // integer part - digits beyond the precision of a long only scale the number
+            while (pos < end) {
+                int d = buffer.get(pos) - '0';
+                if (d < 0 || d > 9) break;
+                if (mantissa < 100_000_000_000_000_000L) mantissa = mantissa * 10 + d;
+                else ++exponent;
+                digits = true;
+                ++pos;
+            }
+            // fraction part
+            if (pos < end && buffer.get(pos) == '.') {
+                ++pos;
+                while (pos < end) {
+                    int d = buffer.get(pos) - '0';
+                    if (d < 0 || d > 9) break;
+                    if (mantissa < 100_000_000_000_000_000L) {
+                        mantissa = mantissa * 10 + d;
+                        --exponent;
+                    }
+                    digits = true;
+                    ++pos;
+                }
+            }
+            if (!digits) throw new IllegalArgumentException("Malformed OBJ number at byte " + pos);
+            if (pos < end && (buffer.get(pos) == 'e' || buffer.get(pos) == 'E')) {
+                ++pos;
+                exponent += parseInt();
+            }
+            double value = mantissa;
+            if (exponent < 0)
+                value = -exponent < POW10.length ? value / POW10[-exponent] : value / Math.pow(10, -exponent);
+            else if (exponent > 0)
+                value = exponent < POW10.length ? value * POW10[exponent] : value * Math.pow(10, exponent);
+            return (float) (negative ? -value : value);
+        }
+    }
+
+    // ***************** Binary PLY ********************** //
+
+    /**
+     * A property of an element of a PLY file
+     *
+     * @param name      the property name
+     * @param type      the size in bytes and the kind of the value (or of the list items)
+     * @param countType the type of the list length, or null if the property is not a list
+     */
+    private record PlyProperty(String name, PlyType type, PlyType countType) {
+    }
+
+    /**
+     * An element of a PLY file, with its properties
+     */
+    private static final class PlyElement {
+        /** the element name */
+        final String name;
+        /** the number of element instances */
+        final int count;
+        /** the properties of an instance */
+        final List<PlyProperty> properties = new ArrayList<>();
+
+        /**
+         * @param name  the element name
+         * @param count the number of instances
+         */
+        PlyElement(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        /**
+         * @return the size of an instance in bytes, or -1 if it has list properties
+         */
+        int stride() {
+            int stride = 0;
+            for (PlyProperty property : properties) {
+                if (property.countType != null) return -1;
+                stride += property.type.size;
+            }
+            return stride;
+        }
+
+        /**
+         * Finds the byte offset of a scalar property in an instance
+         *
+         * @param name the property name
+         * @return the offset of the property
+         * @throws IllegalArgumentException if there is no such property
+         */
+        int offsetOf(String name) {
+            int offset = 0;
+            for (PlyProperty property : properties) {
+                if (property.name.equals(name)) return offset;
+                offset += property.type.size;
+            }
+            throw new IllegalArgumentException("PLY " + this.name + " has no property " + name);
+        }
+    }
+
+    /**
+     * The value types of a PLY file
+     */
+    private enum PlyType {
+        /** signed 8 bit integer */
+        INT8(1),
+        /** unsigned 8 bit integer */
+        UINT8(1),
+        /** signed 16 bit integer */
+        INT16(2),
+        /** unsigned 16 bit integer */
+        UINT16(2),
+        /** signed 32 bit integer */
+        INT32(4),
+        /** unsigned 32 bit integer */
+        UINT32(4),
+        /** 32 bit float */
+        FLOAT32(4),
+        /** 64 bit float */
+        FLOAT64(8);
+
+        /** size of a value in bytes */
+        final int size;
+
+        PlyType(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Finds a type by its name in the header, either the old or the sized name
+         *
+         * @param name the name
+         * @return the type
+         */
+        static PlyType of(String name) {
+            return switch (name) {
+                case "char", "int8" -> INT8;
+                case "uchar", "uint8" -> UINT8;
+                case "short", "int16" -> INT16;
+                case "ushort", "uint16" -> UINT16;
+                case "int", "int32" -> INT32;
+                case "uint", "uint32" -> UINT32;
+                case "float", "float32" -> FLOAT32;
+                case "double", "float64" -> FLOAT64;
+                default -> throw new IllegalArgumentException("Unknown PLY type " + name);
+            };
+        }
+
+        /**
+         * Reads a value as an integer
+         *
+         * @param buffer the data
+         * @param pos    the position of the value
+         * @return the value
+         */
+        int readInt(ByteBuffer buffer, int pos) {
+            return switch (this) {
+                case INT8 -> buffer.get(pos);
+                case UINT8 -> buffer.get(pos) & 0xFF;
+                case INT16 -> buffer.getShort(pos);
+                case UINT16 -> buffer.getShort(pos) & 0xFFFF;
+                case INT32, UINT32 -> buffer.getInt(pos);
+                case FLOAT32 -> (int) buffer.getFloat(pos);
+                case FLOAT64 -> (int) buffer.getDouble(pos);
+            };
+        }
+
+        /**
+         * Reads a value as a float
+         *
+         * @param buffer the data
+         * @param pos    the position of the value
+         * @return the value
+         */
+        float readFloat(ByteBuffer buffer, int pos) {
+            return switch (this) {
+                case FLOAT32 -> buffer.getFloat(pos);
+                case FLOAT64 -> (float) buffer.getDouble(pos);
+                default -> readInt(buffer, pos);
+            };
+        }
+    }
+
+    /**
+     * Loads a mesh from a binary (little or big endian) PLY file. The x, y, z properties of the
+     * vertex element and the vertex_indices (or vertex_index) list of the face element are read,
+     * the other properties and elements are skipped
+     *
+     * @param path the file
+     * @return the mesh
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the file is malformed or is an ASCII PLY file
+     */
+    public static Mesh loadPly(Path path) throws IOException {
+        ByteBuffer buffer = map(path);
+        List<PlyElement> elements = new ArrayList<>();
+        int pos = parsePlyHeader(buffer, elements);
+
+        float[] vertices = null;
+        int[] faces = null;
+        for (PlyElement element : elements) {
+            if (element.name.equals("vertex")) {
+                vertices = readPlyVertices(buffer, pos, element);
+            } else if (element.name.equals("face")) {
+                faces = readPlyFaces(buffer, pos, element);
+            }
+            pos = skipPlyElement(buffer, pos, element);
+        }
+        if (vertices == null || faces == null)
+            throw new IllegalArgumentException("PLY file without vertices or faces");
+        return new Mesh(vertices, faces);
+    }
+
+    /**
+     * Parses the text header of a PLY file and sets the byte order of the buffer by the format
+     *
+     * @param buffer   the file content
+     * @param elements receives the elements declared by the header
+     * @return the position of the data after the header
+     */
+    private static int parsePlyHeader(ByteBuffer buffer, List<PlyElement> elements) {
+        int pos = 0;
+        boolean first = true;
+        while (true) {
+            int start = pos;
+            while (pos < buffer.limit() && buffer.get(pos) != '\n') ++pos;
+            if (pos >= buffer.limit())
+                throw new IllegalArgumentException("PLY header without end_header");
+            byte[] bytes = new byte[pos - start];
+            buffer.get(start, bytes);
+            ++pos;
+            String[] words = new String(bytes, StandardCharsets.US_ASCII).trim().split("\\s+");
+            if (first) {
+                if (!words[0].equals("ply")) throw new IllegalArgumentException("Not a PLY file");
+                first = false;
+                continue;
+            }
+            switch (words[0]) {
+                case "format" -> {
+                    switch (words[1]) {
+                        case "binary_little_endian" -> buffer.order(ByteOrder.LITTLE_ENDIAN);
+                        case "binary_big_endian" -> buffer.order(ByteOrder.BIG_ENDIAN);
+                        default -> throw new IllegalArgumentException("Unsupported PLY format " + words[1]);
+                    }
+                }
+                case "element" -> elements.add(new PlyElement(words[1], Integer.parseInt(words[2])));
+                case "property" -> {
+                    if (elements.isEmpty()) throw new IllegalArgumentException("PLY property outside an element");
+                    PlyElement element = elements.get(elements.size() - 1);
+                    if (words[1].equals("list"))
+                        element.properties.add(new PlyProperty(words[4], PlyType.of(words[3]), PlyType.of(words[2])));
+                    else
+                        element.properties.add(new PlyProperty(words[2], PlyType.of(words[1]), null));
+                }
+                case "end_header" -> {
+                    return pos;
+                }
+                default -> {
+                    // comment, obj_info and unknown header lines are ignored
+                }
+            }
+        }
+    }
+
+    /**
+     * Skips the data of an element
+     *
+     * @param buffer  the file content
+     * @param pos     the position of the element data
+     * @param element the element
+     * @return the position after the element data
+     */
+    private static int skipPlyElement(ByteBuffer buffer, int pos, PlyElement element) {
+        int stride = element.stride();
+        if (stride >= 0)
+            return pos + element.count * stride;
+        for (int i = 0; i < element.count; ++i)
+            pos = skipPlyInstance(buffer, pos, element);
+        return pos;
+    }
+
+    /**
+     * Skips one instance of an element with list properties
+     *
+     * @param buffer  the file content
+     * @param pos     the position of the instance
+     * @param element the element
+     * @return the position after the instance
+     */
+    private static int skipPlyInstance(ByteBuffer buffer, int pos, PlyElement element) {
+        for (PlyProperty property : element.properties) {
+            if (property.countType == null) {
+                pos += property.type.size;
+            } else {
+                int length = property.countType.readInt(buffer, pos);
+                pos += property.countType.size + length * property.type.size;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Reads the vertex coordinates, in parallel blocks since the vertices have a fixed size
+     *
+     * @param buffer  the file content
+     * @param pos     the position of the vertex data
+     * @param element the vertex element
+     * @return the vertex coordinates, 3 per vertex
+     */
+    private static float[] readPlyVertices(ByteBuffer buffer, int pos, PlyElement element) {
+        int stride = element.stride();
+        if (stride < 0) throw new IllegalArgumentException("PLY vertices with list properties are not supported");
+        int[] offsets = {element.offsetOf("x"), element.offsetOf("y"), element.offsetOf("z")};
+        PlyType[] types = new PlyType[3];
+        for (PlyProperty property : element.properties)
+            for (int axis = 0; axis < 3; ++axis)
+                if (property.name.equals("xyz".substring(axis, axis + 1))) types[axis] = property.type;
+        float[] vertices = new float[3 * element.count];
+        int blocks = (element.count + FACE_BLOCK - 1) / FACE_BLOCK;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int to = Math.min(element.count, (block + 1) * FACE_BLOCK);
+            for (int v = block * FACE_BLOCK; v < to; ++v) {
+                int base = pos + v * stride;
+                for (int axis = 0; axis < 3; ++axis)
+                    vertices[3 * v + axis] = types[axis].readFloat(buffer, base + offsets[axis]);
+            }
+        });
+        return vertices;
+    }
+
+    /**
+     * Reads the faces as triangles. A first sequential pass walks the variable size faces to find
+     * where every block of faces starts and how many triangles precede it, then the blocks are parsed
+     * in parallel
+     *
+     * @param buffer  the file content
+     * @param pos     the position of the face data
+     * @param element the face element
+     * @return the vertex indices of the triangles, 3 per triangle
+     */
+    private static int[] readPlyFaces(ByteBuffer buffer, int pos, PlyElement element) {
+        int listIndex = -1;
+        for (int i = 0; i < element.properties.size(); ++i) {
+            String name = element.properties.get(i).name;
+            if (element.properties.get(i).countType != null
+                    && (name.equals("vertex_indices") || name.equals("vertex_index"))) listIndex = i;
+        }
+        if (listIndex < 0) throw new IllegalArgumentException("PLY faces without vertex indices");
+        PlyProperty list = element.properties.get(listIndex);
+        // the size of the scalar properties before the list, when all of them are scalars
+        int prefix = 0;
+        for (int i = 0; i < listIndex; ++i) {
+            PlyProperty property = element.properties.get(i);
+            if (property.countType != null)
+                throw new IllegalArgumentException("PLY faces with a list before the vertex indices are not supported");
+            prefix += property.type.size;
+        }
+
+        int blocks = (element.count + FACE_BLOCK - 1) / FACE_BLOCK;
+        int[] blockPositions = new int[blocks];
+        int[] blockTriangles = new int[blocks + 1];
+        int triangles = 0;
+        for (int f = 0; f < element.count; ++f) {
+            if (f % FACE_BLOCK == 0) {
+                blockPositions[f / FACE_BLOCK] = pos;
+                blockTriangles[f / FACE_BLOCK] = triangles;
+            }
+            int corners = list.countType.readInt(buffer, pos + prefix);
+            if (corners > 2) triangles += corners - 2;
+            pos = skipPlyInstance(buffer, pos, element);
+        }
+        blockTriangles[blocks] = triangles;
+
+        int finalPrefix = prefix;
+        int[] faces = new int[3 * triangles];
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int p = blockPositions[block], face = 3 * blockTriangles[block];
+            int to = Math.min(element.count, (block + 1) * FACE_BLOCK);
+            for (int f = block * FACE_BLOCK; f < to; ++f) {
+                int items = p + finalPrefix + list.countType.size;
+                int corners = list.countType.readInt(buffer, p + finalPrefix);
+                int first = list.type.readInt(buffer, items);
+                for (int k = 2; k < corners; ++k) {
+                    faces[face++] = first;
+                    faces[face++] = list.type.readInt(buffer, items + (k - 1) * list.type.size);
+                    faces[face++] = list.type.readInt(buffer, items + k * list.type.size);
+                }
+                p = skipPlyInstance(buffer, p, element);
+            }
+        });
+        return faces;
+    }
+}
@@ -0,0 +1,58 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * unit tests for BoundingBox class
+ * @author gili and ayelet
+ */
+class BoundingBoxTest {
+    BoundingBox box = new BoundingBox(new Point(-1, -1, -1), new Point(1, 1, 1));
+
+    /**
+     * Test method for {@link geometries.BoundingBox#intersect(primitives.Ray, double)}.
+     */
+    @Test
+    void testIntersect() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the box
+        assertEquals(2, box.intersect(new Ray(new Point(-3, 0, 0), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                0.000001, "Wrong entry distance");
+        // TC02: Ray misses the box
+        assertFalse(box.intersects(new Ray(new Point(-3, 0, 0), new Vector(1, 2, 0))), "Ray doesn't hit the box");
+        // TC03: Ray starts after the box
+        assertFalse(box.intersects(new Ray(new Point(3, 0, 0), new Vector(1, 0, 0))), "The box is behind the ray");
+        // TC04: Ray starts inside the box
+        assertEquals(0, box.intersect(new Ray(Point.ZERO, new Vector(1, 1, 1)), Double.POSITIVE_INFINITY),
+                "Entry distance of a ray inside the box must be 0");
+        // TC05: The box is beyond the maximal distance
+        assertFalse(box.intersect(new Ray(new Point(-3, 0, 0), new Vector(1, 0, 0)), 1) != Double.POSITIVE_INFINITY,
+                "The box is farther than the maximal distance");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray parallel to a face inside the slab
+        assertTrue(box.intersects(new Ray(new Point(-3, 0.5, 0), new Vector(1, 0, 0))), "Ray crosses the box");
+        // TC12: Ray parallel to a face outside the slab
+        assertFalse(box.intersects(new Ray(new Point(-3, 2, 0), new Vector(1, 0, 0))), "Ray doesn't hit the box");
+        // TC13: Flat box
+        BoundingBox flat = new BoundingBox(new Point(-1, -1, 0), new Point(1, 1, 0));
+        assertTrue(flat.intersects(new Ray(new Point(0, 0, 5), new Vector(0, 0.1, -1))), "Ray crosses the flat box");
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingBox#union(geometries.BoundingBox)}.
+     */
+    @Test
+    void testUnion() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Union of two separated boxes
+        BoundingBox union = box.union(new BoundingBox(new Point(2, 3, 4), new Point(5, 6, 7)));
+        assertEquals(new Point(-1, -1, -1), union.getMin(), "Wrong minimum corner");
+        assertEquals(new Point(5, 6, 7), union.getMax(), "Wrong maximum corner");
+    }
+}
@@ -37,4 +37,20 @@ class CylinderTest {
         //TC12: test that check if the point is the point center of the base
         //asserEquals(new Vector(0, 0, -1), cylinder.getNormal(new Point(0, 0, 0)), "ERROR: the normal at the top is wrong value");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Cylinder#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: cylinder along the z axis
+        Cylinder cylinder = new Cylinder(1, new Ray(new Point(0, 0, 1), new Vector(0, 0, 1)), 3);
+        assertEquals(new Point(-1, -1, 1), cylinder.getBoundingBox().getMin(), "ERROR: wrong minimum corner");
+        assertEquals(new Point(1, 1, 4), cylinder.getBoundingBox().getMax(), "ERROR: wrong maximum corner");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: the infinite tube has no bounding box
+        assertFalse(new Tube(1, new Ray(Point.ZERO, new Vector(0, 0, 1))).isBounded(), "ERROR: a tube is infinite");
+    }
+}
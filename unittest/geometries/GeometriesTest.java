@@ -1,6 +1,8 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import primitives.Double3;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -44,4 +46,111 @@ class GeometriesTest {
 
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Geometries#findGeoIntersections(primitives.Ray)} with many geometries,
+     * where the geometries are kept in the bounding volume hierarchy.
+     */
+    @Test
+    void testFindIntersectionsHierarchy() {
+        // a grid of 10x10x10 small spheres
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < 10; ++i)
+            for (int j = 0; j < 10; ++j)
+                for (int k = 0; k < 10; ++k)
+                    geometries.add(new Sphere(0.25, new Point(i, j, k)));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray along a row of spheres
+        assertEquals(20, geometries.findIntersections(new Ray(new Point(-1, 3, 4), new Vector(1, 0, 0))).size(),
+                "Wrong number of points");
+        // TC02: Ray along a column of spheres, off their centers
+        assertEquals(20, geometries.findIntersections(new Ray(new Point(7.1, -1, 2), new Vector(0, 1, 0))).size(),
+                "Wrong number of points");
+        // TC03: Ray between the rows
+        assertNull(geometries.findIntersections(new Ray(new Point(-1, 3.5, 4.5), new Vector(1, 0, 0))),
+                "There are no intersections");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Geometry added after a query
+        geometries.add(new Plane(new Point(0, 0, 20), new Vector(0, 0, 1)));
+        assertEquals(21, geometries.findIntersections(new Ray(new Point(0, 0, -1), new Vector(0, 0, 1))).size(),
+                "Wrong number of points");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The box of the composite is the union of the boxes of its geometries
+        Geometries geometries = new Geometries(new Sphere(1, new Point(1, 0, 0)),
+                new Triangle(new Point(-4, 0, 0), new Point(0, 0, 5), new Point(0, -5, 0)));
+        assertEquals(new Point(-4, -5, -1), geometries.getBoundingBox().getMin(), "Wrong minimum corner");
+        assertEquals(new Point(2, 1, 5), geometries.getBoundingBox().getMax(), "Wrong maximum corner");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A composite with an infinite geometry is unbounded
+        geometries.add(new Plane(new Point(0, 0, 1), new Vector(0, 0, 1)));
+        assertFalse(geometries.isBounded(), "A plane is infinite");
+        // TC12: An empty composite is unbounded
+        assertNull(new Geometries().getBoundingBox(), "An empty composite has no box");
+        // TC13: A geometry added to a nested composite after a query grows the box of its parent too
+        Geometries nested = new Geometries(new Sphere(1, new Point(0, 0, 0)));
+        Geometries parent = new Geometries(nested);
+        Ray ray = new Ray(new Point(10, 0, 5), new Vector(0, 0, -1));
+        assertNull(parent.findIntersections(ray), "The ray misses the nested sphere");
+        nested.add(new Sphere(1, new Point(10, 0, 0)));
+        assertEquals(new Point(11, 1, 1), parent.getBoundingBox().getMax(), "The parent box must hold the added sphere");
+        assertNotNull(parent.findIntersections(ray), "The ray must hit the sphere added to the nested composite");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findClosestGeoIntersection(primitives.Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Geometries geometries = new Geometries(new Sphere(1, new Point(5, 0, 0)), new Sphere(1, new Point(10, 0, 0)),
+                new Plane(new Point(3, 0, 0), new Vector(1, 0, 0)));
+        Ray ray = new Ray(new Point(-1, 0, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The closest of all the intersections
+        assertEquals(new Point(3, 0, 0), geometries.findClosestGeoIntersection(ray).point, "Wrong closest point");
+        // TC02: The closest intersection among the bounded geometries
+        assertEquals(new Point(4, 0, 0),
+                new Geometries(new Sphere(1, new Point(10, 0, 0)), new Sphere(1, new Point(5, 0, 0)))
+                        .findClosestGeoIntersection(ray).point, "Wrong closest point");
+        // TC03: All the intersections are beyond the maximal distance
+        assertNull(geometries.findClosestGeoIntersection(ray, 3), "There is no intersection within the distance");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: No intersections at all
+        assertNull(geometries.findClosestGeoIntersection(new Ray(new Point(-1, 0, 0), new Vector(-1, 0, 0))),
+                "There are no intersections");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findTransparency(primitives.Ray, double, double)}.
+     */
+    @Test
+    void testFindTransparency() {
+        Geometries geometries = new Geometries(
+                new Sphere(1, new Point(5, 0, 0)).setMaterial(new Material().setKt(0.5)),
+                new Plane(new Point(10, 0, 0), new Vector(1, 0, 0)));
+        Ray ray = new Ray(new Point(-1, 0, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The segment passes through a transparent sphere only (two intersections)
+        assertEquals(new Double3(0.25), geometries.findTransparency(ray, 8, 0.001), "Wrong transparency");
+        // TC02: The segment reaches the opaque plane
+        assertEquals(Double3.ZERO, geometries.findTransparency(ray, 20, 0.001), "The light is blocked");
+        // TC03: The transparency falls below the minimal factor
+        assertEquals(Double3.ZERO, geometries.findTransparency(ray, 8, 0.3), "The light is considered blocked");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The segment ends before all the geometries
+        assertEquals(Double3.ONE, geometries.findTransparency(ray, 3, 0.001), "Nothing blocks the light");
+    }
+}
@@ -0,0 +1,103 @@
+package geometries;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Unit tests for {@link geometries.MeshCache}
+ */
+class MeshCacheTest {
+
+    /** Folder for the test files */
+    @TempDir
+    Path folder;
+
+    /**
+     * Test method for {@link geometries.MeshCache#read(java.nio.file.Path)}.
+     */
+    @Test
+    void testRead() throws IOException {
+        // a bumpy grid, so the hierarchy has many levels
+        int size = 50;
+        float[] vertices = new float[3 * (size + 1) * (size + 1)];
+        for (int i = 0; i <= size; ++i)
+            for (int j = 0; j <= size; ++j) {
+                int v = 3 * (i * (size + 1) + j);
+                vertices[v] = j;
+                vertices[v + 1] = i;
+                vertices[v + 2] = (i + j) % 2;
+            }
+        int[] faces = new int[6 * size * size];
+        int f = 0;
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j) {
+                int a = i * (size + 1) + j;
+                faces[f++] = a;
+                faces[f++] = a + 1;
+                faces[f++] = a + size + 2;
+                faces[f++] = a;
+                faces[f++] = a + size + 2;
+                faces[f++] = a + size + 1;
+            }
+        Mesh mesh = new Mesh(vertices, faces);
+        Path file = folder.resolve("grid.mesh");
+        MeshCache.write(mesh, file);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the mapped mesh intersects exactly as the original one
+        Mesh mapped = MeshCache.read(file);
+        assertEquals(mesh.getVertexCount(), mapped.getVertexCount(), "Wrong number of vertices");
+        assertEquals(mesh.getFaceCount(), mapped.getFaceCount(), "Wrong number of faces");
+        assertEquals(mesh.getBoundingBox().getMin(), mapped.getBoundingBox().getMin(), "Wrong bounding box");
+        assertEquals(mesh.getBoundingBox().getMax(), mapped.getBoundingBox().getMax(), "Wrong bounding box");
+        for (double x = 0.3; x < size; x += 3.7)
+            for (double y = 2.6; y < size; y += 4.1) {
+                Ray ray = new Ray(new Point(x, y, 5), new Vector(0.1, -0.2, -1));
+                GeoPoint expected = mesh.findClosestGeoIntersection(ray);
+                GeoPoint result = mapped.findClosestGeoIntersection(ray);
+                assertNotNull(result, "The ray must hit the mapped mesh");
+                assertEquals(expected.point, result.point, "Wrong intersection point");
+                assertEquals(expected.getNormal(), result.getNormal(), "Wrong normal");
+            }
+
+        // TC02: a file that is not a cache
+        Path other = folder.resolve("other.mesh");
+        Files.write(other, new byte[100]);
+        assertThrows(IllegalArgumentException.class, () -> MeshCache.read(other), "Read a file that is not a cache");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a truncated cache
+        byte[] content = Files.readAllBytes(file);
+        Path truncated = folder.resolve("truncated.mesh");
+        Files.write(truncated, Arrays.copyOf(content, content.length - 1));
+        assertThrows(IllegalArgumentException.class, () -> MeshCache.read(truncated), "Read a truncated cache");
+
+        // TC12: a cache whose first face refers to a missing vertex
+        ByteBuffer header = ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN);
+        int vertexCount = header.getInt(12), nodeCount = header.getInt(20);
+        int facePosition = (64 + 12 * vertexCount + 63) / 64 * 64;
+        Path badFace = folder.resolve("face.mesh");
+        Files.write(badFace, ByteBuffer.wrap(content.clone()).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(facePosition, vertexCount).array());
+        assertThrows(IllegalArgumentException.class, () -> MeshCache.read(badFace), "Read a face of a missing vertex");
+
+        // TC13: a cache whose root node points back at itself
+        Path badNode = folder.resolve("node.mesh");
+        Files.write(badNode, ByteBuffer.wrap(content.clone()).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(content.length - 8 * nodeCount, 0).array());
+        assertThrows(IllegalArgumentException.class, () -> MeshCache.read(badNode), "Read a broken hierarchy");
+    }
+}
@@ -0,0 +1,173 @@
+package geometries;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+
+/**
+ * Unit tests for {@link geometries.Mesh}
+ */
+class MeshTest {
+
+    /** A unit square in the plane z=0 made of 2 faces that share an edge */
+    private final float[] squareVertices = {0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0};
+    /** The faces of the square */
+    private final int[] squareFaces = {0, 1, 2, 0, 2, 3};
+
+    /**
+     * Builds a grid of size x size squares in the plane z=0, each made of 2 faces
+     *
+     * @param size the number of squares along an edge of the grid
+     * @return the grid mesh
+     */
+    private static Mesh grid(int size) {
+        float[] vertices = new float[3 * (size + 1) * (size + 1)];
+        for (int i = 0; i <= size; ++i)
+            for (int j = 0; j <= size; ++j) {
+                int v = 3 * (i * (size + 1) + j);
+                vertices[v] = j;
+                vertices[v + 1] = i;
+            }
+        int[] faces = new int[6 * size * size];
+        int f = 0;
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j) {
+                int a = i * (size + 1) + j, b = a + 1, c = a + size + 2, d = a + size + 1;
+                faces[f++] = a;
+                faces[f++] = b;
+                faces[f++] = c;
+                faces[f++] = a;
+                faces[f++] = c;
+                faces[f++] = d;
+            }
+        return new Mesh(vertices, faces);
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#Mesh(float[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a correct mesh
+        assertDoesNotThrow(() -> new Mesh(squareVertices, squareFaces), "Failed constructing a correct mesh");
+        // TC02: a face refers to a missing vertex
+        assertThrows(IllegalArgumentException.class, () -> new Mesh(squareVertices, new int[]{0, 1, 4}),
+                "Constructed a mesh with a missing vertex");
+        // TC03: the vertices are not triads
+        assertThrows(IllegalArgumentException.class, () -> new Mesh(new float[]{0, 0, 0, 1}, new int[]{0, 0, 0}),
+                "Constructed a mesh with broken vertices");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: no faces
+        assertThrows(IllegalArgumentException.class, () -> new Mesh(squareVertices, new int[0]),
+                "Constructed a mesh without faces");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#getNormal(primitives.Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        Mesh mesh = new Mesh(squareVertices, squareFaces);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a point on one of the faces
+        Vector n = mesh.getNormal(new Point(0.25, 0.75, 0));
+        assertEquals(1, Math.abs(n.dotProduct(new Vector(0, 0, 1))), 0.000001, "Wrong mesh normal");
+        // TC02: a point off the mesh
+        assertThrows(IllegalArgumentException.class, () -> mesh.getNormal(new Point(2, 2, 0)),
+                "Found a normal off the mesh");
+        // TC03: a point on a face deep in the hierarchy of a large mesh
+        n = grid(20).getNormal(new Point(13.7, 5.2, 0));
+        assertEquals(1, Math.abs(n.dotProduct(new Vector(0, 0, 1))), 0.000001, "Wrong mesh normal");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a point on the shared edge of 2 faces
+        n = mesh.getNormal(new Point(0.5, 0.5, 0));
+        assertEquals(1, Math.abs(n.dotProduct(new Vector(0, 0, 1))), 0.000001, "Wrong mesh normal");
+        // TC12: a face without area, as loaded meshes may have, is skipped
+        Mesh degenerate = new Mesh(new float[]{0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0, 2, 0, 0},
+                new int[]{0, 1, 2, 0, 2, 3, 1, 4, 4});
+        n = degenerate.getNormal(new Point(0.25, 0.75, 0));
+        assertEquals(1, Math.abs(n.dotProduct(new Vector(0, 0, 1))), 0.000001, "Wrong mesh normal");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> degenerate.getNormal(new Point(1.5, 0, 0)), "Found a normal on a face without area");
+        assertEquals("The point is not on the mesh", e.getMessage(), "Wrong failure");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#findGeoIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        Mesh mesh = grid(20);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the ray hits a face
+        List<GeoPoint> result = mesh.findGeoIntersections(new Ray(new Point(3.3, 7.6, 1), new Vector(0, 0, -1)));
+        assertNotNull(result, "The ray must hit the mesh");
+        assertEquals(1, result.size(), "Wrong number of points");
+        assertEquals(new Point(3.3, 7.6, 0), result.get(0).point, "Wrong intersection point");
+        assertEquals(1, Math.abs(result.get(0).getNormal().dotProduct(new Vector(0, 0, 1))), 0.000001,
+                "Wrong normal at the intersection");
+        // TC02: the ray misses the mesh
+        assertNull(mesh.findGeoIntersections(new Ray(new Point(-1, 7.6, 1), new Vector(0, 0, -1))),
+                "The ray must miss the mesh");
+        // TC03: the ray starts behind the mesh
+        assertNull(mesh.findGeoIntersections(new Ray(new Point(3.3, 7.6, -1), new Vector(0, 0, -1))),
+                "The ray starts behind the mesh");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the ray hits the shared edge of 2 faces - it must not slip between them
+        result = mesh.findGeoIntersections(new Ray(new Point(3.5, 3.5, 1), new Vector(0, 0, -1)));
+        assertNotNull(result, "The ray slipped between the faces");
+        assertEquals(1, result.size(), "The shared edge must be hit once");
+        // TC12: the ray hits a vertex shared by 6 faces
+        result = mesh.findGeoIntersections(new Ray(new Point(3, 3, 1), new Vector(0, 0, -1)));
+        assertNotNull(result, "The ray slipped between the faces");
+        assertEquals(1, result.size(), "The shared vertex must be hit once");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#findClosestGeoIntersection(primitives.Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        // 2 parallel squares at z=0 and z=2
+        Mesh mesh = new Mesh(new float[]{0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0, 0, 0, 2, 1, 0, 2, 1, 1, 2, 0, 1, 2},
+                new int[]{0, 1, 2, 0, 2, 3, 4, 5, 6, 4, 6, 7});
+        Ray ray = new Ray(new Point(0.5, 0.25, 3), new Vector(0, 0, -1));
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the closest of 2 hits
+        assertEquals(new Point(0.5, 0.25, 2), mesh.findClosestGeoIntersection(ray).point, "Wrong closest point");
+        // TC02: both hits are beyond the maximal distance
+        assertNull(mesh.findClosestGeoIntersection(ray, 0.5), "Found a point beyond the maximal distance");
+        // TC03: the ray hits the faces from below
+        assertEquals(new Point(0.5, 0.25, 0),
+                mesh.findClosestGeoIntersection(new Ray(new Point(0.5, 0.25, -1), new Vector(0, 0, 1))).point,
+                "Wrong closest point");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#findTransparency(primitives.Ray, double, double)}.
+     */
+    @Test
+    void testFindTransparency() {
+        Mesh mesh = grid(4);
+        mesh.setMaterial(new Material().setKt(0.5));
+        Ray ray = new Ray(new Point(1.3, 2.6, 1), new Vector(0, 0, -1));
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the light passes through one face
+        assertEquals(new Double3(0.5), mesh.findTransparency(ray, 5, 0.001), "Wrong transparency");
+        // TC02: the mesh is beyond the light
+        assertEquals(Double3.ONE, mesh.findTransparency(ray, 0.5, 0.001), "Wrong transparency");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the light passes through the shared edge of 2 faces, once
+        assertEquals(new Double3(0.5), mesh.findTransparency(new Ray(new Point(1.5, 1.5, 1), new Vector(0, 0, -1)),
+                5, 0.001), "Wrong transparency on a shared edge");
+    }
+}
@@ -29,6 +29,25 @@ class SphereTest {
         assertEquals(sphere.getNormal(point), new Vector(1, 0, 0).normalize(), "ERROR: the normal is wrong value");
     }
 
+    /**
+     * Test method for {@link geometries.Intersectable#findClosestGeoIntersection(primitives.Ray)}.
+     */
+    @Test
+    void testClosestGeoIntersection() {
+        Ray ray = new Ray(new Point(-3, 0, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the hit carries its ray parameter, the distance from the head of the ray
+        Intersectable.GeoPoint gp = sphere.findClosestGeoIntersection(ray);
+        assertEquals(new Point(-1, 0, 0), gp.point, "Wrong closest point");
+        assertEquals(2, gp.t, 1e-10, "Wrong ray parameter");
+        assertEquals(ray.getP0().distance(gp.point), gp.getDistance(ray), 1e-10, "Wrong distance");
+        // TC02: the normal and the material are calculated once and then kept
+        assertEquals(new Vector(-1, 0, 0), gp.getNormal(), "Wrong normal");
+        assertSame(gp.getNormal(), gp.getNormal(), "The normal must be cached");
+        assertSame(sphere.getMaterial(), gp.getMaterial(), "Wrong material");
+    }
+
     /**
      * Test method for {@link geometries.Sphere#findIntersections(primitives.Ray)}.
      */
@@ -78,4 +78,37 @@ class TriangleTest {
         assertNull(triangle.findIntersections(ray), "the ray isn't on the vertex");
 
     }
-}
\ No newline at end of file
+
+    /** Test method for {@link geometries.Triangle#findIntersectionDistance(primitives.Ray, double[])}. */
+    @Test
+    public void testFindIntersectionDistance()
+    {
+        Triangle triangle = new Triangle(new Point(0,0,0), new Point(2,0,0),new Point(0,2,0));
+        double[] barycentric = new double[2];
+        // ============ Equivalence Partitions Tests ==============
+
+        //TC01: ray crosses the triangle
+        assertEquals(3, triangle.findIntersectionDistance(new Ray(new Point(0.5, 1, 3), new Vector(0, 0, -1)), barycentric),
+                DELTA, "wrong distance");
+        assertEquals(0.25, barycentric[0], DELTA, "wrong barycentric coordinate of the second vertex");
+        assertEquals(0.5, barycentric[1], DELTA, "wrong barycentric coordinate of the third vertex");
+
+        //TC02: ray misses the triangle
+        assertEquals(0, triangle.findIntersectionDistance(new Ray(new Point(2, 2, 3), new Vector(0, 0, -1)), null),
+                "the ray doesn't cross the triangle");
+
+        //TC03: the triangle is behind the ray
+        assertEquals(0, triangle.findIntersectionDistance(new Ray(new Point(0.5, 0.5, 3), new Vector(0, 0, 1)), null),
+                "the triangle is behind the ray");
+
+        // =============== Boundary Values Tests ==================
+
+        //TC11: ray parallel to the triangle
+        assertEquals(0, triangle.findIntersectionDistance(new Ray(new Point(-1, 0.5, 0), new Vector(1, 0, 0)), null),
+                "the ray is parallel to the triangle");
+
+        //TC12: a tiny face of a mesh, with edges of 5e-7
+        assertEquals(3, Triangle.intersect(1e-7, 1.5e-7, 3, 0, 0, -1, 0, 0, 0, 5e-7, 0, 0, 0, 5e-7, 0, true, null),
+                DELTA, "the ray crosses the tiny triangle");
+    }
+}
@@ -0,0 +1,83 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link lighting.PointLight}
+ */
+class PointLightTest {
+    /** Allowed error of coordinates */
+    private static final double DELTA = 0.000001;
+
+    /** A light of radius 2 */
+    private final PointLight light = new PointLight(new Color(100, 100, 100), new Point(1, 2, 3), 2);
+
+    /**
+     * Checks that points lie on the disk of the light that faces a direction
+     *
+     * @param l      the direction
+     * @param points the coordinates of the points, 3 per point
+     */
+    private void assertOnDisk(Vector l, double[] points) {
+        for (int k = 0; k < points.length / 3; ++k) {
+            double dx = points[3 * k] - 1, dy = points[3 * k + 1] - 2, dz = points[3 * k + 2] - 3;
+            assertEquals(0, dx * l.getX() + dy * l.getY() + dz * l.getZ(), DELTA, "A point off the disk plane");
+            assertTrue(dx * dx + dy * dy + dz * dz <= 4 + DELTA, "A point out of the disk");
+        }
+    }
+
+    /**
+     * Test method for {@link lighting.PointLight#getSamplePoints(primitives.Vector, int, long)}.
+     */
+    @Test
+    void testGetSamplePoints() {
+        Vector l = new Vector(1, -2, 2).normalize();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the lattice points are on the disk that faces the direction
+        double[] points = light.getSamplePoints(l, 9, 5);
+        assertEquals(3 * 81, points.length, "Wrong number of points");
+        assertOnDisk(l, points);
+
+        // TC02: a close direction on the same thread shares the oriented set
+        Vector close = new Vector(1, -2, 2.0001).normalize();
+        assertSame(points, light.getSamplePoints(close, 9, 5), "The oriented set must be reused");
+
+        // TC03: a far direction orients the set again
+        Vector far = new Vector(0, 0, -1);
+        double[] other = light.getSamplePoints(far, 9, 5);
+        assertOnDisk(far, other);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a lattice of a single point is the center of the light
+        double[] center = light.getSamplePoints(l, 1, 5);
+        assertArrayEquals(new double[]{1, 2, 3}, center, DELTA, "The single point must be the center");
+    }
+
+    /**
+     * Test method for {@link lighting.PointLight#getGridPoints(primitives.Vector)}.
+     */
+    @Test
+    void testGetGridPoints() {
+        Vector l = new Vector(0, 1, 0);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the sampled points are on the disk of the light
+        List<Point> points = light.setSampleCount(20).getGridPoints(l);
+        assertEquals(20, points.size(), "Wrong number of points");
+        for (Point p : points) {
+            assertEquals(2, p.getY(), DELTA, "A point off the disk plane");
+            assertTrue(p.distance(new Point(1, 2, 3)) <= 2 + DELTA, "A point out of the disk");
+        }
+        // =============== Boundary Values Tests ==================
+        // TC11: a light without a radius has a single point
+        assertEquals(List.of(new Point(1, 2, 3)), new PointLight(new Color(1, 1, 1), new Point(1, 2, 3)).getGridPoints(l),
+                "A light without radius has only its position");
+    }
+}
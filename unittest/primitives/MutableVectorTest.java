@@ -0,0 +1,131 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * unit tests for the mutable vector class
+ * @author gili and ayelet
+ */
+class MutableVectorTest {
+    /** Delta value for accuracy when comparing the numbers of type 'double' in assertEquals */
+    private static final double DELTA = 0.000001;
+
+    /**
+     * Checks the coordinates of a triad
+     * @param x        expected X axis coordinate
+     * @param y        expected Y axis coordinate
+     * @param z        expected Z axis coordinate
+     * @param actual   the triad
+     * @param message  the failure message
+     */
+    private static void assertTriad(double x, double y, double z, MutableVector actual, String message) {
+        assertEquals(x, actual.x, DELTA, message);
+        assertEquals(y, actual.y, DELTA, message);
+        assertEquals(z, actual.z, DELTA, message);
+    }
+
+    /**
+     * Test method for {@link primitives.MutableVector#setSubtract(primitives.Point, primitives.Point)}.
+     */
+    @Test
+    void testSetSubtract() {
+        MutableVector v = new MutableVector(7, 7, 7);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the vector between two points replaces the old coordinates
+        assertSame(v, v.setSubtract(new Point(2, 3, 4), new Point(1, 1, 1)), "ERROR: setSubtract must return the triad itself");
+        assertTriad(1, 2, 3, v, "ERROR: point - point does not work correctly");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: the difference of a point and itself is a zero triad
+        assertTriad(0, 0, 0, v.setSubtract(new Point(2, 3, 4), new Point(2, 3, 4)), "ERROR: point - itself must be zero");
+    }
+
+    /**
+     * Test method for {@link primitives.MutableVector#setCrossProduct(primitives.MutableVector, primitives.MutableVector)}.
+     */
+    @Test
+    void testSetCrossProduct() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the cross product of two triads is the one of the immutable vectors
+        Vector expected = new Vector(1, 2, 3).crossProduct(new Vector(0, 3, -2));
+        MutableVector v = new MutableVector().setCrossProduct(new MutableVector(1, 2, 3), new MutableVector(0, 3, -2));
+        assertTriad(expected.getX(), expected.getY(), expected.getZ(), v, "ERROR: crossProduct() wrong result");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: the triad itself as an operand
+        v.set(1, 2, 3).setCrossProduct(v, new MutableVector(0, 3, -2));
+        assertTriad(expected.getX(), expected.getY(), expected.getZ(), v, "ERROR: crossProduct() with itself wrong result");
+        //TC12: the cross product of parallel triads is a zero triad
+        assertTriad(0, 0, 0, v.setCrossProduct(new MutableVector(1, 2, 3), new MutableVector(-2, -4, -6)),
+                "ERROR: crossProduct() of parallel triads must be zero");
+    }
+
+    /**
+     * Test method for {@link primitives.MutableVector#addScaled(primitives.Vector, double)}.
+     */
+    @Test
+    void testAddScaled() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: adding a scaled vector
+        assertTriad(-1, 0, 1, new MutableVector(1, 2, 3).addScaled(new Vector(1, 1, 1), -2), "ERROR: addScaled() wrong result");
+        //TC02: adding a scaled triad
+        assertTriad(2, 4, 6, new MutableVector(1, 2, 3).addScaled(new MutableVector(1, 2, 3), 1), "ERROR: addScaled() wrong result");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: adding the negated triad itself gives a zero triad, without an exception
+        MutableVector v = new MutableVector(1, 2, 3);
+        assertTriad(0, 0, 0, v.addScaled(v, -1), "ERROR: v - v must be zero");
+    }
+
+    /**
+     * Test method for {@link primitives.MutableVector#dotProduct(primitives.Vector)}.
+     */
+    @Test
+    void testDotProduct() {
+        MutableVector v = new MutableVector(1, 2, 3);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the dot product with a vector and with a triad
+        assertEquals(-28, v.dotProduct(new Vector(-2, -4, -6)), DELTA, "ERROR: dotProduct() wrong value");
+        assertEquals(-28, v.dotProduct(new MutableVector(-2, -4, -6)), DELTA, "ERROR: dotProduct() wrong value");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: orthogonal triads
+        assertEquals(0, v.dotProduct(new Vector(0, 3, -2)), DELTA, "ERROR: dotProduct() for orthogonal vectors is not zero");
+    }
+
+    /**
+     * Test method for {@link primitives.MutableVector#normalize()}.
+     */
+    @Test
+    void testNormalize() {
+        MutableVector v = new MutableVector(1, 2, 3);
+        double length = Math.sqrt(14);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the length and the unit triad
+        assertEquals(14, v.lengthSquared(), DELTA, "ERROR: lengthSquared() wrong value");
+        assertEquals(length, v.length(), DELTA, "ERROR: length() wrong value");
+        assertTriad(1 / length, 2 / length, 3 / length, v.normalize(), "ERROR: normalize() wrong result");
+        assertEquals(1, v.length(), DELTA, "ERROR: the normalized vector is not a unit vector");
+    }
+
+    /**
+     * Test method for {@link primitives.MutableVector#toVector()}.
+     */
+    @Test
+    void testToVector() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the immutable copies have the same coordinates
+        MutableVector v = new MutableVector(1, 2, 3);
+        assertEquals(new Vector(1, 2, 3), v.toVector(), "ERROR: toVector() wrong result");
+        assertEquals(new Point(1, 2, 3), v.toPoint(), "ERROR: toPoint() wrong result");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: a zero triad can't be a vector, but can be a point
+        v.set(0, 0, 0);
+        assertThrows(IllegalArgumentException.class, v::toVector, "ERROR: zero vector does not throw an exception");
+        assertEquals(Point.ZERO, v.toPoint(), "ERROR: toPoint() wrong result");
+    }
+}
@@ -1,12 +1,23 @@
 package renderer;
 
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.PointLight;
 import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 import scene.Scene;
 
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static renderer.TestCameras.*;
 
 /**
  * Testing Camera Class
@@ -63,4 +74,156 @@ class CameraTest {
 
     }
 
+    /**
+     * Renders a scene of a shiny sphere on a reflecting triangle, lit by a point light
+     * @param threads the number of rendering threads
+     * @return the camera, holding the image
+     */
+    private static Camera renderScene(int threads) {
+        Scene scene = new Scene("Tiled");
+        scene.geometries.add(new Sphere(4, new Point(1, 0, -20)).setEmission(new Color(40, 80, 160))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)),
+                new Triangle(new Point(-20, -6, -10), new Point(20, -6, -10), new Point(0, -6, -40))
+                        .setEmission(new Color(60, 20, 20)).setMaterial(new Material().setKd(0.4).setKr(0.4)));
+        scene.lights.add(new PointLight(new Color(500, 400, 300), new Point(10, 10, 0)).setKl(0.001));
+        return camera(scene, 10, 23, 17, new ImageWriter("tiled", 23, 17))
+                .setAntiAliasing(4).setMultithreading(threads).setTileSize(5)
+                .build().renderImage();
+    }
+
+    /**
+     * Test method for
+     * {@link renderer.Camera#renderImage()}.
+     */
+    @Test
+    void testRenderImageTiled() {
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: the tiles rendered on several threads make the bit identical image of the serial rendering,
+        // also in the partial tiles at the right and the bottom
+        assertSameImage(renderScene(0), renderScene(3), "The tiled image must be the serial one");
+    }
+
+    /**
+     * Renders a scene with adaptive anti aliasing
+     * @param scene      the scene
+     * @param threads    the number of rendering threads
+     * @param statistics the statistics of the rendering
+     * @return the camera, holding the image
+     */
+    private static Camera renderAdaptive(Scene scene, int threads, RenderStatistics statistics) {
+        return camera(scene, 10, 16, 16, new ImageWriter("adaptive", 16, 16))
+                .setAdaptiveAntiAliasing(2, 8).setMultithreading(threads).setTileSize(5).setStatistics(statistics)
+                .build().renderImage();
+    }
+
+    /**
+     * Test method for
+     * {@link renderer.Camera.Builder#setAdaptiveAntiAliasing(int, double)}.
+     */
+    @Test
+    void testAdaptiveAntiAliasing() {
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: a flat image costs a ray per pixel corner, each shared by the neighbour pixels
+        RenderStatistics statistics = new RenderStatistics();
+        renderAdaptive(new Scene("Flat"), 0, statistics);
+        assertEquals(17 * 17, statistics.get(RenderStatistics.Counter.PRIMARY_RAYS), "Flat pixels must not be refined");
+        assertEquals(0, statistics.get(RenderStatistics.Counter.ADAPTIVE_REFINEMENTS), "Flat pixels must not be refined");
+        // EP02: the tiles of 5 pixels share no corners, their seams are traced by both tiles
+        statistics.reset();
+        renderAdaptive(new Scene("Flat"), 3, statistics);
+        assertEquals(20 * 20, statistics.get(RenderStatistics.Counter.PRIMARY_RAYS), "Wrong number of tile corners");
+
+        // EP03: only the pixels on the edge are refined, and get the colors in between
+        Scene scene = edgeScene();
+        statistics.reset();
+        Camera serial = renderAdaptive(scene, 0, statistics);
+        long rays = statistics.get(RenderStatistics.Counter.PRIMARY_RAYS);
+        assertTrue(rays > 17 * 17 && rays < 65 * 65 / 2, "Only the edge must be refined");
+        BufferedImage image = serial.getImageWriter().getImage();
+        boolean blended = false;
+        for (int y = 0; y < 16; ++y)
+            for (int x = 0; x < 16; ++x) {
+                int red = image.getRGB(x, y) >> 16 & 0xFF;
+                blended |= red > 0 && red < 255;
+            }
+        assertTrue(blended, "The edge must be anti aliased");
+
+        // EP04: the tiles rendered on several threads make the same image
+        assertSameImage(serial, renderAdaptive(scene, 3, new RenderStatistics()), "The tiled image must be the serial one");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: a negative depth
+        assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setAdaptiveAntiAliasing(-1, 8),
+                "Accepted a negative depth");
+        // BV02: a negative threshold
+        assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setAdaptiveAntiAliasing(2, -1),
+                "Accepted a negative threshold");
+    }
+
+    /**
+     * Renders the scene of the edge of a red triangle progressively
+     *
+     * @param threads  number of rendering threads
+     * @param samples  number of progressive samples per pixel
+     * @param budget   the time budget, null for no limit
+     * @param listener receiver of the snapshots
+     * @return the camera, holding the image
+     */
+    private static Camera renderProgressive(int threads, int samples, Duration budget, PassListener listener) {
+        return camera(edgeScene(), 10, 16, 16, new ImageWriter("Progressive", 16, 16))
+                .setMultithreading(threads).setTileSize(5)
+                .setProgressive(samples).setTimeBudget(budget).setPassListener(listener)
+                .build().renderImage();
+    }
+
+    /**
+     * Test method for
+     * {@link renderer.Camera.Builder#setProgressive(int)}.
+     */
+    @Test
+    void testProgressive() {
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: a snapshot after every pass, the preview is made of blocks
+        List<Integer> passes = new ArrayList<>();
+        Camera camera = renderProgressive(0, 4, null, (pass, frame) -> {
+            if (pass == 0)
+                for (int y = 0; y < 5; ++y)
+                    for (int x = 0; x < 5; ++x)
+                        assertEquals(frame.getRGB(0, 0), frame.getRGB(x, y), "The preview must be made of blocks");
+            passes.add(pass);
+        });
+        assertEquals(List.of(0, 1, 2, 3, 4), passes, "Wrong passes");
+
+        // EP02: the tiles rendered on several threads make the same image
+        assertSameImage(camera, renderProgressive(3, 4, null, null), "The tiled image must be the serial one");
+
+        // EP03: the rendering stops when the time budget runs out, with the image so far
+        passes.clear();
+        long start = System.nanoTime();
+        BufferedImage image = renderProgressive(0, Integer.MAX_VALUE, Duration.ofMillis(100),
+                (pass, frame) -> passes.add(pass)).getImageWriter().getImage();
+        assertTrue(System.nanoTime() - start < 10_000_000_000L, "The time budget must stop the rendering");
+        assertEquals(0, passes.get(0), "The preview must be completed");
+        assertEquals(255, image.getRGB(0, 15) >> 16 & 0xFF, "The image must be rendered");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: a single sample is the image of the pixel centers
+        BufferedImage single = renderProgressive(0, 1, null, null).getImageWriter().getImage();
+        BufferedImage centers = camera(edgeScene(), 10, 16, 16, new ImageWriter("Single", 16, 16))
+                .build().renderImage().getImageWriter().getImage();
+        for (int y = 0; y < 16; ++y)
+            for (int x = 0; x < 16; ++x)
+                assertEquals(centers.getRGB(x, y), single.getRGB(x, y), "Different pixel " + x + "," + y);
+        // BV02: a zero time budget leaves the preview
+        passes.clear();
+        renderProgressive(0, 4, Duration.ZERO, (pass, frame) -> passes.add(pass));
+        assertEquals(List.of(0), passes, "Only the preview must be rendered");
+        // BV03: a negative number of samples
+        assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setProgressive(-1),
+                "Accepted a negative number of samples");
+        // BV04: a negative time budget
+        assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setTimeBudget(Duration.ofMillis(-1)),
+                "Accepted a negative time budget");
+    }
+
 }
@@ -0,0 +1,50 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing FrameBuffer Class
+ */
+class FrameBufferTest {
+    /** Allowed difference of color components */
+    private static final double DELTA = 0.0001;
+
+    /**
+     * Test method for {@link renderer.FrameBuffer#add(int, int, primitives.Color, double)}.
+     */
+    @Test
+    void testAdd() {
+        FrameBuffer buffer = new FrameBuffer(2, 2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the color of a pixel is the weighted average of its samples
+        buffer.add(1, 0, new Color(100, 0, 300), 1);
+        buffer.add(1, 0, new Color(200, 60, 0), 3);
+        Color color = buffer.getColor(1, 0);
+        assertEquals(175, color.getRgb().d1, DELTA, "Wrong red component");
+        assertEquals(45, color.getRgb().d2, DELTA, "Wrong green component");
+        assertEquals(75, color.getRgb().d3, DELTA, "Wrong blue component");
+        assertEquals(4, buffer.getWeight(1, 0), DELTA, "Wrong weight");
+        // TC02: setting a pixel replaces its samples
+        buffer.set(1, 0, new Color(10, 20, 30));
+        assertEquals(10, buffer.getColor(1, 0).getRgb().d1, DELTA, "The samples must be replaced");
+        assertEquals(1, buffer.getWeight(1, 0), DELTA, "Wrong weight");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a pixel with no samples is black
+        assertEquals(Color.BLACK.getRgb(), buffer.getColor(0, 1).getRgb(), "An empty pixel must be black");
+        // TC12: the colors are kept beyond 255 and clamped only in the image
+        buffer.set(0, 0, new Color(1000, 255.5, 0));
+        assertEquals(1000, buffer.getColor(0, 0).getRgb().d1, DELTA, "The color must not be clamped");
+        assertEquals(0xFFFF00, buffer.toImage().getRGB(0, 0) & 0xFFFFFF, "Wrong 8 bit color");
+        // TC13: no pixels
+        assertThrows(IllegalArgumentException.class, () -> new FrameBuffer(0, 1), "Accepted an empty buffer");
+        // TC14: more pixels than an array holds, which overflowed int into an empty array
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new FrameBuffer(65536, 65536),
+                "Accepted a buffer too big for an array");
+        assertTrue(e.getMessage().contains("streaming"), "The failure must point to streaming: " + e.getMessage());
+    }
+}
@@ -0,0 +1,122 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Color;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing HdrImageWriter Class
+ */
+class HdrImageWriterTest {
+    /** Width of the test frame */
+    private static final int WIDTH = 40;
+    /** Height of the test frame */
+    private static final int HEIGHT = 7;
+    /** Folder of the test files */
+    @TempDir
+    Path folder;
+
+    /**
+     * Builds a frame with flat runs, gradients and colors beyond 255
+     *
+     * @return the frame
+     */
+    private static FrameBuffer frame() {
+        FrameBuffer frame = new FrameBuffer(WIDTH, HEIGHT);
+        for (int y = 0; y < HEIGHT; ++y)
+            for (int x = 0; x < WIDTH; ++x)
+                frame.set(x, y, x < 12 ? new Color(255, 0, 510) : new Color(x * 13.5, y * 40, x * y));
+        return frame;
+    }
+
+    /**
+     * Test method for {@link renderer.HdrImageWriter#write(renderer.FrameBuffer, java.nio.file.Path, renderer.HdrImageWriter.Format)}
+     * in the portable float map format.
+     */
+    @Test
+    void testWritePfm() throws Exception {
+        FrameBuffer frame = frame();
+        Path file = folder.resolve("frame.pfm");
+        try (HdrImageWriter writer = new HdrImageWriter()) {
+            var done = writer.write(frame, file, HdrImageWriter.Format.PFM);
+            // the frame may be reused as soon as it was submitted
+            frame.clear();
+            assertEquals(file, done.get(), "Wrong file");
+        }
+        frame = frame();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the header and the float colors, bottom row first, 255 as 1
+        byte[] bytes = Files.readAllBytes(file);
+        String header = "PF\n" + WIDTH + " " + HEIGHT + "\n-1.0\n";
+        assertEquals(header, new String(bytes, 0, header.length(), StandardCharsets.US_ASCII), "Wrong header");
+        ByteBuffer data = ByteBuffer.wrap(bytes, header.length(), bytes.length - header.length())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(12 * WIDTH * HEIGHT, data.remaining(), "Wrong size");
+        for (int y = HEIGHT - 1; y >= 0; --y)
+            for (int x = 0; x < WIDTH; ++x) {
+                Color color = frame.getColor(x, y);
+                assertEquals(color.getRgb().d1 / 255, data.getFloat(), 1e-6, "Wrong red at " + x + "," + y);
+                assertEquals(color.getRgb().d2 / 255, data.getFloat(), 1e-6, "Wrong green at " + x + "," + y);
+                assertEquals(color.getRgb().d3 / 255, data.getFloat(), 1e-6, "Wrong blue at " + x + "," + y);
+            }
+        assertFalse(Files.exists(folder.resolve("frame.pfm.tmp")), "The temporary file must be moved");
+    }
+
+    /**
+     * Test method for {@link renderer.HdrImageWriter#write(renderer.FrameBuffer, java.nio.file.Path, renderer.HdrImageWriter.Format)}
+     * in the Radiance format.
+     */
+    @Test
+    void testWriteRadiance() throws Exception {
+        FrameBuffer frame = frame();
+        Path file = folder.resolve("frame.hdr");
+        try (HdrImageWriter writer = new HdrImageWriter()) {
+            writer.write(frame, file, HdrImageWriter.Format.RADIANCE).get();
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the run length encoded lines decode into the colors, within the RGBE precision
+        byte[] bytes = Files.readAllBytes(file);
+        String header = "#?RADIANCE\nFORMAT=32-bit_rle_rgbe\n\n-Y " + HEIGHT + " +X " + WIDTH + "\n";
+        assertEquals(header, new String(bytes, 0, header.length(), StandardCharsets.US_ASCII), "Wrong header");
+        int at = header.length();
+        byte[] line = new byte[4 * WIDTH];
+        for (int y = 0; y < HEIGHT; ++y) {
+            assertEquals(2, bytes[at], "Wrong line start");
+            assertEquals(2, bytes[at + 1], "Wrong line start");
+            assertEquals(WIDTH, (bytes[at + 2] & 0xFF) << 8 | bytes[at + 3] & 0xFF, "Wrong line width");
+            at += 4;
+            for (int component = 0; component < 4; ++component)
+                for (int x = 0; x < WIDTH; ) {
+                    int count = bytes[at++] & 0xFF;
+                    if (count > 128) {
+                        for (int k = 0; k < count - 128; ++k)
+                            line[4 * x++ + component] = bytes[at];
+                        ++at;
+                    } else
+                        for (int k = 0; k < count; ++k)
+                            line[4 * x++ + component] = bytes[at++];
+                }
+            for (int x = 0; x < WIDTH; ++x) {
+                Color color = frame.getColor(x, y);
+                double scale = line[4 * x + 3] == 0 ? 0 : Math.scalb(1.0, (line[4 * x + 3] & 0xFF) - 136);
+                double max = Math.max(color.getRgb().d1, Math.max(color.getRgb().d2, color.getRgb().d3)) / 255;
+                assertEquals(color.getRgb().d1 / 255, (line[4 * x] & 0xFF) * scale, max / 128 + 1e-9, "Wrong red");
+                assertEquals(color.getRgb().d2 / 255, (line[4 * x + 1] & 0xFF) * scale, max / 128 + 1e-9, "Wrong green");
+                assertEquals(color.getRgb().d3 / 255, (line[4 * x + 2] & 0xFF) * scale, max / 128 + 1e-9, "Wrong blue");
+            }
+        }
+        assertEquals(bytes.length, at, "Wrong size");
+        // TC02: the flat part of the line is encoded as runs
+        assertTrue(bytes.length - header.length() < 4 * WIDTH * HEIGHT, "The lines must be compressed");
+    }
+}
@@ -0,0 +1,64 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Color;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing PngStreamWriter Class
+ */
+class PngStreamWriterTest {
+    /** Folder of the test files */
+    @TempDir
+    Path folder;
+
+    /**
+     * Test method for {@link renderer.PngStreamWriter#writeRows(renderer.FrameBuffer, int)}.
+     */
+    @Test
+    void testWriteRows() throws IOException {
+        int width = 301, height = 97, bandHeight = 16;
+        FrameBuffer image = new FrameBuffer(width, height);
+        for (int y = 0; y < height; ++y)
+            for (int x = 0; x < width; ++x)
+                image.set(x, y, new Color((x * 7 + y) % 300, (x ^ y) % 256, (x * y) % 256));
+        Path file = folder.resolve("stream.png");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: an image written in bands on several threads is read back as it was
+        FrameBuffer band = new FrameBuffer(width, bandHeight);
+        try (PngStreamWriter png = new PngStreamWriter(file, width, height, 3)) {
+            for (int y0 = 0; y0 < height; y0 += bandHeight) {
+                int rows = Math.min(bandHeight, height - y0);
+                for (int y = 0; y < rows; ++y)
+                    for (int x = 0; x < width; ++x)
+                        band.set(x, y, image.getColor(x, y0 + y));
+                png.writeRows(band, rows);
+            }
+            assertEquals(height, png.getRowsWritten(), "Wrong number of rows");
+        }
+        BufferedImage read = ImageIO.read(file.toFile());
+        assertEquals(width, read.getWidth(), "Wrong width");
+        assertEquals(height, read.getHeight(), "Wrong height");
+        for (int y = 0; y < height; ++y)
+            for (int x = 0; x < width; ++x)
+                assertEquals(image.getRGB(x, y), read.getRGB(x, y) & 0xFFFFFF, "Wrong pixel " + x + "," + y);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: rows beyond the bottom of the image
+        try (PngStreamWriter png = new PngStreamWriter(folder.resolve("short.png"), width, 10, 1)) {
+            assertThrows(IllegalArgumentException.class, () -> png.writeRows(band, 11), "Accepted too many rows");
+        }
+        // TC12: a band of another width
+        try (PngStreamWriter png = new PngStreamWriter(folder.resolve("narrow.png"), width + 1, 10, 1)) {
+            assertThrows(IllegalArgumentException.class, () -> png.writeRows(band, 1), "Accepted a wrong band");
+        }
+    }
+}
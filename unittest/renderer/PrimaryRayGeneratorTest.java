@@ -0,0 +1,90 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing PrimaryRayGenerator Class
+ */
+class PrimaryRayGeneratorTest {
+    /** Camera location off the origin */
+    private final Point p0 = new Point(1, 2, 3);
+    /** Camera direction */
+    private final Vector vTo = new Vector(0, 1, -1).normalize();
+    /** Up vector */
+    private final Vector vUp = new Vector(0, 1, 1).normalize();
+    /** Right vector */
+    private final Vector vRight = vTo.crossProduct(vUp).normalize();
+    /** Generator of a 5x4 image of a 10x8 view plane at distance 7 */
+    private final PrimaryRayGenerator generator = new PrimaryRayGenerator(p0, vTo, vUp, vRight, 7, 10, 8, 5, 4);
+
+    /**
+     * The ray through a point of the view plane, by the vector arithmetic
+     *
+     * @param x offset of the point from the view plane center along the right vector
+     * @param y offset of the point from the view plane center along the up vector
+     * @return the ray
+     */
+    private Ray expected(double x, double y) {
+        Vector direction = vTo.scale(7);
+        if (x != 0) direction = direction.add(vRight.scale(x));
+        if (y != 0) direction = direction.add(vUp.scale(y));
+        return new Ray(p0, direction);
+    }
+
+    /**
+     * Test method for {@link renderer.PrimaryRayGenerator#pixelRay(int, int)}.
+     */
+    @Test
+    void testPixelRay() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a corner pixel
+        assertEquals(expected(-4, 3), generator.pixelRay(0, 0), "Wrong ray through a corner pixel");
+        // TC02: an inner pixel
+        assertEquals(expected(2, -1), generator.pixelRay(3, 2), "Wrong ray through an inner pixel");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the pixel column through the view plane center
+        assertEquals(expected(0, 1), generator.pixelRay(2, 1), "Wrong ray through the center column");
+    }
+
+    /**
+     * Test method for {@link renderer.PrimaryRayGenerator#rowRays(int, int, int, primitives.Ray[])}.
+     */
+    @Test
+    void testRowRays() {
+        Ray[] batch = new Ray[5];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the rays of a part of a row are the rays through its pixels
+        generator.rowRays(1, 3, 3, batch);
+        for (int k = 0; k < 3; ++k)
+            assertEquals(generator.pixelRay(1 + k, 3), batch[k], "Wrong ray of pixel " + k);
+        assertNull(batch[3], "Only the requested rays must be generated");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: pixels beyond the row
+        assertThrows(IllegalArgumentException.class, () -> generator.rowRays(3, 0, 3, batch),
+                "Pixels beyond the row must be rejected");
+        // TC12: a short batch
+        assertThrows(IllegalArgumentException.class, () -> generator.rowRays(0, 0, 5, new Ray[4]),
+                "A short batch must be rejected");
+    }
+
+    /**
+     * Test method for {@link renderer.PrimaryRayGenerator#sampleRay(int, int, double, double)}.
+     */
+    @Test
+    void testSampleRay() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a point inside a pixel
+        assertEquals(expected(-1.5, 0.5), generator.sampleRay(1, 1, 0.75, 0.75), "Wrong ray through a sample");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the middle of a pixel is its center
+        assertEquals(generator.pixelRay(4, 3), generator.sampleRay(4, 3, 0.5, 0.5),
+                "The middle sample must be the pixel center");
+    }
+}
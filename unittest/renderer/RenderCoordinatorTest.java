@@ -0,0 +1,211 @@
+package renderer;
+
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static renderer.TestCameras.assertSameImage;
+
+/**
+ * Testing RenderCoordinator and RenderWorker Classes
+ */
+class RenderCoordinatorTest {
+    /**
+     * A job of a small scene
+     */
+    static final class SceneJob implements RenderJob {
+        /** Version of the serialized jobs */
+        private static final long serialVersionUID = 1L;
+        /** Whether the job fails */
+        private final boolean failing;
+        /** The time of tracing a ray, in milliseconds */
+        private final long rayDelay;
+
+        /**
+         * @param failing  whether rendering the tiles of the job fails
+         * @param rayDelay the time tracing each ray takes, in milliseconds
+         */
+        SceneJob(boolean failing, long rayDelay) {
+            this.failing = failing;
+            this.rayDelay = rayDelay;
+        }
+
+        @Override
+        public Camera createCamera() {
+            Scene scene = new Scene("Distributed");
+            scene.geometries.add(new Sphere(30, new Point(0, 0, -100)).setEmission(new Color(40, 80, 160))
+                            .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)),
+                    new Triangle(new Point(-100, -40, -150), new Point(100, -40, -150), new Point(0, 80, -200))
+                            .setEmission(new Color(80, 20, 20)));
+            scene.lights.add(new PointLight(new Color(500, 400, 300), new Point(50, 60, 0)).setKl(0.001));
+            RayTracerBase simple = new SimpleRayTracer(scene);
+            RayTracerBase rayTracer = failing ? new RayTracerBase(scene) {
+                @Override
+                public Color traceRay(Ray ray) {
+                    throw new IllegalStateException("Failing job");
+                }
+            } : rayDelay == 0 ? simple : new RayTracerBase(scene) {
+                @Override
+                public Color traceRay(Ray ray) {
+                    try {
+                        Thread.sleep(rayDelay);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return simple.traceRay(ray);
+                }
+            };
+            return TestCameras.camera(scene, 100, 100, 80, new ImageWriter("Distributed", 50, 40))
+                    .setRayTracer(rayTracer).build();
+        }
+    }
+
+    /**
+     * Starts a worker process
+     *
+     * @param port the port of the coordinator
+     * @return the process
+     * @throws IOException        if the process can't be started
+     * @throws URISyntaxException if the class path can't be found
+     */
+    private static Process startWorker(int port) throws IOException, URISyntaxException {
+        String classPath = Path.of(RenderWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                + File.pathSeparator
+                + Path.of(SceneJob.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", classPath, RenderWorker.class.getName(), "localhost",
+                String.valueOf(port), "2").redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+    }
+
+    /**
+     * Connects a fake worker that takes a tile and then disconnects, or never answers
+     *
+     * @param port       the port of the coordinator
+     * @param disconnect whether the worker disconnects, otherwise it hangs
+     * @param tileTaken  counted down when the worker took its tile
+     * @return the connection
+     * @throws IOException if the connection fails
+     */
+    private static Socket startFakeWorker(int port, boolean disconnect, CountDownLatch tileTaken) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        Thread thread = new Thread(() -> {
+            try (DataInputStream in = new DataInputStream(socket.getInputStream())) {
+                in.readByte();
+                in.readInt();
+                in.readNBytes(in.readInt());
+                in.readNBytes(1 + 5 * 4);
+                tileTaken.countDown();
+                if (disconnect)
+                    socket.close();
+                else
+                    in.readAllBytes();
+            } catch (IOException ignored) {
+                // the coordinator closed the connection
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return socket;
+    }
+
+    /**
+     * Test method for {@link renderer.RenderCoordinator#render(RenderJob)}.
+     */
+    @Test
+    void testRender() throws Exception {
+        Camera local = new SceneJob(false, 0).createCamera().renderImage();
+        List<Process> processes = new ArrayList<>();
+        try (RenderCoordinator coordinator = new RenderCoordinator(0)) {
+            coordinator.setTileSize(8).setTileTimeout(Duration.ofMillis(300));
+
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: a worker that disconnects and a worker that hangs - their tiles are rendered by the
+            // worker processes, and the image is the same as the local rendering
+            CountDownLatch tilesTaken = new CountDownLatch(2);
+            startFakeWorker(coordinator.getPort(), true, tilesTaken);
+            startFakeWorker(coordinator.getPort(), false, tilesTaken);
+            assertTrue(coordinator.awaitWorkers(2, Duration.ofSeconds(10)), "The fake workers must connect");
+            processes.add(startWorker(coordinator.getPort()));
+            processes.add(startWorker(coordinator.getPort()));
+            assertTrue(coordinator.awaitWorkers(6, Duration.ofSeconds(30)), "The worker processes must connect");
+            Camera camera = coordinator.render(new SceneJob(false, 0));
+            assertSameImage(local, camera, "The distributed image must be the same as the local one");
+            assertTrue(coordinator.getReassignments() >= 2, "The tiles of the failed workers must be reassigned");
+            assertEquals(0, tilesTaken.getCount(), "The fake workers must have taken tiles");
+
+            // TC02: the next job is rendered by the same workers
+            assertSameImage(local, coordinator.render(new SceneJob(false, 0)), "The second job must be rendered");
+
+            // TC03: a job whose tiles render for longer than the tile timeout doesn't fail - the late tiles
+            // are given to other workers too
+            coordinator.setTileTimeout(Duration.ofMillis(50)).setMaxAttempts(1);
+            assertSameImage(local, coordinator.render(new SceneJob(false, 2)), "A slow job must be rendered");
+            coordinator.setTileTimeout(Duration.ofMillis(300));
+
+            // TC04: a job whose tiles fail on every worker fails after the maximal number of attempts
+            coordinator.setMaxAttempts(2);
+            IllegalStateException failure = assertThrows(IllegalStateException.class,
+                    () -> coordinator.render(new SceneJob(true, 0)), "A failing job must fail");
+            assertTrue(failure.getMessage().contains("Failing job"), "Wrong failure: " + failure.getMessage());
+
+            // =============== Boundary Values Tests ==================
+            // TC11: invalid settings
+            assertThrows(IllegalArgumentException.class, () -> coordinator.setTileSize(0), "Accepted tile size 0");
+            assertThrows(IllegalArgumentException.class, () -> coordinator.setMaxAttempts(0), "Accepted 0 attempts");
+            assertThrows(IllegalArgumentException.class, () -> coordinator.setTileTimeout(Duration.ZERO),
+                    "Accepted a zero timeout");
+        } finally {
+            for (Process process : processes) {
+                boolean ended = process.waitFor(10, TimeUnit.SECONDS);
+                if (!ended)
+                    process.destroyForcibly();
+                assertTrue(ended, "The worker process must end when the coordinator closes");
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.RenderCoordinator#render(RenderJob)} without workers.
+     */
+    @Test
+    void testRenderWithoutWorkers() throws Exception {
+        try (RenderCoordinator coordinator = new RenderCoordinator(0)) {
+            coordinator.setTileSize(8).setTileTimeout(Duration.ofMillis(200));
+
+            // =============== Boundary Values Tests ==================
+            // TC11: the only worker dies while rendering a tile - the job fails instead of waiting forever
+            CountDownLatch tileTaken = new CountDownLatch(1);
+            startFakeWorker(coordinator.getPort(), true, tileTaken);
+            assertTrue(coordinator.awaitWorkers(1, Duration.ofSeconds(10)), "The fake worker must connect");
+            IllegalStateException failure = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> assertThrows(IllegalStateException.class, () -> coordinator.render(new SceneJob(false, 0)),
+                            "A job whose only worker died must fail"));
+            assertTrue(failure.getMessage().contains("No worker"), "Wrong failure: " + failure.getMessage());
+            assertEquals(0, tileTaken.getCount(), "The fake worker must have taken a tile");
+
+            // TC12: no worker ever connects
+            failure = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> assertThrows(IllegalStateException.class, () -> coordinator.render(new SceneJob(false, 0)),
+                            "A job without workers must fail"));
+            assertTrue(failure.getMessage().contains("No worker"), "Wrong failure: " + failure.getMessage());
+        }
+    }
+}
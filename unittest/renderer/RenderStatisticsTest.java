@@ -0,0 +1,93 @@
+package renderer;
+
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static renderer.RenderStatistics.Counter.*;
+
+/**
+ * Testing RenderStatistics Class
+ */
+class RenderStatisticsTest {
+    /** Resolution of the test images */
+    private static final int RESOLUTION = 40;
+
+    /**
+     * Renders a scene with a mirror, a transparent sphere and an area light
+     *
+     * @param statistics the statistics of the rendering
+     * @param threads    the number of rendering threads
+     */
+    private static void render(RenderStatistics statistics, int threads) {
+        Scene scene = new Scene("Statistics scene");
+        scene.geometries.add(
+                new Sphere(30, new Point(0, 0, -150)).setEmission(new Color(40, 80, 120))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30).setKt(0.5)),
+                new Triangle(new Point(-150, -60, -300), new Point(150, -60, -300), new Point(0, 150, -300))
+                        .setEmission(new Color(60, 20, 20)).setMaterial(new Material().setKd(0.6).setKr(0.5)));
+        scene.lights.add(new PointLight(new Color(500, 400, 300), new Point(60, 60, 0), 5));
+        TestCameras.camera(scene, 100, 160, 160, new ImageWriter("statistics", RESOLUTION, RESOLUTION))
+                .setMultithreading(threads).setTileSize(8).setStatistics(statistics)
+                .build().renderImage();
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#renderImage()} with statistics.
+     */
+    @Test
+    void testRenderStatistics() {
+        RenderStatistics statistics = new RenderStatistics();
+        render(statistics, 0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a primary ray per pixel, and secondary and shadow rays
+        assertEquals(RESOLUTION * RESOLUTION, statistics.get(PRIMARY_RAYS), "Wrong number of primary rays");
+        assertTrue(statistics.get(REFLECTION_RAYS) > 0, "No reflected rays");
+        assertTrue(statistics.get(REFRACTION_RAYS) > 0, "No refracted rays");
+        assertTrue(statistics.get(SHADOW_RAYS) > 0, "No shadow rays");
+        assertTrue(statistics.get(ADAPTIVE_REFINEMENTS) > 0, "The penumbra must be refined");
+        assertTrue(statistics.getAverageDepth() >= 1, "Wrong average depth");
+        assertTrue(statistics.getTime(RenderStatistics.Phase.RENDER) > 0, "The rendering was not timed");
+        // TC02: the intersection tests by the geometry type
+        long tests = statistics.getIntersections().getTests(Sphere.class);
+        assertTrue(tests > 0, "No sphere tests");
+        assertTrue(statistics.getIntersections().getHits(Sphere.class) > 0, "No sphere hits");
+        assertTrue(statistics.getIntersections().getHits(Sphere.class) < tests, "Every test can't hit");
+        assertTrue(statistics.summary().contains("Triangle"), "The summary must list the geometry types");
+        // TC03: the parallel rendering counts the same rays
+        RenderStatistics parallel = new RenderStatistics();
+        render(parallel, 4);
+        for (RenderStatistics.Counter counter : RenderStatistics.Counter.values())
+            assertEquals(statistics.get(counter), parallel.get(counter), "Different count of " + counter);
+        assertEquals(tests, parallel.getIntersections().getTests(Sphere.class), "Different number of tests");
+        // TC04: overlapping renderings count into their own statistics
+        RenderStatistics first = new RenderStatistics(), second = new RenderStatistics();
+        Thread other = new Thread(() -> render(second, 2));
+        other.start();
+        render(first, 2);
+        assertDoesNotThrow(() -> other.join(), "Interrupted");
+        assertEquals(tests, first.getIntersections().getTests(Sphere.class), "Counted the tests of another rendering");
+        assertEquals(tests, second.getIntersections().getTests(Sphere.class), "Counted the tests of another rendering");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the geometries are not counted after the rendering
+        new Sphere(1, Point.ZERO).findIntersections(new Ray(new Point(0, 0, 5), new Vector(0, 0, -1)));
+        assertEquals(tests, statistics.getIntersections().getTests(Sphere.class), "Counted after the rendering");
+        // TC12: reset
+        statistics.reset();
+        assertEquals(0, statistics.get(PRIMARY_RAYS), "The counters must be reset");
+        assertEquals(0, statistics.getIntersections().getTests(Sphere.class), "The tests must be reset");
+        // TC13: the statistics given to the ray tracer itself are kept after a rendering with other statistics
+        RenderStatistics own = new RenderStatistics();
+        RayTracerBase rayTracer = new SimpleRayTracer(new Scene("Own statistics")).setStatistics(own);
+        TestCameras.camera(new Scene("Own statistics"), 100, 160, 160, new ImageWriter("statistics", 4, 4))
+                .setRayTracer(rayTracer).setStatistics(statistics).build().renderImage();
+        assertSame(own, rayTracer.getStatistics(), "The statistics of the ray tracer must be restored");
+        assertEquals(0, own.get(PRIMARY_RAYS), "The rays of the camera must not be counted in the tracer statistics");
+    }
+}
@@ -0,0 +1,65 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Double3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing SoftShadowEstimator Class
+ */
+class SoftShadowEstimatorTest {
+    /** Allowed difference of estimated transparencies */
+    private static final double DELTA = 0.000001;
+
+    /**
+     * Test method for {@link renderer.SoftShadowEstimator#estimate(renderer.SoftShadowEstimator.Probe)}.
+     */
+    @Test
+    void testEstimate() {
+        SoftShadowEstimator estimator = new SoftShadowEstimator(81);
+        int[] rays = {0};
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a fully lit light is split once and costs the 9 rays of a 3x3 lattice
+        Double3 result = estimator.estimate(index -> {
+            ++rays[0];
+            return Double3.ONE;
+        });
+        assertEquals(Double3.ONE, result, "Wrong transparency of a lit light");
+        assertEquals(9, rays[0], "A lit light must not be refined");
+
+        // TC02: half of the light is blocked - only the cells on the border are refined
+        rays[0] = 0;
+        int side = estimator.getSide();
+        result = estimator.estimate(index -> {
+            ++rays[0];
+            return index / side < 0.45 * (side - 1) ? Double3.ZERO : Double3.ONE;
+        });
+        assertEquals(0.5, result.d1, 0.1, "Wrong transparency of a half blocked light");
+        assertTrue(rays[0] > 9 && rays[0] < 81, "Only the penumbra must be refined");
+
+        // TC03: the rays never exceed the budget, however noisy the shadow is
+        estimator = new SoftShadowEstimator(30);
+        rays[0] = 0;
+        estimator.estimate(index -> {
+            ++rays[0];
+            return index % 2 == 0 ? Double3.ZERO : Double3.ONE;
+        });
+        assertTrue(rays[0] <= 30, "The rays exceeded the budget");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a budget too small for a lattice traces a single ray to the center
+        rays[0] = 0;
+        estimator = new SoftShadowEstimator(8);
+        assertEquals(1, estimator.getSide(), "Wrong lattice side");
+        result = estimator.estimate(index -> {
+            ++rays[0];
+            return new Double3(index);
+        });
+        assertEquals(1, rays[0], "Wrong number of rays");
+        assertEquals(0, result.d1, DELTA, "The single ray must go to the center");
+        // TC12: a budget that is not positive
+        assertThrows(IllegalArgumentException.class, () -> new SoftShadowEstimator(0), "Accepted an empty budget");
+    }
+}
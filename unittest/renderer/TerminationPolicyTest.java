@@ -0,0 +1,81 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing TerminationPolicy Class
+ */
+class TerminationPolicyTest {
+    /** A primary ray */
+    private static final Ray RAY = new Ray(new Point(0, 0, 10), new Vector(0, 0, -1));
+
+    /**
+     * Test method for {@link renderer.TerminationPolicy.Path#survive(primitives.Double3)}.
+     */
+    @Test
+    void testSurvive() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the default policy keeps a strong branch as is
+        TerminationPolicy.Path path = new TerminationPolicy().startPath(RAY);
+        assertEquals(1, path.survive(new Double3(0.5)), "A strong branch must not be weighted");
+        // TC02: the default policy cuts a weak branch
+        assertEquals(0, path.survive(new Double3(0.0005)), "A weak branch must be cut");
+
+        // TC03: the roulette keeps the expected weight of a weak branch
+        TerminationPolicy policy = new TerminationPolicy().setRouletteThreshold(0.1);
+        double sum = 0;
+        int survivors = 0, paths = 20000;
+        for (int i = 0; i < paths; ++i) {
+            double weight = policy.startPath(new Ray(new Point(i, 0, 10), new Vector(0, 0, -1)))
+                    .survive(new Double3(0.05));
+            sum += weight;
+            if (weight != 0) {
+                ++survivors;
+                assertEquals(2, weight, 1e-9, "Wrong weight of a surviving branch");
+            }
+        }
+        assertEquals(1, sum / paths, 0.05, "The roulette is biased");
+        assertTrue(survivors < paths, "The roulette must cut some of the weak branches");
+
+        // TC04: the same primary ray makes the same decisions
+        TerminationPolicy.Path first = policy.startPath(RAY), second = policy.startPath(RAY);
+        for (int i = 0; i < 10; ++i)
+            assertEquals(first.survive(new Double3(0.01)), second.survive(new Double3(0.01)),
+                    "The decisions must be reproducible");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the budget ends the tree after its rays
+        path = new TerminationPolicy().setRayBudget(3).startPath(RAY);
+        for (int i = 0; i < 3; ++i)
+            assertEquals(1, path.survive(Double3.ONE), "A ray within the budget must be traced");
+        assertEquals(0, path.survive(Double3.ONE), "A ray beyond the budget must be cut");
+        // TC12: a branch exactly at the minimal contribution is traced
+        assertEquals(1, new TerminationPolicy().startPath(RAY).survive(new Double3(0.001)),
+                "A branch at the minimal contribution must be traced");
+    }
+
+    /**
+     * Test method for the setters of {@link renderer.TerminationPolicy}.
+     */
+    @Test
+    void testSetters() {
+        TerminationPolicy policy = new TerminationPolicy();
+        // =============== Boundary Values Tests ==================
+        // TC11: no levels
+        assertThrows(IllegalArgumentException.class, () -> policy.setMaxLevel(0), "Accepted no levels");
+        // TC12: negative contribution
+        assertThrows(IllegalArgumentException.class, () -> policy.setMinContribution(-0.1),
+                "Accepted a negative contribution");
+        // TC13: threshold above 1
+        assertThrows(IllegalArgumentException.class, () -> policy.setRouletteThreshold(1.5),
+                "Accepted a threshold above 1");
+        // TC14: negative budget
+        assertThrows(IllegalArgumentException.class, () -> policy.setRayBudget(-1), "Accepted a negative budget");
+    }
+}
@@ -0,0 +1,76 @@
+package renderer;
+
+import geometries.Triangle;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cameras and scenes shared by the rendering tests, and the comparison of their images
+ */
+final class TestCameras {
+    /** Don't let anyone instantiate this class. */
+    private TestCameras() {
+    }
+
+    /**
+     * Starts a camera at the origin, looking down the -Z axis with the Y axis up
+     *
+     * @param scene       the scene, traced by a {@link SimpleRayTracer}
+     * @param distance    the distance of the view plane
+     * @param width       the width of the view plane
+     * @param height      the height of the view plane
+     * @param imageWriter the image writer
+     * @return the camera builder, for more settings
+     */
+    static Camera.Builder camera(Scene scene, double distance, double width, double height, ImageWriter imageWriter) {
+        return Camera.getBuilder().setRayTracer(new SimpleRayTracer(scene)).setImageWriter(imageWriter)
+                .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpDistance(distance).setVpSize(width, height);
+    }
+
+    /**
+     * Builds a scene of a red triangle, whose slanted edge crosses a view plane of 16x16 at distance 10
+     *
+     * @return the scene
+     */
+    static Scene edgeScene() {
+        Scene scene = new Scene("Edge");
+        scene.geometries.add(new Triangle(new Point(-100, -100, -10), new Point(100, -100, -10), new Point(-100, 97, -10))
+                .setEmission(new Color(255, 0, 0)));
+        return scene;
+    }
+
+    /**
+     * Checks that two images are bit identical - the same colors and the same weights of samples
+     *
+     * @param expected the expected image
+     * @param actual   the tested image
+     * @param message  the failure message
+     */
+    static void assertSameImage(FrameBuffer expected, FrameBuffer actual, String message) {
+        assertEquals(expected.getNx(), actual.getNx(), message + " - different width");
+        assertEquals(expected.getNy(), actual.getNy(), message + " - different height");
+        for (int y = 0; y < expected.getNy(); ++y)
+            for (int x = 0; x < expected.getNx(); ++x) {
+                Double3 a = expected.getColor(x, y).getRgb(), b = actual.getColor(x, y).getRgb();
+                String pixel = message + " - pixel " + x + "," + y;
+                assertEquals(Double.doubleToLongBits(a.d1), Double.doubleToLongBits(b.d1), pixel);
+                assertEquals(Double.doubleToLongBits(a.d2), Double.doubleToLongBits(b.d2), pixel);
+                assertEquals(Double.doubleToLongBits(a.d3), Double.doubleToLongBits(b.d3), pixel);
+                assertEquals(expected.getWeight(x, y), actual.getWeight(x, y), pixel);
+            }
+    }
+
+    /**
+     * Checks that two cameras rendered bit identical images
+     *
+     * @param expected the camera of the expected image
+     * @param actual   the camera of the tested image
+     * @param message  the failure message
+     */
+    static void assertSameImage(Camera expected, Camera actual, String message) {
+        assertSameImage(expected.getImageWriter().getFrameBuffer(), actual.getImageWriter().getFrameBuffer(), message);
+    }
+}
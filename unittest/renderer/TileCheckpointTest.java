@@ -0,0 +1,98 @@
+package renderer;
+
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static renderer.TestCameras.assertSameImage;
+
+/**
+ * Testing TileCheckpoint Class
+ */
+class TileCheckpointTest {
+    /** Size of the tested images in pixels */
+    private static final int SIZE = 20;
+    /** Number of tiles in the tested images */
+    private static final int TILES = 4;
+
+    /**
+     * Builds a camera of a sphere scene that checkpoints its tiles
+     *
+     * @param file       the checkpoint file
+     * @param width      width of the view plane
+     * @param threads    number of rendering threads
+     * @param statistics receives the number of the traced rays
+     * @return the camera
+     */
+    private static Camera camera(Path file, double width, int threads, RenderStatistics statistics) {
+        Scene scene = new Scene("Checkpoint");
+        scene.geometries.add(new Sphere(8, new Point(2, 1, -30)).setEmission(new Color(30, 160, 90)));
+        return TestCameras.camera(scene, 20, width, 20, new ImageWriter("Checkpoint", SIZE, SIZE))
+                .setTileSize(SIZE / 2).setAntiAliasing(4)
+                .setMultithreading(threads).setStatistics(statistics).setCheckpoint(file).build();
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#resumeImage()}.
+     */
+    @Test
+    void testResume() throws IOException {
+        Path file = Files.createTempFile("checkpoint", ".rtck");
+        try {
+            RenderStatistics statistics = new RenderStatistics();
+            Camera full = camera(file, 20, 0, statistics).renderImage();
+            long fullRays = statistics.get(RenderStatistics.Counter.PRIMARY_RAYS);
+            long size = Files.size(file);
+            long record = (size - 24) / TILES;
+            assertEquals(size, 24 + TILES * record, "The tiles must be appended as records of the same size");
+
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: a rendering that crashed in the middle of writing its third tile is resumed from the
+            // first 2 tiles, and makes the same image
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(24 + 2 * record + record / 2);
+            }
+            statistics.reset();
+            Camera resumed = camera(file, 20, 2, statistics).resumeImage();
+            assertEquals(fullRays / 2, statistics.get(RenderStatistics.Counter.PRIMARY_RAYS),
+                    "Only the missing tiles must be rendered");
+            assertSameImage(full, resumed, "The resumed image must be the full one");
+            assertEquals(size, Files.size(file), "The torn record must be replaced by the missing tiles");
+
+            // TC02: a completed checkpoint is resumed without rendering
+            statistics.reset();
+            assertSameImage(full, camera(file, 20, 0, statistics).resumeImage(), "The resumed image must be the full one");
+            assertEquals(0, statistics.get(RenderStatistics.Counter.PRIMARY_RAYS), "Nothing must be rendered");
+
+            // TC03: a checkpoint of another camera is not resumed
+            assertThrows(IllegalStateException.class, () -> camera(file, 30, 0, null).resumeImage(),
+                    "Resumed the checkpoint of another camera");
+
+            // TC04: a new rendering starts the checkpoint anew
+            statistics.reset();
+            camera(file, 20, 0, statistics).renderImage();
+            assertEquals(fullRays, statistics.get(RenderStatistics.Counter.PRIMARY_RAYS), "The whole image must be rendered");
+            assertEquals(size, Files.size(file), "The checkpoint must be started anew");
+
+            // =============== Boundary Values Tests ==================
+            // TC11: a missing checkpoint is resumed by rendering the whole image
+            Files.delete(file);
+            statistics.reset();
+            assertSameImage(full, camera(file, 20, 0, statistics).resumeImage(), "The resumed image must be the full one");
+            assertEquals(fullRays, statistics.get(RenderStatistics.Counter.PRIMARY_RAYS), "The whole image must be rendered");
+            // TC12: resuming without a checkpoint file
+            assertThrows(UnsupportedOperationException.class, () -> camera(null, 20, 0, null).resumeImage(),
+                    "Resumed without a checkpoint file");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
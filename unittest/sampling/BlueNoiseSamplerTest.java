@@ -0,0 +1,42 @@
+package sampling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link sampling.BlueNoiseSampler}
+ */
+class BlueNoiseSamplerTest {
+
+    /**
+     * Test method for {@link sampling.BlueNoiseSampler#sample2D(double[], int, long)}.
+     */
+    @Test
+    void testSample2D() {
+        Sampler sampler = new BlueNoiseSampler();
+        int count = 64;
+        double[] samples = new double[2 * count];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: no 2 samples are much closer than the spacing of a grid of the same count
+        sampler.sample2D(samples, count, 3);
+        double minDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < count; ++i)
+            for (int j = i + 1; j < count; ++j) {
+                double du = Math.abs(samples[2 * i] - samples[2 * j]);
+                double dv = Math.abs(samples[2 * i + 1] - samples[2 * j + 1]);
+                du = Math.min(du, 1 - du);
+                dv = Math.min(dv, 1 - dv);
+                minDistance = Math.min(minDistance, Math.sqrt(du * du + dv * dv));
+            }
+        assertTrue(minDistance > 0.5 / Math.sqrt(count), "The samples are clumped");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: more samples than the precomputed sequence stay in the unit square
+        double[] many = new double[2 * 3000];
+        sampler.sample2D(many, 3000, 3);
+        for (double coordinate : many)
+            assertTrue(coordinate >= 0 && coordinate < 1, "A sample out of the unit square");
+    }
+}
@@ -0,0 +1,65 @@
+package sampling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link sampling.HaltonSampler}
+ */
+class HaltonSamplerTest {
+
+    /**
+     * Test method for {@link sampling.HaltonSampler#sample2D(double[], int, long)}.
+     */
+    @Test
+    void testSample2D() {
+        Sampler sampler = new HaltonSampler();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the samples of 2 seeds differ only by a shift on the torus
+        double[] a = new double[2 * 9], b = new double[2 * 9];
+        sampler.sample2D(a, 9, 1);
+        sampler.sample2D(b, 9, 2);
+        for (int axis = 0; axis < 2; ++axis) {
+            double shift = b[axis] - a[axis];
+            for (int k = 1; k < 9; ++k) {
+                double d = b[2 * k + axis] - a[2 * k + axis] - shift;
+                assertEquals(0, d - Math.rint(d), 1e-9, "The seeds must shift the same sequence");
+            }
+        }
+
+        // TC02: the first 9 samples put one sample in every column of a 3x3 grid on the second axis
+        boolean[] rows = new boolean[9];
+        for (int k = 0; k < 9; ++k)
+            rows[(int) (((a[2 * k + 1] - a[1]) % 1 + 1) % 1 * 9 + 1e-9) % 9] = true;
+        for (boolean row : rows)
+            assertTrue(row, "The base 3 samples must be stratified");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: no samples
+        assertDoesNotThrow(() -> sampler.sample2D(new double[0], 0, 0), "Failed generating no samples");
+    }
+
+    /**
+     * Test method for {@link sampling.HaltonSampler#sample2D(double[], int, int, long)}.
+     */
+    @Test
+    void testSample2DPart() {
+        HaltonSampler sampler = new HaltonSampler();
+        double[] all = new double[2 * 9];
+        sampler.sample2D(all, 9, 5);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a part of the sequence is the same as in the whole sequence
+        double[] part = new double[2 * 3];
+        sampler.sample2D(part, 4, 3, 5);
+        for (int k = 0; k < 6; ++k)
+            assertEquals(all[8 + k], part[k], 1e-15, "Wrong sample of the part");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a negative first index
+        assertThrows(IllegalArgumentException.class, () -> sampler.sample2D(part, -1, 1, 5),
+                "Accepted a negative first index");
+    }
+}
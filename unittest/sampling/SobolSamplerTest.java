@@ -0,0 +1,39 @@
+package sampling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link sampling.SobolSampler}
+ */
+class SobolSamplerTest {
+
+    /**
+     * Test method for {@link sampling.SobolSampler#sample2D(double[], int, long)}.
+     */
+    @Test
+    void testSample2D() {
+        Sampler sampler = new SobolSampler();
+        double[] samples = new double[2 * 16];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: 16 samples of any seed form a net - one sample in every cell of 16x1, 8x2, 4x4, 2x8 and 1x16
+        for (long seed = 0; seed < 5; ++seed) {
+            sampler.sample2D(samples, 16, seed);
+            for (int columns = 1; columns <= 16; columns *= 2) {
+                int rows = 16 / columns;
+                boolean[] cells = new boolean[16];
+                for (int k = 0; k < 16; ++k)
+                    cells[(int) (samples[2 * k] * columns) + columns * (int) (samples[2 * k + 1] * rows)] = true;
+                for (boolean cell : cells)
+                    assertTrue(cell, "The samples are not a net of " + columns + "x" + rows);
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: an array too short for the samples
+        assertThrows(IllegalArgumentException.class, () -> sampler.sample2D(new double[3], 2, 0),
+                "Accepted a short array");
+    }
+}
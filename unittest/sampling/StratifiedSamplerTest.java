@@ -0,0 +1,54 @@
+package sampling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link sampling.StratifiedSampler}
+ */
+class StratifiedSamplerTest {
+
+    /**
+     * Test method for {@link sampling.StratifiedSampler#sample2D(double[], int, long)}.
+     */
+    @Test
+    void testSample2D() {
+        Sampler sampler = new StratifiedSampler();
+        double[] samples = new double[2 * 16];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a square count puts one sample in every cell of the grid
+        sampler.sample2D(samples, 16, 5);
+        boolean[] cells = new boolean[16];
+        for (int k = 0; k < 16; ++k)
+            cells[(int) (samples[2 * k] * 4) + 4 * (int) (samples[2 * k + 1] * 4)] = true;
+        for (boolean cell : cells)
+            assertTrue(cell, "A cell of the grid without a sample");
+
+        // TC02: the same seed gives the same samples, another seed other samples
+        double[] again = new double[2 * 16];
+        sampler.sample2D(again, 16, 5);
+        assertArrayEquals(samples, again, "The samples must be reproducible");
+        sampler.sample2D(again, 16, 6);
+        assertNotEquals(samples[0], again[0], "The samples must be decorrelated by the seed");
+
+        // TC03: a count that is not a square stays in the unit square
+        sampler.sample2D(samples, 7, 5);
+        for (int k = 0; k < 14; ++k)
+            assertTrue(samples[k] >= 0 && samples[k] < 1, "A sample out of the unit square");
+
+        // TC04: a count that is not a square puts one sample in every cell of a 2 x 3 grid
+        sampler.sample2D(samples, 6, 5);
+        cells = new boolean[6];
+        for (int k = 0; k < 6; ++k)
+            cells[(int) (samples[2 * k] * 2) + 2 * (int) (samples[2 * k + 1] * 3)] = true;
+        for (boolean cell : cells)
+            assertTrue(cell, "A cell of the grid without a sample");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: an array too short for the samples
+        assertThrows(IllegalArgumentException.class, () -> sampler.sample2D(new double[3], 2, 0),
+                "Accepted a short array");
+    }
+}
@@ -0,0 +1,150 @@
+package scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import geometries.Intersectable.GeoPoint;
+import geometries.Mesh;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Unit tests for {@link scene.MeshLoader}
+ */
+class MeshLoaderTest {
+
+    /** Folder for the test files */
+    @TempDir
+    Path folder;
+
+    /**
+     * Test method for {@link scene.MeshLoader#loadObj(java.nio.file.Path)}.
+     */
+    @Test
+    void testLoadObj() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a unit square as a quad, with texture and normal indices, comments and other statements
+        Path file = folder.resolve("square.obj");
+        Files.writeString(file, """
+                # a unit square
+                o square
+                v 0 0 0
+                v 1.0 0 0
+                v 1 1e0 0
+                v 0.0 1 0
+                vt 0 0
+                vn 0 0 1
+                f 1/1/1 2/1/1 3/1/1 4/1/1
+                """);
+        Mesh mesh = MeshLoader.load(file);
+        assertEquals(4, mesh.getVertexCount(), "Wrong number of vertices");
+        assertEquals(2, mesh.getFaceCount(), "The quad must be split into 2 triangles");
+        GeoPoint gp = mesh.findClosestGeoIntersection(new Ray(new Point(0.2, 0.7, 1), new Vector(0, 0, -1)));
+        assertNotNull(gp, "The ray must hit the square");
+        assertEquals(new Point(0.2, 0.7, 0), gp.point, "Wrong intersection point");
+
+        // TC02: negative indices, relative to the last vertex, and Windows line breaks
+        file = folder.resolve("relative.obj");
+        Files.writeString(file, "v 0 0 0\r\nv 1 0 0\r\nv 0 1 0\r\nf -3 -2 -1\r\n");
+        assertEquals(1, MeshLoader.loadObj(file).getFaceCount(), "Wrong number of faces");
+
+        // TC03: a face of a missing vertex
+        Path broken = folder.resolve("broken.obj");
+        Files.writeString(broken, "v 0 0 0\nv 1 0 0\nf 1 2 3\n");
+        assertThrows(IllegalArgumentException.class, () -> MeshLoader.loadObj(broken), "Loaded a broken file");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a file large enough to be parsed in several chunks
+        int size = 300;
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i <= size; ++i)
+            for (int j = 0; j <= size; ++j)
+                text.append("v ").append(j * 0.5).append(' ').append(i * 0.5).append(" -2.500000\n");
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j) {
+                int a = i * (size + 1) + j + 1;
+                text.append("f ").append(a).append(' ').append(a + 1).append(' ')
+                        .append(a + size + 2).append(' ').append(a + size + 1).append('\n');
+            }
+        file = folder.resolve("grid.obj");
+        Files.writeString(file, text);
+        mesh = MeshLoader.loadObj(file);
+        assertEquals((size + 1) * (size + 1), mesh.getVertexCount(), "Wrong number of vertices");
+        assertEquals(2 * size * size, mesh.getFaceCount(), "Wrong number of faces");
+        gp = mesh.findClosestGeoIntersection(new Ray(new Point(100.3, 120.7, 0), new Vector(0, 0, -1)));
+        assertNotNull(gp, "The ray must hit the grid");
+        assertEquals(new Point(100.3, 120.7, -2.5), gp.point, "Wrong intersection point");
+    }
+
+    /**
+     * Test method for {@link scene.MeshLoader#loadPly(java.nio.file.Path)}.
+     */
+    @Test
+    void testLoadPly() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a little endian unit square as a quad, with an extra vertex property and an extra element
+        assertSquare(writePly("square_le.ply", ByteOrder.LITTLE_ENDIAN));
+        // TC02: the same file in big endian
+        assertSquare(writePly("square_be.ply", ByteOrder.BIG_ENDIAN));
+
+        // TC03: an ASCII file is not supported
+        Path ascii = folder.resolve("ascii.ply");
+        Files.writeString(ascii, "ply\nformat ascii 1.0\nelement vertex 0\nend_header\n");
+        assertThrows(IllegalArgumentException.class, () -> MeshLoader.loadPly(ascii), "Loaded an ASCII file");
+    }
+
+    /**
+     * Writes a binary PLY file of a unit square
+     *
+     * @param name  the file name
+     * @param order the byte order of the data
+     * @return the file
+     * @throws IOException if the file can't be written
+     */
+    private Path writePly(String name, ByteOrder order) throws IOException {
+        String header = "ply\nformat " + (order == ByteOrder.LITTLE_ENDIAN ? "binary_little_endian" : "binary_big_endian")
+                + " 1.0\ncomment a unit square\nelement vertex 4\nproperty float x\nproperty float y\n"
+                + "property float z\nproperty uchar red\nelement face 1\nproperty list uchar int vertex_indices\n"
+                + "element extra 2\nproperty list uchar short data\nend_header\n";
+        ByteBuffer data = ByteBuffer.allocate(4 * 13 + 1 + 4 * 4 + 2 * 3).order(order);
+        float[][] vertices = {{0, 0, 0}, {1, 0, 0}, {1, 1, 0}, {0, 1, 0}};
+        for (float[] v : vertices) {
+            data.putFloat(v[0]).putFloat(v[1]).putFloat(v[2]);
+            data.put((byte) 200);
+        }
+        data.put((byte) 4).putInt(0).putInt(1).putInt(2).putInt(3);
+        data.put((byte) 1).putShort((short) 7);
+        data.put((byte) 0);
+        Path file = folder.resolve(name);
+        byte[] head = header.getBytes(StandardCharsets.US_ASCII);
+        byte[] content = new byte[head.length + data.position()];
+        System.arraycopy(head, 0, content, 0, head.length);
+        System.arraycopy(data.array(), 0, content, head.length, data.position());
+        Files.write(file, content);
+        return file;
+    }
+
+    /**
+     * Loads a PLY file of a unit square and checks it
+     *
+     * @param file the file
+     * @throws IOException if the file can't be read
+     */
+    private void assertSquare(Path file) throws IOException {
+        Mesh mesh = MeshLoader.load(file);
+        assertEquals(4, mesh.getVertexCount(), "Wrong number of vertices");
+        assertEquals(2, mesh.getFaceCount(), "The quad must be split into 2 triangles");
+        GeoPoint gp = mesh.findClosestGeoIntersection(new Ray(new Point(0.8, 0.1, 1), new Vector(0, 0, -1)));
+        assertNotNull(gp, "The ray must hit the square");
+        assertEquals(new Point(0.8, 0.1, 0), gp.point, "Wrong intersection point");
+    }
+}